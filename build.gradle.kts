@@ -5,6 +5,7 @@ import org.gradle.plugin.compatibility.compatibility
 plugins {
     `java-gradle-plugin`
     alias(libs.plugins.gradlePluginPublish)
+    alias(libs.plugins.jmh)
     alias(libs.plugins.spotless)
     alias(libs.plugins.errorprone)
     alias(libs.plugins.nullaway)
@@ -18,6 +19,10 @@ dependencies {
 
     compileOnly(embeddedKotlin("gradle-plugin"))
     compileOnly(libs.jooq.codegen)
+
+    jmh(gradleApi())
+    jmh(libs.jooq.codegen)
+    jmh(libs.h2)
 }
 
 nullaway {
@@ -40,6 +45,11 @@ tasks {
         enableStricterValidation = true
         failOnWarning = true
     }
+    jmhCompileGeneratedClasses {
+        // JMH-generated code is not warning-free
+        options.compilerArgs.remove("-Werror")
+        options.errorprone.isEnabled = false
+    }
     javadoc {
         (options as CoreJavadocOptions).addBooleanOption("Xdoclint:all,-missing", true)
     }
@@ -72,6 +82,9 @@ testing {
                 dependencies {
                     implementation(project())
                     implementation(kotlinGradlePlugin)
+                    // for unit tests of the code running in the workers
+                    implementation(libs.jooq.codegen)
+                    runtimeOnly(libs.h2)
                 }
             }
 
@@ -87,29 +100,68 @@ testing {
             targets.configureEach {
                 testTask {
                     shouldRunAfter(test)
-
-                    val testJavaToolchain = project.findProperty("test.java-toolchain")
-                    testJavaToolchain?.also {
-                        val launcher =
-                            project.javaToolchains.launcherFor {
-                                languageVersion.set(JavaLanguageVersion.of(testJavaToolchain.toString()))
-                            }
-                        val metadata = launcher.get().metadata
-                        systemProperty("test.java-version", metadata.languageVersion.asInt())
-                        systemProperty("test.java-home", metadata.installationPath.asFile.canonicalPath)
+                    useJUnitPlatform {
+                        excludeTags("performance")
                     }
-
-                    val testGradleVersion = project.findProperty("test.gradle-version")
-                    testGradleVersion?.also { systemProperty("test.gradle-version", testGradleVersion) }
-
-                    systemProperty("test.jooq-version", libs.versions.jooq.get())
-                    systemProperty("test.h2-version", libs.versions.h2.get())
+                    configureTestKit()
                 }
             }
         }
     }
 }
 
+val performanceTest by tasks.registering(Test::class) {
+    description = "Runs the performance tests."
+    group = LifecycleBasePlugin.VERIFICATION_GROUP
+
+    val functionalTest = sourceSets["functionalTest"]
+    testClassesDirs = functionalTest.output.classesDirs
+    classpath = functionalTest.runtimeClasspath
+    useJUnitPlatform {
+        includeTags("performance")
+    }
+    shouldRunAfter(tasks.named("functionalTest"))
+    configureTestKit()
+
+    // Thresholds in milliseconds, e.g. -Pperformance.threshold.configuration.200=30000
+    providers.gradlePropertiesPrefixedBy("performance.threshold.").get().forEach { (key, value) ->
+        systemProperty("test.$key", value)
+    }
+    val resultsDir = layout.buildDirectory.dir("reports/performance")
+    systemProperty("test.performance-results-dir", resultsDir.get().asFile.path)
+    outputs.dir(resultsDir)
+    outputs.upToDateWhen { false }
+}
+
+fun Test.configureTestKit() {
+    val testJavaToolchain = project.findProperty("test.java-toolchain")
+    testJavaToolchain?.also {
+        val launcher =
+            project.javaToolchains.launcherFor {
+                languageVersion.set(JavaLanguageVersion.of(testJavaToolchain.toString()))
+            }
+        val metadata = launcher.get().metadata
+        systemProperty("test.java-version", metadata.languageVersion.asInt())
+        systemProperty("test.java-home", metadata.installationPath.asFile.canonicalPath)
+    }
+
+    val testGradleVersion = project.findProperty("test.gradle-version")
+    testGradleVersion?.also { systemProperty("test.gradle-version", testGradleVersion) }
+
+    systemProperty("test.jooq-version", libs.versions.jooq.get())
+    systemProperty("test.h2-version", libs.versions.h2.get())
+}
+
+jmh {
+    // e.g. -Pjmh.includes=generateFromSnapshot -Pjmh.tables=10,1000
+    providers.gradleProperty("jmh.includes").orNull?.also { includes.add(it) }
+    providers.gradleProperty("jmh.tables").orNull?.also {
+        benchmarkParameters.put("tables", objects.listProperty<String>().value(it.split(",")))
+    }
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+}
+
 gradlePlugin {
     website.set("https://github.com/tbroyer/gradle-jooq-plugin")
     vcsUrl.set("https://github.com/tbroyer/gradle-jooq-plugin")
@@ -16,9 +16,18 @@
 package net.ltgt.gradle.jooq.functional;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.TruthJUnit.assume;
 import static java.util.Objects.requireNonNull;
 
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.DriverManager;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.gradle.api.JavaVersion;
 import org.gradle.testkit.runner.TaskOutcome;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -82,9 +91,26 @@ public class JooqPluginFunctionalTest extends BaseFunctionalTest {
               outputDir.resolve("test/jooq/tables/records/TestTableRecord.java"));
     }
 
+    var report = Files.readString(projectDir.resolve("build/reports/jooq/jooq.json"));
+    assertThat(report).contains("\"task\": \":jooq\"");
+    assertThat(report).containsMatch("\"generate\": \\d+");
+    assertThat(report).contains("\"files\": 5");
+    assertThat(report).contains("\"added\": 5");
+
+    var testTableFile = outputDir.resolve("test/jooq/tables/TestTable.java");
+    var lastModified = Files.getLastModifiedTime(testTableFile);
+    Thread.sleep(1000); // make sure a rewritten file would have a different timestamp
+
     // Task is never up to date
     result = buildWithArgs("jooq", "--url", database.getURL());
     assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    // but unchanged files are left untouched
+    assertThat(Files.getLastModifiedTime(testTableFile)).isEqualTo(lastModified);
+
+    // Output is left untouched on failure
+    result = buildWithArgsAndFail("jooq", "--url", "jdbc:h2:tcp://localhost:1/test");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.FAILED);
+    assertThat(Files.getLastModifiedTime(testTableFile)).isEqualTo(lastModified);
 
     // Output is cleared even if the configuration file has generator.target.clean=false
     Files.writeString(
@@ -107,6 +133,1614 @@ public class JooqPluginFunctionalTest extends BaseFunctionalTest {
     assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
     assertThat(result.getOutput())
         .contains(
-            "has a configured generator.target.clean with value false that will be ignored (the plugin always clear the output directory)");
+            "has a configured generator.target.clean with value false that will be ignored (the plugin always removes stale files from the output directory)");
+    assertThat(outputDir.resolve("test/db/jooq/tables/TestTable.java").toFile().isFile()).isTrue();
+    assertThat(outputDir.resolve("test/jooq").toFile().exists()).isFalse();
+  }
+
+  @Test
+  void schemaFingerprint() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                schemaFingerprint = jooqSchemaFingerprint.flatMap { it.fingerprintFile }
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+
+    var result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooqSchemaFingerprint")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+
+    // Fingerprint is always computed, but the task is up to date as the schema didn't change
+    result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooqSchemaFingerprint")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.UP_TO_DATE);
+
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("ALTER TABLE TEST_SCHEMA.TEST_TABLE ADD COLUMN ID INT;");
+    }
+
+    result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(
+            Files.readString(projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java")))
+        .contains("ID");
+  }
+
+  @Test
+  void schemaVersionQuery() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooqSchemaFingerprint {
+                schemaVersionQuery = "SELECT VERSION, CHECKSUM FROM PUBLIC.SCHEMA_HISTORY ORDER BY VERSION"
+            }
+            jooq {
+                schemaFingerprint = jooqSchemaFingerprint.flatMap { it.fingerprintFile }
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE PUBLIC.SCHEMA_HISTORY (VERSION INT PRIMARY KEY, CHECKSUM INT);");
+      stmt.execute("INSERT INTO PUBLIC.SCHEMA_HISTORY VALUES (1, 42);");
+    }
+
+    var result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+
+    // Changes outside the migration history are not detected
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("ALTER TABLE TEST_SCHEMA.TEST_TABLE ADD COLUMN ID INT;");
+    }
+    result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.UP_TO_DATE);
+
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("INSERT INTO PUBLIC.SCHEMA_HISTORY VALUES (2, 1337);");
+    }
+    result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(
+            Files.readString(projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java")))
+        .contains("ID");
+  }
+
+  @Test
+  void buildCache() throws Exception {
+    Files.writeString(
+        getSettingsFile(),
+        // language=kts
+        """
+        buildCache {
+            local {
+                directory = file("build-cache")
+            }
+        }
+        """,
+        StandardOpenOption.APPEND);
+    gradleProperties.setProperty("org.gradle.caching", "true");
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                schemaFingerprint = jooqSchemaFingerprint.flatMap { it.fingerprintFile }
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+
+    var result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+
+    var outputDir = projectDir.resolve("src/main/jooq");
+    try (var generatedFiles = Files.walk(outputDir)) {
+      generatedFiles.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+
+    // URL is not part of the cache key: use a different URL (with a no-op setting) to the same
+    // database
+    var otherUrl = database.getURL() + ";IFEXISTS=TRUE";
+    assertThat(otherUrl).isNotEqualTo(database.getURL());
+    result = buildWithArgs("jooq", "--url", otherUrl);
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.FROM_CACHE);
+    assertThat(outputDir.resolve("test/jooq/tables/TestTable.java").toFile().isFile()).isTrue();
+  }
+
+  @Test
+  void executions() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                execution("other") {
+                    configurationFile = file("src/jooq-codegen-other.xml")
+                    outputDirectory = layout.projectDirectory.dir("src/main/jooqOther")
+                }
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen-other.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>OTHER_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.other.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("CREATE SCHEMA OTHER_SCHEMA;");
+      stmt.execute("CREATE TABLE OTHER_SCHEMA.OTHER_TABLE;");
+    }
+
+    var result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+
+    // The compileJava task doesn't depend on the jooq task
+    result = buildWithArgs("compileJava");
+    assertThat(requireNonNull(result.task(":compileJava")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+
+    assertThat(
+            projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java").toFile().isFile())
+        .isTrue();
+    assertThat(
+            projectDir
+                .resolve("src/main/jooqOther/test/other/jooq/tables/OtherTable.java")
+                .toFile()
+                .isFile())
+        .isTrue();
+    assertThat(
+            projectDir
+                .resolve("build/classes/java/main/test/other/jooq/OtherSchema.class")
+                .toFile()
+                .isFile())
+        .isTrue();
+  }
+
+  @Test
+  void executionsOnly() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                configurationFile.convention(null as RegularFile?)
+                outputDirectory.convention(null as Directory?)
+                executions {
+                    register("other") {
+                        configurationFile = file("src/jooq-codegen-other.xml")
+                        outputDirectory = layout.projectDirectory.dir("src/main/jooqOther")
+                    }
+                }
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen-other.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.other.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+
+    var result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+
+    // The compileJava task doesn't depend on the jooq task
+    result = buildWithArgs("compileJava");
+    assertThat(requireNonNull(result.task(":compileJava")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+
+    assertThat(projectDir.resolve("src/main/jooq").toFile().exists()).isFalse();
+    assertThat(
+            projectDir
+                .resolve("src/main/jooqOther/test/other/jooq/tables/TestTable.java")
+                .toFile()
+                .isFile())
+        .isTrue();
+  }
+
+  @Test
+  void classDataSharing() throws Exception {
+    assume().that(testJavaVersion).isAtLeast(JavaVersion.VERSION_19);
+
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                classDataSharingArchiveDirectory = layout.buildDirectory.dir("jooq/cds")
+                // Forks the code generator, logging where its classes are loaded from
+                jvmArgs.add(
+                    "-Xlog:class+load=info:file=" +
+                        layout.buildDirectory.file("class-load-%%p.log").get().asFile.path
+                )
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+
+    // The archive is written when the forked worker exits, i.e. when the daemon stops: use a
+    // dedicated daemon that stops as soon as it's idle.
+    gradleProperties.setProperty("org.gradle.jvmargs", "-Dnet.ltgt.jooq.test=classDataSharing");
+    gradleProperties.setProperty("org.gradle.daemon.idletimeout", "1000");
+
+    var result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Creating class data sharing archive ");
+
+    var archiveDirectory = projectDir.resolve("build/jooq/cds");
+    List<Path> archives = List.of();
+    for (int i = 0; i < 120 && archives.isEmpty(); i++) {
+      Thread.sleep(500);
+      try (var files = Files.list(archiveDirectory)) {
+        archives = files.toList();
+      }
+    }
+    assertThat(archives).hasSize(1);
+    assertThat(archives.get(0).getFileName().toString()).endsWith(".jsa");
+    deleteClassLoadLogs();
+
+    result = buildWithArgs("jooq", "--url", database.getURL(), "--info", "--rerun-tasks");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Using class data sharing archive " + archives.get(0));
+    // The new worker loads jOOQ from the archive
+    String classLoadLog;
+    try (var files = Files.list(projectDir.resolve("build"))) {
+      classLoadLog =
+          Files.readString(
+              files
+                  .filter(file -> file.getFileName().toString().startsWith("class-load-"))
+                  .findFirst()
+                  .orElseThrow());
+    }
+    assertThat(classLoadLog)
+        .containsMatch("org\\.jooq\\.codegen\\.GenerationTool source: shared objects file");
+  }
+
+  private void deleteClassLoadLogs() throws Exception {
+    try (var files = Files.list(projectDir.resolve("build"))) {
+      for (Path file :
+          files.filter(file -> file.getFileName().toString().startsWith("class-load-")).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Test
+  void connectionPool() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                poolConnections = true
+                execution("other") {
+                    configurationFile = file("src/jooq-codegen.xml")
+                    outputDirectory = layout.projectDirectory.dir("src/main/jooqOther")
+                }
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+    // Run code generations sequentially, so the second one reuses the connection of the first
+    gradleProperties.setProperty("org.gradle.workers.max", "1");
+
+    database.createDb();
+
+    var result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Reusing pooled connection to " + database.getURL());
+    assertThat(Files.readString(projectDir.resolve("build/reports/jooq/jooq.json")))
+        .containsMatch("\"connect\": \\d+");
+
+    // Connections are not reused across builds
+    result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput().split("Reusing pooled connection", -1)).hasLength(2);
+
+    // Without connection pooling, each code generation opens its own connection
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+
+        tasks.jooq { poolConnections = false }
+        """,
+        StandardOpenOption.APPEND);
+    result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).doesNotContain("Reusing pooled connection");
+  }
+
+  @Test
+  void databaseLimiter() throws Exception {
+    Files.writeString(getSettingsFile(), "include(\"a\", \"b\")\n", StandardOpenOption.APPEND);
+    for (var subproject : List.of("a", "b")) {
+      Files.createDirectories(projectDir.resolve(subproject).resolve("src"));
+      Files.writeString(
+          projectDir.resolve(subproject).resolve("build.gradle.kts"),
+          // language=kts
+          """
+          plugins {
+              id("net.ltgt.jooq")
+              java
+          }
+
+          dependencies {
+            implementation("org.jooq:jooq:%1$s")
+
+            jooqCodegen("org.jooq:jooq-codegen:%1$s")
+            jooqCodegen("com.h2database:h2:%2$s")
+          }
+
+          tasks {
+              jooq {
+                  url = "%3$s"
+              }
+          }
+          """
+              .formatted(jooqVersion, h2Version, database.getURL()));
+      Files.writeString(
+          projectDir.resolve(subproject).resolve("src/jooq-codegen.xml"),
+          // language=xml
+          """
+          <configuration>
+            <generator>
+              <database>
+                <inputSchema>TEST_SCHEMA</inputSchema>
+              </database>
+              <target>
+                <packageName>test.jooq</packageName>
+              </target>
+            </generator>
+          </configuration>
+          """);
+    }
+    gradleProperties.setProperty("org.gradle.parallel", "true");
+    gradleProperties.setProperty("net.ltgt.jooq.maxParallelUsages.localhost", "1");
+
+    database.createDb();
+
+    var result = buildWithArgs("jooq");
+    assertThat(requireNonNull(result.task(":a:jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(requireNonNull(result.task(":b:jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(Files.readString(projectDir.resolve("a/build/reports/jooq/jooq.json")))
+        .containsMatch("\"queueMillis\": \\d+");
+  }
+
+  @Test
+  void shareMetadata() throws Exception {
+    Files.writeString(getSettingsFile(), "include(\"a\", \"b\")\n", StandardOpenOption.APPEND);
+    for (var subproject : List.of("a", "b")) {
+      Files.createDirectories(projectDir.resolve(subproject).resolve("src"));
+      Files.writeString(
+          projectDir.resolve(subproject).resolve("build.gradle.kts"),
+          // language=kts
+          """
+          plugins {
+              id("net.ltgt.jooq")
+              java
+          }
+
+          dependencies {
+            implementation("org.jooq:jooq:%1$s")
+
+            jooqCodegen("org.jooq:jooq-codegen:%1$s")
+            jooqCodegen("com.h2database:h2:%2$s")
+          }
+
+          tasks {
+              jooq {
+                  url = "%3$s"
+                  shareMetadata = true
+              }
+          }
+          """
+              .formatted(jooqVersion, h2Version, database.getURL()));
+      Files.writeString(
+          projectDir.resolve(subproject).resolve("src/jooq-codegen.xml"),
+          // language=xml
+          """
+          <configuration>
+            <generator>
+              <database>
+                <inputSchema>%1$s</inputSchema>
+              </database>
+              <target>
+                <packageName>test.%2$s</packageName>
+              </target>
+            </generator>
+          </configuration>
+          """
+              .formatted(subproject.equals("a") ? "TEST_SCHEMA" : "OTHER_SCHEMA", subproject));
+    }
+
+    database.createDb();
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("CREATE SCHEMA OTHER_SCHEMA;");
+      stmt.execute("CREATE TABLE OTHER_SCHEMA.OTHER_TABLE (ID INT PRIMARY KEY);");
+    }
+
+    var result = buildWithArgs("jooq", "--info");
+    assertThat(requireNonNull(result.task(":a:jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(requireNonNull(result.task(":b:jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    // Metadata is read only once
+    assertThat(result.getOutput().split("Read shared database metadata", -1)).hasLength(2);
+    assertThat(result.getOutput()).contains("Using shared database metadata");
+    assertThat(readFiles(projectDir.resolve("a/src/main/jooq")))
+        .containsKey(Path.of("test/a/tables/TestTable.java"));
+    assertThat(readFiles(projectDir.resolve("a/src/main/jooq")))
+        .doesNotContainKey(Path.of("test/a/tables/OtherTable.java"));
+    assertThat(readFiles(projectDir.resolve("b/src/main/jooq")))
+        .containsKey(Path.of("test/b/tables/OtherTable.java"));
+  }
+
+  @Test
+  void isolatedProjects() throws Exception {
+    Files.writeString(getSettingsFile(), "include(\"a\", \"b\")\n", StandardOpenOption.APPEND);
+    for (var subproject : List.of("a", "b")) {
+      Files.createDirectories(projectDir.resolve(subproject).resolve("src"));
+      Files.writeString(
+          projectDir.resolve(subproject).resolve("build.gradle.kts"),
+          // language=kts
+          """
+          plugins {
+              id("net.ltgt.jooq")
+              java
+              idea
+          }
+
+          tasks.configureEach { logger.lifecycle("Realized task $path") }
+
+          dependencies {
+            implementation("org.jooq:jooq:%1$s")
+
+            jooqCodegen("org.jooq:jooq-codegen:%1$s")
+            jooqCodegen("com.h2database:h2:%2$s")
+          }
+
+          tasks {
+              jooq {
+                  url = "%3$s"
+              }
+          }
+          """
+              .formatted(jooqVersion, h2Version, database.getURL()));
+      Files.writeString(
+          projectDir.resolve(subproject).resolve("src/jooq-codegen.xml"),
+          // language=xml
+          """
+          <configuration>
+            <generator>
+              <database>
+                <inputSchema>TEST_SCHEMA</inputSchema>
+              </database>
+              <target>
+                <packageName>test.jooq</packageName>
+              </target>
+            </generator>
+          </configuration>
+          """);
+    }
+    gradleProperties.setProperty("org.gradle.unsafe.isolated-projects", "true");
+
+    database.createDb();
+
+    // Configuring the projects doesn't realize any of the tasks
+    var result = buildWithArgs("help");
+    assertThat(result.getOutput()).doesNotContain("Realized task :a:jooq");
+    assertThat(result.getOutput()).doesNotContain("Realized task :a:compileJava");
+
+    result = buildWithArgs("jooq");
+    assertThat(requireNonNull(result.task(":a:jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(requireNonNull(result.task(":b:jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+  }
+
+  @Test
+  void forkOptions() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                jvmArgs.add("-XX:+UseSerialGC")
+                minHeapSize = "64m"
+                maxHeapSize = providers.gradleProperty("jooqMaxHeapSize")
+                adaptiveHeapSize = true
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+
+    var result =
+        buildWithArgs("jooq", "--url", database.getURL(), "-PjooqMaxHeapSize=256m", "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Code generator peak heap usage: ");
+    assertThat(Files.readString(projectDir.resolve("build/reports/jooq/jooq.json")))
+        .containsMatch("\"peakHeapBytes\": [1-9]\\d*");
+    assertThat(
+            projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java").toFile().isFile())
+        .isTrue();
+
+    // Without a maximum heap size, it's computed from the previous peak heap usage
+    result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Using a computed maximum heap size of ");
+  }
+
+  @Test
+  void shardBySchema() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                shardBySchema = providers.gradleProperty("shard").map { it.toBoolean() }
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <schemata>
+                <schema><inputSchema>TEST_SCHEMA</inputSchema></schema>
+                <schema><inputSchema>SCHEMA_A</inputSchema></schema>
+                <schema><inputSchema>SCHEMA_B</inputSchema></schema>
+              </schemata>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      for (var schema : List.of("SCHEMA_A", "SCHEMA_B")) {
+        stmt.execute("CREATE SCHEMA %s;".formatted(schema));
+        stmt.execute("CREATE SEQUENCE %s.ID_SEQ;".formatted(schema));
+        for (int i = 0; i < 5; i++) {
+          stmt.execute(
+              "CREATE TABLE %1$s.PARENT_%2$d (ID INT PRIMARY KEY, NAME VARCHAR(50) NOT NULL);"
+                  .formatted(schema, i));
+          stmt.execute(
+              "CREATE TABLE %1$s.CHILD_%2$d (ID INT PRIMARY KEY, PARENT_ID INT REFERENCES %1$s.PARENT_%2$d (ID));"
+                  .formatted(schema, i));
+          stmt.execute(
+              "CREATE INDEX CHILD_%2$d_PARENT_ID ON %1$s.CHILD_%2$d (PARENT_ID);"
+                  .formatted(schema, i));
+        }
+      }
+    }
+
+    var outputDir = projectDir.resolve("src/main/jooq");
+
+    var result = buildWithArgs("jooq", "--url", database.getURL(), "-Pshard=false");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    var unsharded = readFiles(outputDir);
+    assertThat(unsharded).containsKey(Path.of("test/jooq/DefaultCatalog.java"));
+    assertThat(unsharded).containsKey(Path.of("test/jooq/schema_a/tables/Child_0.java"));
+
+    try (var generatedFiles = Files.walk(outputDir)) {
+      generatedFiles.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+
+    result = buildWithArgs("jooq", "--url", database.getURL(), "-Pshard=true", "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(readFiles(outputDir)).containsExactlyEntriesIn(unsharded);
+  }
+
+  @Test
+  void precompiled() throws Exception {
+    Files.writeString(getSettingsFile(), "include(\"db\", \"app\")\n", StandardOpenOption.APPEND);
+    Files.createDirectories(projectDir.resolve("db/src/main/java/test/db"));
+    Files.writeString(
+        projectDir.resolve("db/build.gradle.kts"),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        group = "test"
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                url = "%3$s"
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version, database.getURL()));
+    Files.writeString(
+        projectDir.resolve("db/src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+    Files.writeString(
+        projectDir.resolve("db/src/main/java/test/db/Db.java"),
+        // language=java
+        """
+        package test.db;
+
+        public class Db {
+          public static final Object TABLE = test.jooq.Tables.TEST_TABLE;
+        }
+        """);
+    Files.createDirectories(projectDir.resolve("app/src/main/java/test/app"));
+    Files.writeString(
+        projectDir.resolve("app/build.gradle.kts"),
+        // language=kts
+        """
+        plugins {
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+          implementation(project(":db")) {
+            capabilities { requireCapability("test:db-jooq") }
+          }
+        }
+        """
+            .formatted(jooqVersion));
+    Files.writeString(
+        projectDir.resolve("app/src/main/java/test/app/App.java"),
+        // language=java
+        """
+        package test.app;
+
+        public class App {
+          public static final Object TABLE = test.jooq.Tables.TEST_TABLE;
+        }
+        """);
+    gradleProperties.setProperty("net.ltgt.jooq.precompiled", "true");
+
+    database.createDb();
+
+    var result = buildWithArgs(":db:jooq");
+    assertThat(requireNonNull(result.task(":db:jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+
+    result = buildWithArgs(":db:compileJava", ":app:compileJava");
+    assertThat(requireNonNull(result.task(":db:compileJooqJava")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(requireNonNull(result.task(":db:jooqJar")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(requireNonNull(result.task(":db:compileJava")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(requireNonNull(result.task(":app:compileJava")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+    // The generated code is only compiled once, by its own compile task
+    assertThat(
+            Files.isRegularFile(
+                projectDir.resolve("db/build/classes/java/jooq/test/jooq/Tables.class")))
+        .isTrue();
+    assertThat(Files.exists(projectDir.resolve("db/build/classes/java/main/test/jooq"))).isFalse();
+  }
+
+  @Test
+  void parallelGeneration() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                parallelGeneration = providers.gradleProperty("parallel").map { it.toBoolean() }
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <generate>
+              <pojos>true</pojos>
+              <interfaces>true</interfaces>
+              <daos>true</daos>
+            </generate>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      for (int i = 0; i < 20; i++) {
+        stmt.execute(
+            "CREATE TABLE TEST_SCHEMA.PARENT_%d (ID INT PRIMARY KEY, NAME VARCHAR(50) NOT NULL);"
+                .formatted(i));
+        stmt.execute(
+            "CREATE TABLE TEST_SCHEMA.CHILD_%1$d (ID INT PRIMARY KEY, PARENT_ID INT REFERENCES TEST_SCHEMA.PARENT_%1$d (ID));"
+                .formatted(i));
+      }
+    }
+
+    var outputDir = projectDir.resolve("src/main/jooq");
+
+    var result = buildWithArgs("jooq", "--url", database.getURL(), "-Pparallel=false");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    var sequential = readFiles(outputDir);
+    assertThat(sequential).containsKey(Path.of("test/jooq/tables/daos/Child_0Dao.java"));
+
+    try (var generatedFiles = Files.walk(outputDir)) {
+      generatedFiles.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+
+    result = buildWithArgs("jooq", "--url", database.getURL(), "-Pparallel=true", "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput())
+        .containsMatch("Generating tables of \\S*TEST_SCHEMA in parallel");
+    assertThat(readFiles(outputDir)).containsExactlyEntriesIn(sequential);
+  }
+
+  @Test
+  void incrementalGeneration() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                incrementalGeneration = providers.gradleProperty("incremental").map(String::toBoolean)
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    gradleProperties.setProperty("incremental", "true");
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <generate>
+              <pojos>true</pojos>
+              <daos>true</daos>
+            </generate>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      for (int i = 0; i < 5; i++) {
+        stmt.execute(
+            "CREATE TABLE TEST_SCHEMA.PARENT_%d (ID INT PRIMARY KEY, NAME VARCHAR(50) NOT NULL);"
+                .formatted(i));
+        stmt.execute(
+            "CREATE TABLE TEST_SCHEMA.CHILD_%1$d (ID INT PRIMARY KEY, PARENT_ID INT REFERENCES TEST_SCHEMA.PARENT_%1$d (ID));"
+                .formatted(i));
+      }
+      // Routines and sequences are read back from the snapshot too
+      stmt.execute("CREATE SEQUENCE TEST_SCHEMA.TEST_SEQUENCE;");
+      stmt.execute("CREATE ALIAS TEST_SCHEMA.TEST_ABS FOR 'java.lang.Math.abs(int)';");
+    }
+
+    var outputDir = projectDir.resolve("src/main/jooq");
+
+    var result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Generating all tables");
+    var unchangedPojo = outputDir.resolve("test/jooq/tables/pojos/Child_1.java");
+    var unchangedPojoLastModified = Files.getLastModifiedTime(unchangedPojo);
+
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("ALTER TABLE TEST_SCHEMA.CHILD_3 ADD COLUMN LABEL VARCHAR(50);");
+    }
+
+    result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    // All tables but CHILD_3
+    assertThat(result.getOutput())
+        .contains("Skipping 10 tables unchanged since the previous code generation");
+    var incremental = readFiles(outputDir);
+    assertThat(incremental.get(Path.of("test/jooq/tables/pojos/Child_3.java"))).contains("label");
+    assertThat(Files.getLastModifiedTime(unchangedPojo)).isEqualTo(unchangedPojoLastModified);
+
+    // Generating all tables produces the same code
+    try (var generatedFiles = Files.walk(outputDir)) {
+      generatedFiles.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+    result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Not using the previous code generation");
+    assertThat(result.getOutput()).contains("Generating all tables");
+    assertThat(readFiles(outputDir)).containsExactlyEntriesIn(incremental);
+
+    // Generating from the database rather than a snapshot produces the same code
+    gradleProperties.setProperty("incremental", "false");
+    result = buildWithArgs("jooq", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(readFiles(outputDir)).containsExactlyEntriesIn(incremental);
+  }
+
+  @Test
+  void metadataConnections() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                metadataConnections = 4
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute(
+          "CREATE TABLE TEST_SCHEMA.PARENT (ID INT PRIMARY KEY, NAME VARCHAR(50) NOT NULL UNIQUE);");
+      stmt.execute(
+          "CREATE TABLE TEST_SCHEMA.CHILD (ID INT PRIMARY KEY, PARENT_ID INT NOT NULL REFERENCES TEST_SCHEMA.PARENT (ID), LABEL VARCHAR(50));");
+      stmt.execute("CREATE INDEX CHILD_LABEL ON TEST_SCHEMA.CHILD (LABEL);");
+    }
+
+    var result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput())
+        .contains("Reading metadata of schemas [TEST_SCHEMA] from INFORMATION_SCHEMA");
+    var generatedFiles = readFiles(projectDir.resolve("src/main/jooq"));
+    var table = generatedFiles.get(Path.of("test/jooq/tables/Child.java"));
+    assertThat(table)
+        .contains(
+            "PARENT_ID = createField(DSL.name(\"PARENT_ID\"), SQLDataType.INTEGER.nullable(false)");
+    assertThat(table).contains("LABEL");
+    assertThat(generatedFiles.get(Path.of("test/jooq/Keys.java")))
+        .contains("ForeignKey<ChildRecord");
+    assertThat(generatedFiles.get(Path.of("test/jooq/Indexes.java"))).contains("CHILD_LABEL");
+  }
+
+  @Test
+  void timeouts() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                connectTimeout = java.time.Duration.ofSeconds(30)
+                queryTimeout = providers.gradleProperty("queryTimeout").map { java.time.Duration.ofSeconds(it.toLong()) }
+                timeout = java.time.Duration.ofMinutes(5)
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE TEST_SCHEMA.TEST_TABLE (ID INT PRIMARY KEY);");
+    }
+
+    var result = buildWithArgs("jooq", "--url", database.getURL(), "-PqueryTimeout=30");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(Files.exists(projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java")))
+        .isTrue();
+
+    result = buildWithArgsAndFail("jooq", "--url", database.getURL(), "-PqueryTimeout=0");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.FAILED);
+    assertThat(result.getOutput()).contains("The query timeout must be positive, got PT0S");
+  }
+
+  @Test
+  void snapshot() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                snapshotFile = layout.projectDirectory.file("src/jooq-snapshot.xml")
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+
+    var result = buildWithArgs("jooqSnapshot", "--url", database.getURL());
+    assertThat(requireNonNull(result.task(":jooqSnapshot")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.task(":jooq")).isNull();
+    var snapshot = Files.readString(projectDir.resolve("src/jooq-snapshot.xml"));
+    assertThat(snapshot).contains("<!-- jOOQ dialect: H2 -->");
+    assertThat(snapshot).contains("TEST_TABLE");
+
+    // No URL needed
+    result = buildWithArgs("jooq");
+    assertThat(result.task(":jooqSnapshot")).isNull();
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(
+            projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java").toFile().isFile())
+        .isTrue();
+
+    result = buildWithArgs("jooq");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.UP_TO_DATE);
+  }
+
+  @Test
+  void jooqCheck() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                url = "%3$s"
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version, database.getURL()));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+
+    var result = buildWithArgs("jooq");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    var generatedFiles = readFiles(projectDir.resolve("src/main/jooq"));
+
+    // The check task only depends on the jooqCheck task when opted in
+    gradleProperties.setProperty("net.ltgt.jooq.checkGeneratedCode", "true");
+    result = buildWithArgs("check");
+    assertThat(requireNonNull(result.task(":jooqCheck")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.task(":jooq")).isNull();
+
+    var testTable = projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java");
+    Files.writeString(testTable, "// modified\n", StandardOpenOption.APPEND);
+    var modifiedFiles = readFiles(projectDir.resolve("src/main/jooq"));
+    result = buildWithArgsAndFail("jooqCheck");
+    assertThat(requireNonNull(result.task(":jooqCheck")).getOutcome())
+        .isEqualTo(TaskOutcome.FAILED);
+    assertThat(result.getOutput()).contains("is not up-to-date");
+    assertThat(result.getOutput()).contains("modified: test/jooq/tables/TestTable.java");
+    // Committed files are never touched
+    assertThat(readFiles(projectDir.resolve("src/main/jooq"))).isEqualTo(modifiedFiles);
+
+    result = buildWithArgs("jooq");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(readFiles(projectDir.resolve("src/main/jooq"))).isEqualTo(generatedFiles);
+    result = buildWithArgs("jooqCheck");
+    assertThat(requireNonNull(result.task(":jooqCheck")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+  }
+
+  @Test
+  void migrations() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                migrations.from("src/main/resources/db/migration")
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+    var migrationsDir = projectDir.resolve("src/main/resources/db/migration");
+    Files.createDirectories(migrationsDir);
+    Files.writeString(
+        migrationsDir.resolve("V1__create_schema.sql"),
+        // language=sql
+        """
+        CREATE SCHEMA TEST_SCHEMA;
+        CREATE TABLE TEST_SCHEMA.TEST_TABLE (ID INT PRIMARY KEY);
+        """);
+    Files.writeString(
+        migrationsDir.resolve("V2__add_name.sql"),
+        // language=sql
+        """
+        ALTER TABLE TEST_SCHEMA.TEST_TABLE ADD COLUMN NAME VARCHAR(50);
+        """);
+    // Must be applied after V2
+    Files.writeString(
+        migrationsDir.resolve("V10__rename_name.sql"),
+        // language=sql
+        """
+        ALTER TABLE TEST_SCHEMA.TEST_TABLE RENAME COLUMN NAME TO LABEL;
+        """);
+
+    // No URL needed
+    var result = buildWithArgs("jooq");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    var testTableFile = projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java");
+    assertThat(Files.readString(testTableFile)).contains("LABEL");
+
+    result = buildWithArgs("jooq");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.UP_TO_DATE);
+
+    Files.writeString(
+        migrationsDir.resolve("V11__add_description.sql"),
+        // language=sql
+        """
+        ALTER TABLE TEST_SCHEMA.TEST_TABLE ADD COLUMN DESCRIPTION VARCHAR(200);
+        """);
+    result = buildWithArgs("jooq");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(Files.readString(testTableFile)).contains("DESCRIPTION");
+  }
+
+  @Test
+  void metadataCache() throws Exception {
+    Files.writeString(
+        getBuildFile(),
+        // language=kts
+        """
+        plugins {
+            id("net.ltgt.jooq")
+            java
+        }
+
+        dependencies {
+          implementation("org.jooq:jooq:%1$s")
+
+          jooqCodegen("org.jooq:jooq-codegen:%1$s")
+          jooqCodegen("com.h2database:h2:%2$s")
+        }
+
+        tasks {
+            jooq {
+                schemaFingerprint = jooqSchemaFingerprint.flatMap { it.fingerprintFile }
+                metadataCacheDirectory = layout.buildDirectory.dir("jooq/metadata-cache")
+            }
+        }
+        """
+            .formatted(jooqVersion, h2Version));
+    Files.createDirectory(projectDir.resolve("src"));
+    Files.writeString(
+        projectDir.resolve("src/jooq-codegen.xml"),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>test.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """);
+
+    database.createDb();
+    // H2 cannot drop the last column of a table
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("ALTER TABLE TEST_SCHEMA.TEST_TABLE ADD COLUMN ID INT;");
+    }
+
+    var cacheDir = projectDir.resolve("build/jooq/metadata-cache");
+    var testTableFile = projectDir.resolve("src/main/jooq/test/jooq/tables/TestTable.java");
+
+    var result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Cached database metadata");
+    assertThat(testTableFile.toFile().isFile()).isTrue();
+    try (var files = Files.list(cacheDir)) {
+      assertThat(files.filter(file -> file.toString().endsWith(".xml")).count()).isEqualTo(1);
+    }
+
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("ALTER TABLE TEST_SCHEMA.TEST_TABLE ADD COLUMN NAME VARCHAR(50);");
+    }
+    result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Cached database metadata");
+    assertThat(Files.readString(testTableFile)).contains("DSL.name(\"NAME\")");
+    try (var files = Files.list(cacheDir)) {
+      assertThat(files.filter(file -> file.toString().endsWith(".xml")).count()).isEqualTo(2);
+    }
+
+    // Back to the previous schema
+    try (var conn = DriverManager.getConnection(database.getURL());
+        var stmt = conn.createStatement()) {
+      stmt.execute("ALTER TABLE TEST_SCHEMA.TEST_TABLE DROP COLUMN NAME;");
+    }
+    result = buildWithArgs("jooq", "--url", database.getURL(), "--info");
+    assertThat(requireNonNull(result.task(":jooq")).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    assertThat(result.getOutput()).contains("Using cached database metadata");
+    assertThat(Files.readString(testTableFile)).doesNotContain("DSL.name(\"NAME\")");
+  }
+
+  private static Map<Path, String> readFiles(Path directory) throws Exception {
+    var files = new TreeMap<Path, String>();
+    try (var paths = Files.walk(directory)) {
+      for (var path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+        files.put(directory.relativize(path), Files.readString(path));
+      }
+    }
+    return files;
   }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.functional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Measures the wall-clock time of multi-project builds applying the plugin in every project.
+ *
+ * <p>Results are appended to {@code results.csv} in the directory given by the {@code
+ * test.performance-results-dir} system property, and each measure fails the test if it exceeds the
+ * threshold (in milliseconds) given by the {@code
+ * test.performance.threshold.<metric>.<subprojects>} system property, if any.
+ */
+@Tag("performance")
+public class JooqPluginPerformanceTest extends BaseFunctionalTest {
+
+  @RegisterExtension DatabaseExtension database = new DatabaseExtension(() -> projectDir);
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 50, 200})
+  void multiProject(int subprojects) throws Exception {
+    database.createDb();
+    var settings = new StringBuilder();
+    for (int i = 1; i <= subprojects; i++) {
+      var subproject = "sub-%03d".formatted(i);
+      settings.append("include(\"").append(subproject).append("\")\n");
+      var subprojectDir = Files.createDirectories(projectDir.resolve(subproject).resolve("src"));
+      Files.writeString(
+          subprojectDir.resolveSibling("build.gradle.kts"),
+          // language=kts
+          """
+          plugins {
+              id("net.ltgt.jooq")
+              java
+          }
+
+          dependencies {
+            implementation("org.jooq:jooq:%1$s")
+
+            jooqCodegen("org.jooq:jooq-codegen:%1$s")
+            jooqCodegen("com.h2database:h2:%2$s")
+          }
+
+          tasks {
+              jooq {
+                  url = "%3$s"
+              }
+          }
+          """
+              .formatted(jooqVersion, h2Version, database.getURL()));
+      Files.writeString(
+          subprojectDir.resolve("jooq-codegen.xml"),
+          // language=xml
+          """
+          <configuration>
+            <generator>
+              <database>
+                <inputSchema>TEST_SCHEMA</inputSchema>
+              </database>
+              <target>
+                <packageName>test.jooq</packageName>
+              </target>
+            </generator>
+          </configuration>
+          """);
+    }
+    Files.writeString(getSettingsFile(), settings, StandardOpenOption.APPEND);
+
+    // Warm up the daemon
+    buildWithArgs("help");
+
+    long start = System.nanoTime();
+    buildWithArgs("jooq", "--dry-run", "--no-configuration-cache");
+    record("configuration", subprojects, start);
+
+    buildWithArgs("jooq", "--dry-run");
+    start = System.nanoTime();
+    var result = buildWithArgs("jooq", "--dry-run");
+    record("configurationCacheHit", subprojects, start);
+    assertThat(result.getOutput()).contains("Reusing configuration cache.");
+
+    // Projects are configured in parallel with isolated projects (that also invalidates the
+    // configuration cache)
+    start = System.nanoTime();
+    result = buildWithArgs("jooq", "--dry-run", "-Dorg.gradle.unsafe.isolated-projects=true");
+    record("isolatedProjectsConfiguration", subprojects, start);
+    assertThat(result.getOutput()).doesNotContain("Reusing configuration cache.");
+
+    buildWithArgs("jooq");
+    start = System.nanoTime();
+    result = buildWithArgs("jooq");
+    record("execution", subprojects, start);
+    assertThat(requireNonNull(result.task(":sub-001:jooq")).getOutcome())
+        .isEqualTo(TaskOutcome.SUCCESS);
+  }
+
+  private static void record(String metric, int subprojects, long start) throws Exception {
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    var resultsDir = System.getProperty("test.performance-results-dir");
+    if (resultsDir != null) {
+      var resultsFile = Files.createDirectories(Path.of(resultsDir)).resolve("results.csv");
+      if (!Files.exists(resultsFile)) {
+        Files.writeString(resultsFile, "gradleVersion,javaVersion,subprojects,metric,millis\n");
+      }
+      Files.writeString(
+          resultsFile,
+          "%s,%s,%d,%s,%d\n"
+              .formatted(
+                  testGradleVersion.getVersion(), testJavaVersion, subprojects, metric, millis),
+          StandardOpenOption.APPEND);
+    }
+
+    var threshold =
+        System.getProperty("test.performance.threshold.%s.%d".formatted(metric, subprojects));
+    if (threshold != null) {
+      assertWithMessage("%s with %s subprojects (ms)", metric, subprojects)
+          .that(millis)
+          .isAtMost(Long.parseLong(threshold));
+    }
+  }
+}
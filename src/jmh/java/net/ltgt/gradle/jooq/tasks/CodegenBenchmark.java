@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.jooq.codegen.GenerationTool;
+import org.jooq.meta.jaxb.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the code generation pipeline, end to end and phase by phase, against {@linkplain
+ * SyntheticSchema synthetic schemas} of various sizes in an in-memory H2 database.
+ *
+ * <p>Each operation can take several seconds with large schemas, so this measures single shots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CodegenBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  public int tables;
+
+  private Path workDirectory;
+  private String url;
+  // Keeps the in-memory database alive
+  private Connection connection;
+  private Project project;
+  private Path configurationFile;
+  private Path snapshotFile;
+  private Path stagingDirectory;
+  private Path outputDirectory;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    workDirectory = Files.createTempDirectory("jooq-jmh");
+    url = "jdbc:h2:mem:bench-" + tables + ";DB_CLOSE_DELAY=-1";
+    connection = DriverManager.getConnection(url);
+    SyntheticSchema.create(connection, tables);
+
+    project =
+        ProjectBuilder.builder().withProjectDir(workDirectory.resolve("project").toFile()).build();
+
+    configurationFile = workDirectory.resolve("jooq-codegen.xml");
+    Files.writeString(
+        configurationFile,
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>%s</inputSchema>
+            </database>
+            <target>
+              <packageName>bench.jooq</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """
+            .formatted(SyntheticSchema.SCHEMA));
+
+    snapshotFile = workDirectory.resolve("jooq-snapshot.xml");
+    Snapshots.take(
+        loadConfiguration(), connection, workDirectory.resolve("snapshot"), snapshotFile);
+
+    // Generated once, to benchmark the synchronization of the output directory
+    stagingDirectory = workDirectory.resolve("staging");
+    newWorkAction(stagingDirectory, /* fromSnapshot= */ true).execute();
+    outputDirectory = workDirectory.resolve("output");
+    DirectorySync.sync(stagingDirectory, outputDirectory);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("SHUTDOWN");
+    }
+    connection.close();
+    try (Stream<Path> paths = Files.walk(workDirectory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /** The whole work action: configuration handling, and generation from the database. */
+  @Benchmark
+  public void endToEnd() {
+    newWorkAction(workDirectory.resolve("endToEnd"), /* fromSnapshot= */ false).execute();
+  }
+
+  /** Parsing the configuration file. */
+  @Benchmark
+  public Configuration loadConfiguration() throws IOException {
+    try (InputStream is = Files.newInputStream(configurationFile)) {
+      return GenerationTool.load(is);
+    }
+  }
+
+  /** Loading the configuration file from the in-memory cache. */
+  @Benchmark
+  public Configuration loadCachedConfiguration() {
+    return ConfigurationLoader.load(configurationFile);
+  }
+
+  /** Reading the database metadata, as done by the metadata cache and the jooqSnapshot task. */
+  @Benchmark
+  public void readMetadata() throws Exception {
+    Snapshots.take(
+        loadConfiguration(),
+        connection,
+        workDirectory.resolve("readMetadata"),
+        workDirectory.resolve("readMetadata.xml"));
+  }
+
+  /** Generating the code from already read metadata. */
+  @Benchmark
+  public void generateFromSnapshot() {
+    newWorkAction(workDirectory.resolve("generateFromSnapshot"), /* fromSnapshot= */ true)
+        .execute();
+  }
+
+  /** Updating the output directory when nothing changed. */
+  @Benchmark
+  public DirectorySync.Result syncOutput() throws IOException {
+    return DirectorySync.sync(stagingDirectory, outputDirectory);
+  }
+
+  private JooqCodegenWorkAction newWorkAction(Path outputDirectory, boolean fromSnapshot) {
+    JooqCodegenWorkAction.Parameters parameters =
+        project.getObjects().newInstance(JooqCodegenWorkAction.Parameters.class);
+    if (fromSnapshot) {
+      parameters.getSnapshotFile().set(snapshotFile.toFile());
+    } else {
+      parameters.getUrl().set(url);
+    }
+    parameters.getConfigurationFile().set(configurationFile.toFile());
+    parameters.getOutputDirectory().set(outputDirectory.toFile());
+    parameters.getExcludedSchemas().empty();
+    parameters.getCatalogOnly().set(false);
+    return new BenchmarkWorkAction(parameters);
+  }
+
+  private static class BenchmarkWorkAction extends JooqCodegenWorkAction {
+    private final Parameters parameters;
+
+    BenchmarkWorkAction(Parameters parameters) {
+      this.parameters = parameters;
+    }
+
+    // Not instantiated by Gradle, so the parameters are passed to the constructor
+    @Override
+    @SuppressWarnings("OverridesJavaxInjectableMethod")
+    public Parameters getParameters() {
+      return parameters;
+    }
+  }
+}
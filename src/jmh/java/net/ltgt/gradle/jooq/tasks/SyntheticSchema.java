@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates a synthetic schema with the given number of tables, each with a primary key, a foreign
+ * key to the previous table, and an index, along with a routine every 10 tables.
+ */
+final class SyntheticSchema {
+  private SyntheticSchema() {}
+
+  static final String SCHEMA = "BENCH";
+
+  static void create(Connection connection, int tables) throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("CREATE SCHEMA " + SCHEMA);
+      for (int i = 1; i <= tables; i++) {
+        stmt.execute(
+            """
+            CREATE TABLE %1$s.T_%2$05d (
+              ID BIGINT PRIMARY KEY,
+              NAME VARCHAR(255) NOT NULL,
+              DESCRIPTION CLOB,
+              AMOUNT DECIMAL(19, 4),
+              CREATED_AT TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+              PARENT_ID BIGINT%3$s
+            )
+            """
+                .formatted(
+                    SCHEMA,
+                    i,
+                    i == 1 ? "" : " REFERENCES %s.T_%05d (ID)".formatted(SCHEMA, i - 1)));
+        stmt.execute("CREATE INDEX %1$s.I_%2$05d ON %1$s.T_%2$05d (NAME)".formatted(SCHEMA, i));
+        if (i % 10 == 0) {
+          stmt.execute(
+              "CREATE ALIAS %s.F_%05d FOR 'java.lang.Integer.toHexString'".formatted(SCHEMA, i));
+        }
+      }
+    }
+  }
+}
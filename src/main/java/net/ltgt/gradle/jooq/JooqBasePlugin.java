@@ -15,23 +15,50 @@
  */
 package net.ltgt.gradle.jooq;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.ltgt.gradle.jooq.tasks.DatabaseLimiterService;
+import net.ltgt.gradle.jooq.tasks.JdbcConnectionPoolService;
 import net.ltgt.gradle.jooq.tasks.JooqCodegen;
+import net.ltgt.gradle.jooq.tasks.JooqCodegenCheck;
+import net.ltgt.gradle.jooq.tasks.JooqCodegenExecution;
+import net.ltgt.gradle.jooq.tasks.JooqSchemaFingerprint;
+import net.ltgt.gradle.jooq.tasks.JooqSnapshot;
 import org.gradle.api.NamedDomainObjectProvider;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.DependencyScopeConfiguration;
 import org.gradle.api.artifacts.ResolvableConfiguration;
 import org.gradle.api.file.Directory;
+import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.compile.JavaCompile;
 import org.gradle.jvm.toolchain.JavaLauncher;
 import org.gradle.jvm.toolchain.JavaToolchainService;
+import org.gradle.language.base.plugins.LifecycleBasePlugin;
 import org.gradle.plugins.ide.idea.model.IdeaModel;
 
 class JooqBasePlugin implements Plugin<Project> {
 
   static final String JOOQ_TASK_NAME = "jooq";
+  static final String JOOQ_SCHEMA_FINGERPRINT_TASK_NAME = "jooqSchemaFingerprint";
+  static final String JOOQ_SNAPSHOT_TASK_NAME = "jooqSnapshot";
+  static final String JOOQ_CHECK_TASK_NAME = "jooqCheck";
+  static final String JDBC_CONNECTION_POOL_SERVICE_NAME = "jooqConnectionPool";
+  static final String DATABASE_LIMITER_SERVICE_NAME = "jooqDatabaseLimiter";
+  static final String MAX_PARALLEL_USAGES_PROPERTY = "net.ltgt.jooq.maxParallelUsages";
+  static final String PRECOMPILED_PROPERTY = "net.ltgt.jooq.precompiled";
+  static final String CHECK_PROPERTY = "net.ltgt.jooq.checkGeneratedCode";
+  static final String PRECOMPILED_SOURCE_SET_NAME = "jooq";
+  static final String JOOQ_CODEGEN_CONFIGURATION_NAME = "jooqCodegen";
 
   @Override
   public void apply(Project project) {
@@ -39,7 +66,16 @@ class JooqBasePlugin implements Plugin<Project> {
     NamedDomainObjectProvider<ResolvableConfiguration> jooqCodegenClasspathConfiguration =
         registerConfigurations(project);
 
-    TaskProvider<JooqCodegen> jooqTask = registerTask(project, jooqCodegenClasspathConfiguration);
+    Provider<JdbcConnectionPoolService> connectionPool = registerConnectionPool(project);
+    Provider<DatabaseLimiterService> databaseLimiter = registerDatabaseLimiter(project);
+    TaskProvider<JooqCodegen> jooqTask =
+        registerTask(project, jooqCodegenClasspathConfiguration, connectionPool, databaseLimiter);
+    // The other tasks default to the jooq task's configuration. Using flatMap on the jooq task does
+    // not create a task dependency, as those are all inputs; and it allows overriding the values on
+    // the command-line when running the jooq task.
+    registerSchemaFingerprintTask(project, jooqCodegenClasspathConfiguration, jooqTask);
+    registerSnapshotTask(project, jooqCodegenClasspathConfiguration, jooqTask);
+    registerCheckTask(project, jooqTask, connectionPool, databaseLimiter);
 
     project
         .getPluginManager()
@@ -54,7 +90,7 @@ class JooqBasePlugin implements Plugin<Project> {
   private NamedDomainObjectProvider<ResolvableConfiguration> registerConfigurations(
       Project project) {
     NamedDomainObjectProvider<DependencyScopeConfiguration> jooqCodegenConfiguration =
-        project.getConfigurations().dependencyScope("jooqCodegen");
+        project.getConfigurations().dependencyScope(JOOQ_CODEGEN_CONFIGURATION_NAME);
     return project
         .getConfigurations()
         .resolvable(
@@ -65,7 +101,27 @@ class JooqBasePlugin implements Plugin<Project> {
   private TaskProvider<JooqCodegen> registerTask(
       Project project,
       @SuppressWarnings("UnstableApiUsage")
-          NamedDomainObjectProvider<ResolvableConfiguration> jooqCodegenClasspathConfiguration) {
+          NamedDomainObjectProvider<ResolvableConfiguration> jooqCodegenClasspathConfiguration,
+      Provider<JdbcConnectionPoolService> connectionPool,
+      Provider<DatabaseLimiterService> databaseLimiter) {
+    project
+        .getTasks()
+        .withType(JooqCodegen.class)
+        .configureEach(
+            jooqCodegen -> {
+              jooqCodegen
+                  .getReportFile()
+                  .convention(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file("reports/jooq/" + jooqCodegen.getName() + ".json"));
+              jooqCodegen.getConnectionPool().convention(connectionPool);
+              jooqCodegen.usesService(connectionPool);
+              jooqCodegen.getDatabaseLimiter().convention(databaseLimiter);
+              jooqCodegen.usesService(databaseLimiter);
+            });
+
     return project
         .getTasks()
         .register(
@@ -74,6 +130,245 @@ class JooqBasePlugin implements Plugin<Project> {
             jooqCodegen -> jooqCodegen.getClasspath().from(jooqCodegenClasspathConfiguration));
   }
 
+  private Provider<JdbcConnectionPoolService> registerConnectionPool(Project project) {
+    return project
+        .getGradle()
+        .getSharedServices()
+        .registerIfAbsent(
+            JDBC_CONNECTION_POOL_SERVICE_NAME, JdbcConnectionPoolService.class, spec -> {});
+  }
+
+  private Provider<DatabaseLimiterService> registerDatabaseLimiter(Project project) {
+    ProviderFactory providers = project.getProviders();
+    return project
+        .getGradle()
+        .getSharedServices()
+        .registerIfAbsent(
+            DATABASE_LIMITER_SERVICE_NAME,
+            DatabaseLimiterService.class,
+            spec -> {
+              spec.getParameters()
+                  .getMaxParallelUsages()
+                  .set(
+                      providers.gradleProperty(MAX_PARALLEL_USAGES_PROPERTY).map(Integer::valueOf));
+              spec.getParameters()
+                  .getMaxParallelUsagesByDatabase()
+                  .set(
+                      providers
+                          .gradlePropertiesPrefixedBy(MAX_PARALLEL_USAGES_PROPERTY + ".")
+                          .map(JooqBasePlugin::toDatabaseLimits));
+            });
+  }
+
+  /** Strips the property prefix and parses the values of the limits keyed by database. */
+  private static Map<String, Integer> toDatabaseLimits(Map<String, String> properties) {
+    Map<String, Integer> limits = new LinkedHashMap<>();
+    properties.forEach(
+        (key, value) ->
+            limits.put(
+                key.substring(MAX_PARALLEL_USAGES_PROPERTY.length() + 1), Integer.valueOf(value)));
+    return limits;
+  }
+
+  private void registerSchemaFingerprintTask(
+      Project project,
+      @SuppressWarnings("UnstableApiUsage")
+          NamedDomainObjectProvider<ResolvableConfiguration> jooqCodegenClasspathConfiguration,
+      TaskProvider<JooqCodegen> jooqTask) {
+    project
+        .getTasks()
+        .withType(JooqSchemaFingerprint.class)
+        .configureEach(
+            jooqSchemaFingerprint ->
+                jooqSchemaFingerprint
+                    .getFingerprintFile()
+                    .convention(
+                        project
+                            .getLayout()
+                            .getBuildDirectory()
+                            .file("jooq/" + jooqSchemaFingerprint.getName() + ".txt")));
+
+    project
+        .getTasks()
+        .register(
+            JOOQ_SCHEMA_FINGERPRINT_TASK_NAME,
+            JooqSchemaFingerprint.class,
+            jooqSchemaFingerprint -> {
+              jooqSchemaFingerprint.getClasspath().from(jooqCodegenClasspathConfiguration);
+              jooqSchemaFingerprint.getUrl().convention(jooqTask.flatMap(JooqCodegen::getUrl));
+              jooqSchemaFingerprint.getUser().convention(jooqTask.flatMap(JooqCodegen::getUser));
+              jooqSchemaFingerprint
+                  .getPassword()
+                  .convention(jooqTask.flatMap(JooqCodegen::getPassword));
+              jooqSchemaFingerprint
+                  .getConfigurationFile()
+                  .convention(jooqTask.flatMap(JooqCodegen::getConfigurationFile));
+              jooqSchemaFingerprint
+                  .getJavaLauncher()
+                  .convention(jooqTask.flatMap(JooqCodegen::getJavaLauncher));
+            });
+  }
+
+  private void registerSnapshotTask(
+      Project project,
+      @SuppressWarnings("UnstableApiUsage")
+          NamedDomainObjectProvider<ResolvableConfiguration> jooqCodegenClasspathConfiguration,
+      TaskProvider<JooqCodegen> jooqTask) {
+    project
+        .getTasks()
+        .register(
+            JOOQ_SNAPSHOT_TASK_NAME,
+            JooqSnapshot.class,
+            jooqSnapshot -> {
+              jooqSnapshot.getClasspath().from(jooqCodegenClasspathConfiguration);
+              jooqSnapshot.getUrl().convention(jooqTask.flatMap(JooqCodegen::getUrl));
+              jooqSnapshot.getUser().convention(jooqTask.flatMap(JooqCodegen::getUser));
+              jooqSnapshot.getPassword().convention(jooqTask.flatMap(JooqCodegen::getPassword));
+              jooqSnapshot
+                  .getConfigurationFile()
+                  .convention(jooqTask.flatMap(JooqCodegen::getConfigurationFile));
+              jooqSnapshot
+                  .getSnapshotFile()
+                  .convention(
+                      project.getLayout().getProjectDirectory().file("src/jooq-snapshot.xml"));
+              jooqSnapshot
+                  .getJavaLauncher()
+                  .convention(jooqTask.flatMap(JooqCodegen::getJavaLauncher));
+            });
+  }
+
+  private void registerCheckTask(
+      Project project,
+      TaskProvider<JooqCodegen> jooqTask,
+      Provider<JdbcConnectionPoolService> connectionPool,
+      Provider<DatabaseLimiterService> databaseLimiter) {
+    project
+        .getTasks()
+        .withType(JooqCodegenCheck.class)
+        .configureEach(
+            jooqCodegenCheck -> {
+              jooqCodegenCheck
+                  .getReportFile()
+                  .convention(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file("reports/jooq/" + jooqCodegenCheck.getName() + ".json"));
+              jooqCodegenCheck
+                  .getResultFile()
+                  .convention(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file("jooq/" + jooqCodegenCheck.getName() + ".txt"));
+              jooqCodegenCheck.getConnectionPool().convention(connectionPool);
+              jooqCodegenCheck.usesService(connectionPool);
+              jooqCodegenCheck.getDatabaseLimiter().convention(databaseLimiter);
+              jooqCodegenCheck.usesService(databaseLimiter);
+            });
+
+    // The check task must run after the jooq task when both are run in the same build, but it
+    // doesn't depend on it: running the jooq task would update the files before checking them.
+    TaskProvider<JooqCodegenCheck> jooqCheckTask =
+        project
+            .getTasks()
+            .register(
+                JOOQ_CHECK_TASK_NAME,
+                JooqCodegenCheck.class,
+                jooqCheck -> {
+                  jooqCheck.mustRunAfter(jooqTask);
+                  jooqCheck.checks(jooqTask);
+                });
+
+    if (isCheckingGeneratedCode(project)) {
+      project
+          .getPluginManager()
+          .withPlugin(
+              "lifecycle-base",
+              appliedPlugin ->
+                  project
+                      .getTasks()
+                      .named(LifecycleBasePlugin.CHECK_TASK_NAME)
+                      .configure(check -> check.dependsOn(jooqCheckTask)));
+    }
+  }
+
+  /** Returns whether the {@code check} task depends on the {@code jooqCheck} task. */
+  static boolean isCheckingGeneratedCode(Project project) {
+    return project
+        .getProviders()
+        .gradleProperty(CHECK_PROPERTY)
+        .map(Boolean::parseBoolean)
+        .getOrElse(false);
+  }
+
+  /** Returns the output directories of the task and all its executions. */
+  static List<File> getOutputDirectories(JooqCodegen task) {
+    List<File> outputDirectories = new ArrayList<>();
+    if (task.getOutputDirectory().isPresent()) {
+      outputDirectories.add(task.getOutputDirectory().get().getAsFile());
+    }
+    for (JooqCodegenExecution execution : task.getExecutions()) {
+      if (execution.getOutputDirectory().isPresent()) {
+        outputDirectories.add(execution.getOutputDirectory().get().getAsFile());
+      }
+    }
+    return outputDirectories;
+  }
+
+  /**
+   * Returns whether the generated code is compiled in its own source set rather than the main
+   * source set.
+   */
+  static boolean isPrecompiled(Project project) {
+    return project
+        .getProviders()
+        .gradleProperty(PRECOMPILED_PROPERTY)
+        .map(Boolean::parseBoolean)
+        .getOrElse(false);
+  }
+
+  /**
+   * Registers the source set the generated code is compiled in, when {@linkplain
+   * #isPrecompiled(Project) precompiled}.
+   *
+   * <p>The source set is exposed as a feature variant of the project (with capability {@code
+   * <group>:<name>-jooq}), and its jar is added to the main source set's {@code implementation}
+   * dependencies.
+   */
+  static SourceSet registerPrecompiledSourceSet(Project project, TaskProvider<JooqCodegen> task) {
+    SourceSet sourceSet =
+        project
+            .getExtensions()
+            .getByType(SourceSetContainer.class)
+            .create(PRECOMPILED_SOURCE_SET_NAME);
+    project
+        .getExtensions()
+        .getByType(JavaPluginExtension.class)
+        .registerFeature(PRECOMPILED_SOURCE_SET_NAME, feature -> feature.usingSourceSet(sourceSet));
+
+    // The generated code is compiled against the jOOQ version of the code generator; using
+    // compileOnly so the code generator doesn't leak to consumers. The main source set's
+    // dependencies can't be used as they include the generated code's jar.
+    project
+        .getConfigurations()
+        .getByName(sourceSet.getCompileOnlyConfigurationName())
+        .extendsFrom(project.getConfigurations().getByName(JOOQ_CODEGEN_CONFIGURATION_NAME));
+    project
+        .getTasks()
+        .named(sourceSet.getCompileJavaTaskName(), JavaCompile.class)
+        .configure(
+            compileJava ->
+                compileJava.getOptions().setEncoding(task.get().getEncoding().getOrNull()));
+
+    project
+        .getDependencies()
+        .add(
+            JavaPlugin.IMPLEMENTATION_CONFIGURATION_NAME,
+            project.files(project.getTasks().named(sourceSet.getJarTaskName())));
+    return sourceSet;
+  }
+
   private void configureToolchain(Project project) {
     Provider<JavaLauncher> javaLauncher =
         project
@@ -48,16 +48,24 @@ class JooqKotlinPlugin implements Plugin<Project> {
   }
 
   private void configureKotlinDefaults(Project project, TaskProvider<JooqCodegen> task) {
-    KotlinSourceSet mainSourceSet =
+    // When precompiled, the generated code is compiled in its own source set, whose jar is added to
+    // the main source set's dependencies.
+    String sourceSetName =
+        JooqBasePlugin.isPrecompiled(project)
+            ? JooqBasePlugin.registerPrecompiledSourceSet(project, task).getName()
+            : SourceSet.MAIN_SOURCE_SET_NAME;
+    KotlinSourceSet sourceSet =
         project
             .getExtensions()
             .getByType(KotlinProjectExtension.class)
             .getSourceSets()
-            .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+            .getByName(sourceSetName);
 
     // Using project.provider to *avoid* creating a task dependency (while allowing the task to be
     // reconfigured)
-    mainSourceSet.getKotlin().srcDir(project.provider(() -> task.get().getOutputDirectory().get()));
+    sourceSet
+        .getKotlin()
+        .srcDir(project.provider(() -> JooqBasePlugin.getOutputDirectories(task.get())));
 
     task.configure(
         jooqCodegen -> jooqCodegen.getEncoding().convention(StandardCharsets.UTF_8.name()));
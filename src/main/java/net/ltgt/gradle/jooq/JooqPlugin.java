@@ -43,9 +43,18 @@ class JooqPlugin implements Plugin<Project> {
             .getByType(SourceSetContainer.class)
             .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
 
+    // When precompiled, the generated code is compiled in its own source set, whose jar is added to
+    // the main source set's dependencies.
+    SourceSet sourceSet =
+        JooqBasePlugin.isPrecompiled(project)
+            ? JooqBasePlugin.registerPrecompiledSourceSet(project, task)
+            : mainSourceSet;
+
     // Using project.provider to *avoid* creating a task dependency (while allowing the task to be
     // reconfigured)
-    mainSourceSet.getJava().srcDir(project.provider(() -> task.get().getOutputDirectory().get()));
+    sourceSet
+        .getJava()
+        .srcDir(project.provider(() -> JooqBasePlugin.getOutputDirectories(task.get())));
 
     task.configure(
         jooqCodegen ->
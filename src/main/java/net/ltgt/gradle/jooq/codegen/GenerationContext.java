@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.jooq.meta.Definition;
+import org.jooq.meta.TableDefinition;
+
+/**
+ * The settings of a code generation run with the plugin's generators, and what they generated.
+ *
+ * <p>Generators are instantiated by jOOQ, so contexts are registered by target directory, which is
+ * unique to each code generation.
+ */
+public final class GenerationContext implements AutoCloseable {
+  private static final Map<File, GenerationContext> contexts = new ConcurrentHashMap<>();
+
+  /** The context of generations that haven't been registered: rendering tables in parallel. */
+  private static final GenerationContext DEFAULT =
+      new GenerationContext(new File(""), true, Collections.emptySet());
+
+  /**
+   * Registers the context of a code generation into the given target directory.
+   *
+   * @param parallel whether to render tables in parallel
+   * @param unchangedTables the tables whose files are not rendered, identified by their {@linkplain
+   *     #tableKey(TableDefinition) key}
+   */
+  public static GenerationContext register(
+      File targetDirectory, boolean parallel, Set<List<String>> unchangedTables) {
+    GenerationContext context =
+        new GenerationContext(canonicalFile(targetDirectory), parallel, unchangedTables);
+    if (contexts.putIfAbsent(context.targetDirectory, context) != null) {
+      throw new IllegalStateException(
+          "A code generation is already running into " + context.targetDirectory);
+    }
+    return context;
+  }
+
+  static GenerationContext get(String targetDirectory) {
+    GenerationContext context = contexts.get(canonicalFile(new File(targetDirectory)));
+    return context == null ? DEFAULT : context;
+  }
+
+  /** Returns the key identifying a table: the input names of its catalog, schema, and itself. */
+  public static List<String> tableKey(TableDefinition table) {
+    return Arrays.asList(
+        inputName(table.getCatalog()), inputName(table.getSchema()), inputName(table));
+  }
+
+  private static String inputName(@Nullable Definition definition) {
+    return definition == null || definition.getInputName() == null ? "" : definition.getInputName();
+  }
+
+  private static File canonicalFile(File file) {
+    try {
+      return file.getCanonicalFile();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private final File targetDirectory;
+  private final boolean parallel;
+  private final Set<List<String>> unchangedTables;
+
+  // Each code generation has its own context, and several can run concurrently in the same JVM
+  @SuppressWarnings("ThreadLocalUsage")
+  private final ThreadLocal<List<String>> currentTable = new ThreadLocal<>();
+
+  private final Map<List<String>, Set<String>> renderedFiles = new ConcurrentHashMap<>();
+
+  private GenerationContext(
+      File targetDirectory, boolean parallel, Set<List<String>> unchangedTables) {
+    this.targetDirectory = targetDirectory;
+    this.parallel = parallel;
+    this.unchangedTables = unchangedTables;
+  }
+
+  boolean isParallel() {
+    return parallel;
+  }
+
+  boolean isUnchanged(TableDefinition table) {
+    return !unchangedTables.isEmpty() && unchangedTables.contains(tableKey(table));
+  }
+
+  /** Renders the given table, recording the files written by the renderer. */
+  void render(Consumer<TableDefinition> renderer, TableDefinition table) {
+    List<String> key = tableKey(table);
+    renderedFiles.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    currentTable.set(key);
+    try {
+      renderer.accept(table);
+    } finally {
+      currentTable.remove();
+    }
+  }
+
+  /** Records a file written by the generator, if written while rendering a table. */
+  void written(File file) {
+    List<String> key = currentTable.get();
+    // jOOQ doesn't write empty files, e.g. the DAO of a table without primary key
+    if (key != null && file.isFile()) {
+      renderedFiles
+          .get(key)
+          .add(targetDirectory.toPath().relativize(canonicalFile(file).toPath()).toString());
+    }
+  }
+
+  /**
+   * Returns the files rendered for each table, as paths relative to the target directory.
+   *
+   * <p>Unchanged tables are not included.
+   */
+  public Map<List<String>, Set<String>> getRenderedFiles() {
+    return renderedFiles;
+  }
+
+  @Override
+  public void close() {
+    contexts.remove(targetDirectory, this);
+  }
+}
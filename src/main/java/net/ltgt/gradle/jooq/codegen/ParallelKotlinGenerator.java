@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.codegen;
+
+import java.io.File;
+import org.jooq.codegen.JavaWriter;
+import org.jooq.codegen.KotlinGenerator;
+import org.jooq.meta.SchemaDefinition;
+
+/**
+ * A {@link KotlinGenerator} rendering tables, records, POJOs, interfaces, and DAOs of each schema
+ * in parallel.
+ *
+ * <p>Depending on the {@linkplain GenerationContext generation context}, tables can also be
+ * rendered sequentially, and unchanged tables skipped.
+ *
+ * <p>Writers are opened and closed one at a time, as jOOQ tracks the written files in
+ * unsynchronized collections.
+ */
+public class ParallelKotlinGenerator extends KotlinGenerator {
+
+  @Override
+  protected void generateTables(SchemaDefinition schema) {
+    ParallelTables.render(context(), schema, "tables", table -> generateTable(schema, table));
+  }
+
+  @Override
+  protected void generateRecords(SchemaDefinition schema) {
+    ParallelTables.render(context(), schema, "records", this::generateRecord);
+  }
+
+  @Override
+  protected void generatePojos(SchemaDefinition schema) {
+    ParallelTables.render(context(), schema, "POJOs", this::generatePojo);
+  }
+
+  @Override
+  protected void generateInterfaces(SchemaDefinition schema) {
+    ParallelTables.render(context(), schema, "interfaces", this::generateInterface);
+  }
+
+  @Override
+  protected void generateDaos(SchemaDefinition schema) {
+    ParallelTables.render(context(), schema, "DAOs", this::generateDao);
+  }
+
+  @Override
+  protected synchronized JavaWriter newJavaWriter(File file) {
+    return super.newJavaWriter(file);
+  }
+
+  @Override
+  protected synchronized void closeJavaWriter(JavaWriter out) {
+    super.closeJavaWriter(out);
+    context().written(out.file());
+  }
+
+  private GenerationContext context() {
+    return GenerationContext.get(getStrategy().getTargetDirectory());
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.codegen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import org.jooq.meta.ColumnDefinition;
+import org.jooq.meta.SchemaDefinition;
+import org.jooq.meta.TableDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Renders per-table artifacts of a schema, in parallel on a fork-join pool unless disabled in the
+ * {@linkplain GenerationContext generation context}.
+ *
+ * <p>Each table is rendered to its own files, independently of the other tables, so the generated
+ * code is the same as when rendered sequentially; only the order of the log messages may differ.
+ * This also makes it possible to skip rendering the tables that didn't change since a previous code
+ * generation.
+ */
+final class ParallelTables {
+  private static final Logger logger = LoggerFactory.getLogger(ParallelTables.class);
+
+  private ParallelTables() {}
+
+  /**
+   * Renders the given artifacts for all tables of the given schema, except the unchanged ones.
+   *
+   * <p>Errors are logged, in table order, and don't prevent rendering the other tables, like jOOQ
+   * does when rendering sequentially.
+   */
+  static void render(
+      GenerationContext context,
+      SchemaDefinition schema,
+      String artifacts,
+      Consumer<TableDefinition> renderer) {
+    List<TableDefinition> allTables = schema.getDatabase().getTables(schema);
+    List<TableDefinition> tables = new ArrayList<>();
+    for (TableDefinition table : allTables) {
+      if (!context.isUnchanged(table)) {
+        tables.add(table);
+      }
+    }
+    if (context.isParallel()) {
+      logger.info("Generating {} of {} in parallel", artifacts, schema.getQualifiedName());
+    }
+    int unchanged = allTables.size() - tables.size();
+    if (unchanged > 0) {
+      logger.info(
+          "Skipping {} of {} unchanged tables of {}",
+          artifacts,
+          unchanged,
+          schema.getQualifiedName());
+    }
+    if (tables.isEmpty()) {
+      return;
+    }
+    Throwable[] errors = new Throwable[tables.size()];
+    if (context.isParallel()) {
+      // jOOQ-meta lazily loads table metadata, and jOOQ-codegen lazily initializes some caches,
+      // in unsynchronized collections; load them, and render the first table, on this thread
+      // first.
+      for (TableDefinition table : tables) {
+        preload(table);
+      }
+      errors[0] = render(context, renderer, tables.get(0));
+      ForkJoinPool pool = new ForkJoinPool();
+      try {
+        pool.submit(
+                () ->
+                    IntStream.range(1, tables.size())
+                        .parallel()
+                        .forEach(i -> errors[i] = render(context, renderer, tables.get(i))))
+            .get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        throw new RuntimeException(e.getCause());
+      } finally {
+        pool.shutdown();
+      }
+    } else {
+      for (int i = 0; i < tables.size(); i++) {
+        errors[i] = render(context, renderer, tables.get(i));
+      }
+    }
+    for (int i = 0; i < errors.length; i++) {
+      if (errors[i] != null) {
+        logger.error("Error while generating {} for table {}", artifacts, tables.get(i), errors[i]);
+      }
+    }
+  }
+
+  @Nullable
+  private static Throwable render(
+      GenerationContext context, Consumer<TableDefinition> renderer, TableDefinition table) {
+    try {
+      context.render(renderer, table);
+      return null;
+    } catch (Exception e) {
+      return e;
+    }
+  }
+
+  private static void preload(TableDefinition table) {
+    for (ColumnDefinition column : table.getColumns()) {
+      column.getType();
+    }
+    table.getPrimaryKey();
+    table.getUniqueKeys();
+    table.getForeignKeys();
+    table.getCheckConstraints();
+    table.getIndexes();
+    table.getIdentity();
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.codegen;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.InvalidUserDataException;
+import org.jooq.codegen.XMLGenerator;
+import org.jooq.meta.Database;
+import org.jooq.meta.Definition;
+import org.jooq.meta.SchemaDefinition;
+
+/**
+ * An {@link XMLGenerator} that fails when the database has objects that jOOQ's {@code XMLDatabase}
+ * cannot read back from the generated snapshot: enums, domains, array types, and XML schema
+ * collections.
+ *
+ * <p>Code generated from the snapshot would otherwise silently differ from the code generated from
+ * the database (e.g. enum columns would have an unknown data type).
+ */
+public class SnapshotGenerator extends XMLGenerator {
+
+  @Override
+  public void generate0(Database db) {
+    List<String> unsupported = new ArrayList<>();
+    for (SchemaDefinition schema : db.getSchemata()) {
+      addAll(unsupported, "enum", db.getEnums(schema));
+      addAll(unsupported, "domain", db.getDomains(schema));
+      addAll(unsupported, "array type", db.getArrays(schema));
+      addAll(unsupported, "XML schema collection", db.getXMLSchemaCollections(schema));
+    }
+    if (!unsupported.isEmpty()) {
+      throw new InvalidUserDataException(
+          "The database metadata cannot be read from a snapshot, as jOOQ's XMLDatabase does not support "
+              + String.join(", ", unsupported)
+              + "; exclude them from the code generation (generator.database.excludes), or generate the code directly from the database");
+    }
+    super.generate0(db);
+  }
+
+  private static void addAll(
+      List<String> unsupported, String kind, List<? extends Definition> definitions) {
+    for (Definition definition : definitions) {
+      unsupported.add(kind + " " + definition.getQualifiedName());
+    }
+  }
+}
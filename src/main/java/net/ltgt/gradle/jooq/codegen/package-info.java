@@ -0,0 +1,11 @@
+/**
+ * jOOQ code generators shipped with the plugin.
+ *
+ * <p>These are loaded from the plugin's classpath, alongside the {@code jooqCodegenClasspath}, and
+ * selected by the {@code JooqCodegen} task when enabled; they should not be referenced from jOOQ
+ * configuration files.
+ */
+@ParametersAreNonnullByDefault
+package net.ltgt.gradle.jooq.codegen;
+
+import javax.annotation.ParametersAreNonnullByDefault;
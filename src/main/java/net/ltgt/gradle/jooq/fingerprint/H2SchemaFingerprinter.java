@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.fingerprint;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/** Computes a schema fingerprint for H2 2.x databases from their {@code INFORMATION_SCHEMA}. */
+public class H2SchemaFingerprinter extends QuerySchemaFingerprinter {
+
+  @Override
+  public boolean supports(DatabaseMetaData metaData) throws SQLException {
+    return "H2".equals(metaData.getDatabaseProductName())
+        && metaData.getDatabaseMajorVersion() >= 2;
+  }
+
+  @Override
+  protected String getNonSystemSchemaCondition(String column) {
+    return column + " <> 'INFORMATION_SCHEMA'";
+  }
+
+  @Override
+  protected List<String> getQueries(Function<String, String> schemaCondition) {
+    return Arrays.asList(
+        "SELECT TABLE_SCHEMA, TABLE_NAME, TABLE_TYPE, REMARKS"
+            + " FROM INFORMATION_SCHEMA.TABLES"
+            + " WHERE "
+            + schemaCondition.apply("TABLE_SCHEMA")
+            + " ORDER BY TABLE_SCHEMA, TABLE_NAME",
+        "SELECT TABLE_SCHEMA, TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, DATA_TYPE,"
+            + " CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, NUMERIC_SCALE, DATETIME_PRECISION,"
+            + " IS_NULLABLE, COLUMN_DEFAULT, IS_IDENTITY, IS_GENERATED, GENERATION_EXPRESSION,"
+            + " DOMAIN_SCHEMA, DOMAIN_NAME, REMARKS"
+            + " FROM INFORMATION_SCHEMA.COLUMNS"
+            + " WHERE "
+            + schemaCondition.apply("TABLE_SCHEMA")
+            + " ORDER BY TABLE_SCHEMA, TABLE_NAME, ORDINAL_POSITION",
+        "SELECT CONSTRAINT_SCHEMA, CONSTRAINT_NAME, CONSTRAINT_TYPE, TABLE_SCHEMA, TABLE_NAME"
+            + " FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS"
+            + " WHERE "
+            + schemaCondition.apply("CONSTRAINT_SCHEMA")
+            + " ORDER BY CONSTRAINT_SCHEMA, CONSTRAINT_NAME",
+        "SELECT CONSTRAINT_SCHEMA, CONSTRAINT_NAME, TABLE_SCHEMA, TABLE_NAME, COLUMN_NAME,"
+            + " ORDINAL_POSITION"
+            + " FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE"
+            + " WHERE "
+            + schemaCondition.apply("CONSTRAINT_SCHEMA")
+            + " ORDER BY CONSTRAINT_SCHEMA, CONSTRAINT_NAME, ORDINAL_POSITION",
+        "SELECT CONSTRAINT_SCHEMA, CONSTRAINT_NAME, UNIQUE_CONSTRAINT_SCHEMA,"
+            + " UNIQUE_CONSTRAINT_NAME, UPDATE_RULE, DELETE_RULE"
+            + " FROM INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS"
+            + " WHERE "
+            + schemaCondition.apply("CONSTRAINT_SCHEMA")
+            + " ORDER BY CONSTRAINT_SCHEMA, CONSTRAINT_NAME",
+        "SELECT CONSTRAINT_SCHEMA, CONSTRAINT_NAME, CHECK_CLAUSE"
+            + " FROM INFORMATION_SCHEMA.CHECK_CONSTRAINTS"
+            + " WHERE "
+            + schemaCondition.apply("CONSTRAINT_SCHEMA")
+            + " ORDER BY CONSTRAINT_SCHEMA, CONSTRAINT_NAME",
+        "SELECT INDEX_SCHEMA, INDEX_NAME, TABLE_SCHEMA, TABLE_NAME, INDEX_TYPE_NAME"
+            + " FROM INFORMATION_SCHEMA.INDEXES"
+            + " WHERE "
+            + schemaCondition.apply("INDEX_SCHEMA")
+            + " ORDER BY INDEX_SCHEMA, INDEX_NAME",
+        "SELECT INDEX_SCHEMA, INDEX_NAME, COLUMN_NAME, ORDINAL_POSITION, ORDERING_SPECIFICATION,"
+            + " NULL_ORDERING"
+            + " FROM INFORMATION_SCHEMA.INDEX_COLUMNS"
+            + " WHERE "
+            + schemaCondition.apply("INDEX_SCHEMA")
+            + " ORDER BY INDEX_SCHEMA, INDEX_NAME, ORDINAL_POSITION",
+        "SELECT SEQUENCE_SCHEMA, SEQUENCE_NAME, DATA_TYPE, START_VALUE, MINIMUM_VALUE,"
+            + " MAXIMUM_VALUE, INCREMENT, CYCLE_OPTION"
+            + " FROM INFORMATION_SCHEMA.SEQUENCES"
+            + " WHERE "
+            + schemaCondition.apply("SEQUENCE_SCHEMA")
+            + " ORDER BY SEQUENCE_SCHEMA, SEQUENCE_NAME",
+        "SELECT DOMAIN_SCHEMA, DOMAIN_NAME, DATA_TYPE, DOMAIN_DEFAULT"
+            + " FROM INFORMATION_SCHEMA.DOMAINS"
+            + " WHERE "
+            + schemaCondition.apply("DOMAIN_SCHEMA")
+            + " ORDER BY DOMAIN_SCHEMA, DOMAIN_NAME",
+        "SELECT ROUTINE_SCHEMA, ROUTINE_NAME, SPECIFIC_NAME, ROUTINE_TYPE, DATA_TYPE"
+            + " FROM INFORMATION_SCHEMA.ROUTINES"
+            + " WHERE "
+            + schemaCondition.apply("ROUTINE_SCHEMA")
+            + " ORDER BY ROUTINE_SCHEMA, SPECIFIC_NAME",
+        "SELECT SPECIFIC_SCHEMA, SPECIFIC_NAME, ORDINAL_POSITION, PARAMETER_MODE,"
+            + " PARAMETER_NAME, DATA_TYPE"
+            + " FROM INFORMATION_SCHEMA.PARAMETERS"
+            + " WHERE "
+            + schemaCondition.apply("SPECIFIC_SCHEMA")
+            + " ORDER BY SPECIFIC_SCHEMA, SPECIFIC_NAME, ORDINAL_POSITION");
+  }
+}
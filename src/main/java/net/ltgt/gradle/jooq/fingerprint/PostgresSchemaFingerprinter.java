@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.fingerprint;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Computes a schema fingerprint for PostgreSQL databases.
+ *
+ * <p>This queries {@code pg_catalog} rather than {@code information_schema}, whose views are much
+ * slower on large schemas.
+ */
+public class PostgresSchemaFingerprinter extends QuerySchemaFingerprinter {
+
+  @Override
+  public boolean supports(DatabaseMetaData metaData) throws SQLException {
+    return "PostgreSQL".equals(metaData.getDatabaseProductName());
+  }
+
+  @Override
+  protected String getNonSystemSchemaCondition(String column) {
+    return column
+        + " NOT IN ('pg_catalog', 'information_schema')"
+        + " AND "
+        + column
+        + " NOT LIKE 'pg\\_toast%'"
+        + " AND "
+        + column
+        + " NOT LIKE 'pg\\_temp\\_%'";
+  }
+
+  @Override
+  protected List<String> getQueries(Function<String, String> schemaCondition) {
+    return Arrays.asList(
+        "SELECT n.nspname, c.relname, c.relkind, obj_description(c.oid, 'pg_class')"
+            + " FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace"
+            + " WHERE c.relkind IN ('r', 'p', 'v', 'm', 'f', 'S', 'c')"
+            + " AND "
+            + schemaCondition.apply("n.nspname")
+            + " ORDER BY n.nspname, c.relname",
+        "SELECT n.nspname, c.relname, a.attnum, a.attname,"
+            + " format_type(a.atttypid, a.atttypmod), a.attnotnull,"
+            + " pg_get_expr(d.adbin, d.adrelid), a.attidentity, col_description(c.oid, a.attnum)"
+            + " FROM pg_attribute a"
+            + " JOIN pg_class c ON c.oid = a.attrelid"
+            + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+            + " LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum"
+            + " WHERE a.attnum > 0 AND NOT a.attisdropped"
+            + " AND c.relkind IN ('r', 'p', 'v', 'm', 'f', 'c')"
+            + " AND "
+            + schemaCondition.apply("n.nspname")
+            + " ORDER BY n.nspname, c.relname, a.attnum",
+        "SELECT n.nspname, c.relname, con.conname, con.contype, pg_get_constraintdef(con.oid)"
+            + " FROM pg_constraint con"
+            + " JOIN pg_class c ON c.oid = con.conrelid"
+            + " JOIN pg_namespace n ON n.oid = con.connamespace"
+            + " WHERE "
+            + schemaCondition.apply("n.nspname")
+            + " ORDER BY n.nspname, c.relname, con.conname",
+        "SELECT schemaname, tablename, indexname, indexdef"
+            + " FROM pg_indexes"
+            + " WHERE "
+            + schemaCondition.apply("schemaname")
+            + " ORDER BY schemaname, tablename, indexname",
+        "SELECT schemaname, sequencename, data_type::text, start_value, min_value, max_value,"
+            + " increment_by, cycle"
+            + " FROM pg_sequences"
+            + " WHERE "
+            + schemaCondition.apply("schemaname")
+            + " ORDER BY schemaname, sequencename",
+        "SELECT n.nspname, t.typname, t.typtype, format_type(t.typbasetype, t.typtypmod),"
+            + " t.typnotnull, t.typdefault"
+            + " FROM pg_type t JOIN pg_namespace n ON n.oid = t.typnamespace"
+            + " WHERE t.typtype IN ('d', 'e')"
+            + " AND "
+            + schemaCondition.apply("n.nspname")
+            + " ORDER BY n.nspname, t.typname",
+        "SELECT n.nspname, t.typname, e.enumsortorder, e.enumlabel"
+            + " FROM pg_enum e"
+            + " JOIN pg_type t ON t.oid = e.enumtypid"
+            + " JOIN pg_namespace n ON n.oid = t.typnamespace"
+            + " WHERE "
+            + schemaCondition.apply("n.nspname")
+            + " ORDER BY n.nspname, t.typname, e.enumsortorder",
+        "SELECT n.nspname, p.proname, pg_get_function_identity_arguments(p.oid),"
+            + " pg_get_function_result(p.oid), p.prokind"
+            + " FROM pg_proc p JOIN pg_namespace n ON n.oid = p.pronamespace"
+            + " WHERE "
+            + schemaCondition.apply("n.nspname")
+            + " ORDER BY n.nspname, p.proname, pg_get_function_identity_arguments(p.oid)");
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.fingerprint;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Base class for fingerprinters that compute the fingerprint from the results of a set of catalog
+ * queries.
+ *
+ * <p>Each row of each query is fed into the digest, so queries must have a deterministic order and
+ * must not return values that change without the schema changing (such as statistics).
+ */
+public abstract class QuerySchemaFingerprinter implements SchemaFingerprinter {
+
+  /**
+   * Returns the catalog queries.
+   *
+   * @param schemaCondition returns an SQL condition restricting the given column to the schemas to
+   *     compute a fingerprint of
+   */
+  protected abstract List<String> getQueries(Function<String, String> schemaCondition);
+
+  /**
+   * Returns an SQL condition excluding system schemas, used when no schema has been explicitly
+   * configured.
+   */
+  protected abstract String getNonSystemSchemaCondition(String column);
+
+  @Override
+  public void fingerprint(Connection connection, List<String> schemas, MessageDigest digest)
+      throws SQLException {
+    Function<String, String> schemaCondition =
+        schemas.isEmpty()
+            ? this::getNonSystemSchemaCondition
+            : column -> column + " IN (" + toSqlStringList(schemas) + ")";
+    try (Statement statement = connection.createStatement()) {
+      for (String query : getQueries(schemaCondition)) {
+        update(digest, query);
+        try (ResultSet rs = statement.executeQuery(query)) {
+          int columnCount = rs.getMetaData().getColumnCount();
+          while (rs.next()) {
+            digest.update((byte) 1);
+            for (int i = 1; i <= columnCount; i++) {
+              update(digest, rs.getString(i));
+            }
+          }
+        }
+        digest.update((byte) 0);
+      }
+    }
+  }
+
+  private static String toSqlStringList(List<String> values) {
+    StringBuilder sb = new StringBuilder();
+    for (String value : values) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append('\'').append(value.replace("'", "''")).append('\'');
+    }
+    return sb.toString();
+  }
+
+  private static void update(MessageDigest digest, @Nullable String value) {
+    if (value == null) {
+      digest.update(ByteBuffer.allocate(4).putInt(-1).array());
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+    digest.update(bytes);
+  }
+}
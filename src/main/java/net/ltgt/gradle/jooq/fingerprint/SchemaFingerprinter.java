@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.fingerprint;
+
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Computes a fingerprint of a database schema, such that any change that could affect the code
+ * generated by jOOQ also changes the fingerprint.
+ *
+ * <p>Implementations must have a public no-arg constructor, and be registered in a {@code
+ * META-INF/services/net.ltgt.gradle.jooq.fingerprint.SchemaFingerprinter} file to be discovered by
+ * {@link java.util.ServiceLoader}. The first implementation that {@linkplain
+ * #supports(DatabaseMetaData) supports} the database will be used.
+ */
+public interface SchemaFingerprinter {
+
+  /** Returns whether this fingerprinter supports the given database. */
+  boolean supports(DatabaseMetaData metaData) throws SQLException;
+
+  /**
+   * Feeds the given digest with a description of the given schemas.
+   *
+   * @param schemas the schemas to compute a fingerprint of; if empty, all non-system schemas should
+   *     be taken into account
+   */
+  void fingerprint(Connection connection, List<String> schemas, MessageDigest digest)
+      throws SQLException;
+}
@@ -0,0 +1,10 @@
+/**
+ * Service provider interface for computing a fingerprint of a database schema.
+ *
+ * <p>Implementations are discovered using {@link java.util.ServiceLoader} from the {@code
+ * jooqCodegenClasspath}.
+ */
+@ParametersAreNonnullByDefault
+package net.ltgt.gradle.jooq.fingerprint;
+
+import javax.annotation.ParametersAreNonnullByDefault;
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import org.gradle.api.file.FileCollection;
+import org.gradle.jvm.toolchain.JavaLauncher;
+
+/**
+ * Computes the JVM arguments to use a dynamic class data sharing (AppCDS) archive in the forked
+ * code generator JVM.
+ *
+ * <p>The archive is automatically created (or recreated, when it cannot be used) by the JVM on
+ * exit, which requires Java 19 or later ({@code -XX:+AutoCreateSharedArchive}). The archive file
+ * name is derived from the java executable and the classpath, such that any change to either uses a
+ * distinct archive.
+ */
+final class ClassDataSharing {
+  private ClassDataSharing() {}
+
+  static final int MINIMUM_JAVA_VERSION = 19;
+
+  static boolean isSupported(JavaLauncher javaLauncher) {
+    return javaLauncher.getMetadata().getLanguageVersion().canCompileOrRun(MINIMUM_JAVA_VERSION);
+  }
+
+  static File getArchiveFile(
+      File archiveDirectory, FileCollection classpath, JavaLauncher javaLauncher) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+    update(digest, javaLauncher.getExecutablePath().getAsFile().getAbsolutePath());
+    update(digest, javaLauncher.getMetadata().getJavaRuntimeVersion());
+    for (File file : classpath) {
+      update(digest, file.getAbsolutePath());
+      update(digest, file.length() + ":" + file.lastModified());
+    }
+    StringBuilder sb = new StringBuilder("jooq-codegen-");
+    // 64 bits are more than enough to tell classpaths apart
+    for (byte b : Arrays.copyOf(digest.digest(), 8)) {
+      sb.append(String.format("%02x", b));
+    }
+    return new File(archiveDirectory, sb.append(".jsa").toString());
+  }
+
+  static List<String> getJvmArgs(File archiveFile) {
+    return Arrays.asList(
+        "-XX:SharedArchiveFile=" + archiveFile.getAbsolutePath(), "-XX:+AutoCreateSharedArchive");
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+    digest.update(bytes);
+  }
+}
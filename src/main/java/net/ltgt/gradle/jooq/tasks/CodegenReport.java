@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates the {@linkplain Timings timings} of the code generations of a task, and of the
+ * synchronization of its output directories, and writes them as a JSON report.
+ */
+final class CodegenReport {
+  private final String taskPath;
+  // name -> timings file
+  private final Map<String, File> generations = new LinkedHashMap<>();
+  private final List<Output> outputs = new ArrayList<>();
+  private long queueMillis;
+
+  CodegenReport(String taskPath) {
+    this.taskPath = taskPath;
+  }
+
+  /** Sets how long the task waited for the database to be available. */
+  void setQueueMillis(long queueMillis) {
+    this.queueMillis = queueMillis;
+  }
+
+  /** Registers a code generation, whose worker will store its timings in the given file. */
+  void addGeneration(String name, File timingsFile) {
+    generations.put(name, timingsFile);
+  }
+
+  /** Registers the timings of an output directory, and the result of its synchronization. */
+  void addOutput(File directory, Timings timings, DirectorySync.Result result) {
+    outputs.add(new Output(directory, timings, result));
+  }
+
+  /** Returns the maximum peak heap usage of the code generations, or 0 if not recorded. */
+  long getPeakHeapBytes() throws IOException {
+    long peakHeapBytes = 0;
+    for (File timingsFile : generations.values()) {
+      peakHeapBytes =
+          Math.max(peakHeapBytes, Timings.load(timingsFile.toPath()).getPeakHeapBytes());
+    }
+    return peakHeapBytes;
+  }
+
+  /** Forgets the registered code generations, before they're submitted again. */
+  void clearGenerations() {
+    generations.clear();
+  }
+
+  /** Returns a one-line summary of the durations of the phases, summed over all generations. */
+  String summarize() throws IOException {
+    Map<String, Long> phases = new LinkedHashMap<>();
+    for (File timingsFile : generations.values()) {
+      Timings timings = Timings.load(timingsFile.toPath());
+      for (Map.Entry<String, Long> phase : timings.getPhases().entrySet()) {
+        phases.merge(phase.getKey(), phase.getValue(), Long::sum);
+      }
+    }
+    for (Output output : outputs) {
+      for (Map.Entry<String, Long> phase : output.timings.getPhases().entrySet()) {
+        phases.merge(phase.getKey(), phase.getValue(), Long::sum);
+      }
+    }
+    StringBuilder sb = new StringBuilder();
+    if (queueMillis > 0) {
+      sb.append("queue ").append(queueMillis).append(" ms");
+    }
+    for (Map.Entry<String, Long> phase : phases.entrySet()) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append(phase.getKey()).append(' ').append(phase.getValue()).append(" ms");
+    }
+    return sb.toString();
+  }
+
+  void write(File reportFile, long durationMillis) throws IOException {
+    Files.createDirectories(reportFile.getAbsoluteFile().getParentFile().toPath());
+    try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+      writer.write("{\n");
+      writer.write("  \"task\": " + quote(taskPath) + ",\n");
+      writer.write("  \"durationMillis\": " + durationMillis + ",\n");
+      writer.write("  \"queueMillis\": " + queueMillis + ",\n");
+      writer.write("  \"generations\": [");
+      for (Iterator<Map.Entry<String, File>> it = generations.entrySet().iterator();
+          it.hasNext(); ) {
+        Map.Entry<String, File> generation = it.next();
+        Timings timings = Timings.load(generation.getValue().toPath());
+        writer.write("\n    {\n");
+        writer.write("      \"name\": " + quote(generation.getKey()) + ",\n");
+        writer.write("      \"phases\": " + toJson(timings.getPhases()) + ",\n");
+        writer.write("      \"files\": " + timings.getFiles() + ",\n");
+        writer.write("      \"bytes\": " + timings.getBytes() + ",\n");
+        writer.write("      \"peakHeapBytes\": " + timings.getPeakHeapBytes() + "\n");
+        writer.write(it.hasNext() ? "    }," : "    }\n  ");
+      }
+      writer.write("],\n");
+      writer.write("  \"outputs\": [");
+      for (Iterator<Output> it = outputs.iterator(); it.hasNext(); ) {
+        Output output = it.next();
+        writer.write("\n    {\n");
+        writer.write("      \"directory\": " + quote(output.directory.getPath()) + ",\n");
+        writer.write("      \"phases\": " + toJson(output.timings.getPhases()) + ",\n");
+        writer.write("      \"files\": " + output.timings.getFiles() + ",\n");
+        writer.write("      \"bytes\": " + output.timings.getBytes() + ",\n");
+        writer.write("      \"added\": " + output.result.added + ",\n");
+        writer.write("      \"modified\": " + output.result.modified + ",\n");
+        writer.write("      \"removed\": " + output.result.removed + ",\n");
+        writer.write("      \"unchanged\": " + output.result.unchanged + "\n");
+        writer.write(it.hasNext() ? "    }," : "    }\n  ");
+      }
+      writer.write("]\n");
+      writer.write("}\n");
+    }
+  }
+
+  private static String toJson(Map<String, Long> phases) {
+    StringBuilder sb = new StringBuilder("{");
+    for (Map.Entry<String, Long> phase : phases.entrySet()) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(quote(phase.getKey())).append(": ").append(phase.getValue());
+    }
+    return sb.append('}').toString();
+  }
+
+  private static String quote(String value) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  private static final class Output {
+    final File directory;
+    final Timings timings;
+    final DirectorySync.Result result;
+
+    Output(File directory, Timings timings, DirectorySync.Result result) {
+      this.directory = directory;
+      this.timings = timings;
+      this.result = result;
+    }
+  }
+}
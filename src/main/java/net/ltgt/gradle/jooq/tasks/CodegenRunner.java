@@ -0,0 +1,654 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.provider.Property;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutionException;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Runs the code generations of a {@link CodegenSpec} in workers, into staging directories.
+ *
+ * <p>Each output directory (of the task, and of each {@linkplain CodegenSpec#getExecutions()
+ * execution}) has its own staging directory, in the task's temporary directory; the task then
+ * compares them or updates the output directories with them.
+ */
+final class CodegenRunner {
+
+  /** The ratio of the maximum heap size to the snapshot file size, in adaptive mode. */
+  private static final int ADAPTIVE_HEAP_SNAPSHOT_FACTOR = 16;
+
+  /** Returns whether code is generated from migration scripts. */
+  static boolean hasMigrations(CodegenSpec spec) {
+    return !spec.getMigrations()
+        .getAsFileTree()
+        .matching(pattern -> pattern.include("**/*.sql"))
+        .isEmpty();
+  }
+
+  /**
+   * Returns whether the schema the code is generated from can be identified without connecting to
+   * the database: with a schema fingerprint, or when generating from a snapshot or migration
+   * scripts.
+   */
+  static boolean hasSchemaIdentity(CodegenSpec spec) {
+    return spec.getSchemaFingerprint().isPresent()
+        || spec.getSnapshotFile().isPresent()
+        || hasMigrations(spec);
+  }
+
+  private final Task task;
+  private final CodegenSpec spec;
+  private final WorkerExecutor workerExecutor;
+  private final FileSystemOperations fileSystemOperations;
+  private final Logger logger;
+  private final File stagingRoot;
+
+  // The time (in milliseconds since the epoch) by which the running code generations must
+  // complete, if the task has a timeout
+  private long deadlineMillis;
+
+  <T extends Task & CodegenSpec> CodegenRunner(
+      T task, WorkerExecutor workerExecutor, FileSystemOperations fileSystemOperations) {
+    this.task = task;
+    this.spec = task;
+    this.workerExecutor = workerExecutor;
+    this.fileSystemOperations = fileSystemOperations;
+    this.logger = task.getLogger();
+    this.stagingRoot = new File(task.getTemporaryDir(), "staging");
+  }
+
+  /** The code generated for an output directory, into its staging directory. */
+  static final class Output {
+    final File stagingDirectory;
+    final File outputDirectory;
+
+    /** The timings of merging the shards, and the number and size of the generated files. */
+    final Timings timings = new Timings();
+
+    // The key and state directory of the incremental generation, if enabled
+    @Nullable String incrementalKey;
+    @Nullable File incrementalStateDirectory;
+
+    Output(File stagingDirectory, File outputDirectory) {
+      this.stagingDirectory = stagingDirectory;
+      this.outputDirectory = outputDirectory;
+    }
+  }
+
+  /** The code generated for all output directories, and its report. */
+  static final class Generation {
+    final long start;
+    final List<Output> outputs;
+    final CodegenReport report;
+
+    Generation(long start, List<Output> outputs, CodegenReport report) {
+      this.start = start;
+      this.outputs = outputs;
+      this.report = report;
+    }
+  }
+
+  /**
+   * Generates the code into staging directories, such that the output directories are left
+   * untouched in case of failure.
+   *
+   * @param outputDirectory the output directory of the task's {@linkplain
+   *     CodegenSpec#getConfigurationFile() configuration file}, if any
+   * @param incrementalStateRoot the directory of the incremental generations state, if enabled
+   */
+  Generation generate(@Nullable File outputDirectory, @Nullable File incrementalStateRoot)
+      throws IOException, InterruptedException {
+    long start = Timings.start();
+    fileSystemOperations.delete(deleteSpec -> deleteSpec.delete(stagingRoot));
+
+    // Iterating, rather than isEmpty(), realizes the executions added lazily
+    if (!spec.getConfigurationFile().isPresent() && !spec.getExecutions().iterator().hasNext()) {
+      throw new InvalidUserDataException(
+          "No configuration file configured, neither for the task nor any execution");
+    }
+    if (spec.getSnapshotFile().isPresent() && hasMigrations(spec)) {
+      throw new InvalidUserDataException(
+          "Cannot generate from both a schema snapshot and migration scripts");
+    }
+    if (spec.getConfigurationFile().isPresent() && outputDirectory == null) {
+      throw new InvalidUserDataException("No output directory configured");
+    }
+    for (JooqCodegenExecution execution : spec.getExecutions()) {
+      if (!execution.getOutputDirectory().isPresent()) {
+        throw new InvalidUserDataException(
+            "No output directory configured for execution '" + execution.getName() + "'");
+      }
+    }
+    checkPositive(spec.getConnectTimeout(), "connect timeout");
+    checkPositive(spec.getQueryTimeout(), "query timeout");
+    // The task's timeout also bounds the code generations, even if they don't respond to
+    // interruption
+    deadlineMillis =
+        task.getTimeout().isPresent()
+            ? System.currentTimeMillis() + task.getTimeout().get().toMillis()
+            : 0;
+    fileSystemOperations.delete(
+        deleteSpec -> deleteSpec.delete(getCancellationFile(), getOutOfMemoryFile()));
+    if (spec.getMetadataCacheDirectory().isPresent() && spec.getMetadataCacheSize().get() < 1) {
+      throw new InvalidUserDataException(
+          "The metadata cache size must be at least 1, got " + spec.getMetadataCacheSize().get());
+    }
+    if (spec.getMetadataConnections().isPresent() && spec.getMetadataConnections().get() < 1) {
+      throw new InvalidUserDataException(
+          "The number of metadata connections must be at least 1, got "
+              + spec.getMetadataConnections().get());
+    }
+    List<Output> outputs = new ArrayList<>();
+    if (spec.getConfigurationFile().isPresent()) {
+      outputs.add(
+          new Output(new File(stagingRoot, String.valueOf(outputs.size())), outputDirectory));
+    }
+    for (JooqCodegenExecution execution : spec.getExecutions()) {
+      outputs.add(
+          new Output(
+              new File(stagingRoot, String.valueOf(outputs.size())),
+              execution.getOutputDirectory().get().getAsFile()));
+    }
+    checkNoOverlap(outputs);
+    if (spec.getMetadataCacheDirectory().isPresent() && !spec.getSchemaFingerprint().isPresent()) {
+      logger.info("Not using the metadata cache: no schema fingerprint configured");
+    }
+
+    String maxHeapSize = getEffectiveMaxHeapSize();
+    boolean forked = isForked(maxHeapSize);
+    CodegenReport report = new CodegenReport(task.getPath());
+    // staging directory -> shards, for the sharded code generations
+    Map<File, SchemaShards> shards = new LinkedHashMap<>();
+    try (DatabaseLimiterService.Permit permit = acquireDatabasePermit()) {
+      if (permit.getWaitMillis() > 0) {
+        logger.info("Waited {} ms for the database to be available", permit.getWaitMillis());
+      }
+      report.setQueueMillis(permit.getWaitMillis());
+      try {
+        generate(outputs, incrementalStateRoot, forked, maxHeapSize, shards, report);
+      } catch (WorkerExecutionException e) {
+        String retryMaxHeapSize =
+            forked && getOutOfMemoryFile().exists() ? getRetryMaxHeapSize(maxHeapSize) : null;
+        if (retryMaxHeapSize == null) {
+          throw e;
+        }
+        logger.warn(
+            "Code generator ran out of memory, retrying with a maximum heap size of {}",
+            retryMaxHeapSize);
+        fileSystemOperations.delete(
+            deleteSpec -> deleteSpec.delete(stagingRoot, getOutOfMemoryFile()));
+        shards.clear();
+        report.clearGenerations();
+        generate(outputs, incrementalStateRoot, true, retryMaxHeapSize, shards, report);
+      }
+    }
+    if (forked) {
+      long peakHeapBytes = report.getPeakHeapBytes();
+      if (peakHeapBytes > 0) {
+        logger.info("Code generator peak heap usage: {}", HeapSizes.format(peakHeapBytes));
+        Files.write(
+            getPeakHeapFile().toPath(),
+            String.valueOf(peakHeapBytes).getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    for (Output output : outputs) {
+      SchemaShards schemaShards = shards.get(output.stagingDirectory);
+      if (schemaShards != null) {
+        long mergeStart = Timings.start();
+        schemaShards.merge(output.stagingDirectory.toPath());
+        output.timings.record("merge", mergeStart);
+      }
+      output.timings.countFiles(output.stagingDirectory.toPath());
+    }
+    return new Generation(start, outputs, report);
+  }
+
+  /** Logs and writes the report, and deletes the staging directories. */
+  void complete(Generation generation) throws IOException {
+    logger.info("Code generation timings: {}", generation.report.summarize());
+    if (spec.getReportFile().isPresent()) {
+      generation.report.write(
+          spec.getReportFile().get().getAsFile(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - generation.start));
+    }
+    fileSystemOperations.delete(deleteSpec -> deleteSpec.delete(stagingRoot));
+  }
+
+  /** Returns the duration in seconds, rounded up, as JDBC query timeouts are in seconds. */
+  private static int toSeconds(Duration duration) {
+    long seconds = duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0);
+    return (int) Math.min(Integer.MAX_VALUE, seconds);
+  }
+
+  private static void checkPositive(Property<Duration> duration, String name) {
+    if (duration.isPresent() && (duration.get().isNegative() || duration.get().isZero())) {
+      throw new InvalidUserDataException(
+          "The " + name + " must be positive, got " + duration.get());
+    }
+  }
+
+  /**
+   * The file whose existence requests the code generations to be cancelled, when the task is
+   * interrupted.
+   */
+  private File getCancellationFile() {
+    return new File(task.getTemporaryDir(), "cancelled");
+  }
+
+  /**
+   * Waits for the code generations to complete, requesting their cancellation if the task is
+   * interrupted meanwhile (e.g. when it times out).
+   *
+   * <p>Worker threads aren't necessarily interrupted along with the task, so the code generations
+   * watch a {@linkplain #getCancellationFile() file} rather than their thread.
+   */
+  private void await(WorkQueue workQueue) {
+    Thread taskThread = Thread.currentThread();
+    Path cancellationFile = getCancellationFile().toPath();
+    ScheduledExecutorService monitor = CodegenWatchdog.newScheduler("jooq-codegen-cancellation");
+    ScheduledFuture<?> unused =
+        monitor.scheduleWithFixedDelay(
+            () -> {
+              if (taskThread.isInterrupted()) {
+                CodegenWatchdog.requestCancellation(cancellationFile);
+                monitor.shutdown();
+              }
+            },
+            CodegenWatchdog.POLL_INTERVAL_MILLIS,
+            CodegenWatchdog.POLL_INTERVAL_MILLIS,
+            TimeUnit.MILLISECONDS);
+    try {
+      workQueue.await();
+    } catch (RuntimeException e) {
+      if (Thread.currentThread().isInterrupted()) {
+        CodegenWatchdog.requestCancellation(cancellationFile);
+      }
+      throw e;
+    } finally {
+      monitor.shutdownNow();
+    }
+  }
+
+  private void generate(
+      List<Output> outputs,
+      @Nullable File incrementalStateRoot,
+      boolean forked,
+      @Nullable String maxHeapSize,
+      Map<File, SchemaShards> shards,
+      CodegenReport report)
+      throws IOException {
+    List<String> classDataSharingJvmArgs =
+        forked ? getClassDataSharingJvmArgs() : Collections.emptyList();
+    WorkQueue workQueue =
+        WorkQueues.create(
+            workerExecutor,
+            spec.getClasspath(),
+            spec.getJavaLauncher().getOrNull(),
+            forked,
+            forkOptions -> {
+              forkOptions.jvmArgs(classDataSharingJvmArgs);
+              forkOptions.jvmArgs(spec.getJvmArgs().get());
+              forkOptions.setMinHeapSize(spec.getMinHeapSize().getOrNull());
+              forkOptions.setMaxHeapSize(maxHeapSize);
+            });
+    Iterator<Output> outputIterator = outputs.iterator();
+    if (spec.getConfigurationFile().isPresent()) {
+      submit(
+          workQueue,
+          task.getName(),
+          spec.getConfigurationFile(),
+          spec.getEncoding(),
+          outputIterator.next(),
+          incrementalStateRoot,
+          forked,
+          shards,
+          report);
+    }
+    for (JooqCodegenExecution execution : spec.getExecutions()) {
+      submit(
+          workQueue,
+          execution.getName(),
+          execution.getConfigurationFile(),
+          execution.getEncoding(),
+          outputIterator.next(),
+          incrementalStateRoot,
+          forked,
+          shards,
+          report);
+    }
+    await(workQueue);
+  }
+
+  /**
+   * Returns whether the code generator runs in a forked JVM: when the java launcher is not the one
+   * used to run Gradle, when fork options are configured, or when connections are pooled or
+   * metadata shared (Gradle uses a distinct class loader for each work action running in-process,
+   * so they couldn't share connections or metadata).
+   */
+  private boolean isForked(@Nullable String maxHeapSize) {
+    JavaLauncher javaLauncher = spec.getJavaLauncher().getOrNull();
+    return (javaLauncher != null && WorkQueues.isForked(javaLauncher))
+        || !spec.getJvmArgs().get().isEmpty()
+        || spec.getMinHeapSize().isPresent()
+        || maxHeapSize != null
+        || spec.getPoolConnections().get()
+        || spec.getShareMetadata().get();
+  }
+
+  /** Returns the configured maximum heap size, or the computed one in adaptive mode. */
+  @Nullable
+  private String getEffectiveMaxHeapSize() throws IOException {
+    if (spec.getMaxHeapSize().isPresent() || !spec.getAdaptiveHeapSize().get()) {
+      return spec.getMaxHeapSize().getOrNull();
+    }
+    long estimate;
+    File peakHeapFile = getPeakHeapFile();
+    if (peakHeapFile.isFile()) {
+      estimate =
+          2
+              * Long.parseLong(
+                  new String(Files.readAllBytes(peakHeapFile.toPath()), StandardCharsets.UTF_8)
+                      .trim());
+    } else if (spec.getSnapshotFile().isPresent()) {
+      // The snapshot is about the size of the database metadata read by jOOQ, that is then held
+      // in memory along with the objects' definitions and the generated code.
+      estimate = ADAPTIVE_HEAP_SNAPSHOT_FACTOR * spec.getSnapshotFile().get().getAsFile().length();
+    } else {
+      logger.info("Not computing the maximum heap size: no previous peak heap usage known");
+      return null;
+    }
+    String maxHeapSize = HeapSizes.format(Math.max(estimate, HeapSizes.MIN_ADAPTIVE_BYTES));
+    logger.info("Using a computed maximum heap size of {}", maxHeapSize);
+    return maxHeapSize;
+  }
+
+  /**
+   * Returns the maximum heap size to retry the code generation with, after it ran out of memory, or
+   * {@code null} if it should not be retried.
+   */
+  @Nullable
+  private static String getRetryMaxHeapSize(@Nullable String maxHeapSize) {
+    if (maxHeapSize != null) {
+      return HeapSizes.format(2 * HeapSizes.parse(maxHeapSize));
+    }
+    Long halfPhysicalMemory = HeapSizes.getHalfPhysicalMemory();
+    return halfPhysicalMemory == null ? null : HeapSizes.format(halfPhysicalMemory);
+  }
+
+  /** The file created by the forked code generators when they run out of memory. */
+  private File getOutOfMemoryFile() {
+    return new File(task.getTemporaryDir(), "out-of-memory");
+  }
+
+  private File getPeakHeapFile() {
+    return new File(task.getTemporaryDir(), "peak-heap.txt");
+  }
+
+  private DatabaseLimiterService.Permit acquireDatabasePermit() throws InterruptedException {
+    if (spec.getSnapshotFile().isPresent()
+        || hasMigrations(spec)
+        || !spec.getDatabaseLimiter().isPresent()) {
+      return DatabaseLimiterService.Permit.none();
+    }
+    return spec.getDatabaseLimiter().get().acquire(spec.getUrl().get());
+  }
+
+  private List<String> getClassDataSharingJvmArgs() throws IOException {
+    if (!spec.getClassDataSharingArchiveDirectory().isPresent()) {
+      return Collections.emptyList();
+    }
+    JavaLauncher javaLauncher = spec.getJavaLauncher().getOrNull();
+    if (javaLauncher == null) {
+      logger.info("Not using class data sharing: no java launcher configured");
+      return Collections.emptyList();
+    }
+    if (!ClassDataSharing.isSupported(javaLauncher)) {
+      logger.info(
+          "Not using class data sharing: requires Java {} or later, but code generator runs"
+              + " with Java {}",
+          ClassDataSharing.MINIMUM_JAVA_VERSION,
+          javaLauncher.getMetadata().getLanguageVersion());
+      return Collections.emptyList();
+    }
+    File archiveDirectory = spec.getClassDataSharingArchiveDirectory().get().getAsFile();
+    Files.createDirectories(archiveDirectory.toPath());
+    File archiveFile =
+        ClassDataSharing.getArchiveFile(archiveDirectory, spec.getClasspath(), javaLauncher);
+    logger.info(
+        archiveFile.isFile()
+            ? "Using class data sharing archive {}"
+            : "Creating class data sharing archive {}",
+        archiveFile);
+    return ClassDataSharing.getJvmArgs(archiveFile);
+  }
+
+  private void submit(
+      WorkQueue workQueue,
+      String name,
+      RegularFileProperty configurationFile,
+      Property<String> encoding,
+      Output output,
+      @Nullable File incrementalStateRoot,
+      boolean forked,
+      Map<File, SchemaShards> shards,
+      CodegenReport report)
+      throws IOException {
+    File stagingDirectory = output.stagingDirectory;
+    List<String> schemas =
+        spec.getShardBySchema().get()
+            ? ConfigurationFiles.getInputSchemas(configurationFile.get().getAsFile())
+            : Collections.emptyList();
+    if (schemas.size() < 2) {
+      if (spec.getShardBySchema().get()) {
+        logger.info(
+            "Not sharding {}: it does not explicitly list several schemas",
+            configurationFile.get().getAsFile());
+      }
+      if (incrementalStateRoot != null) {
+        prepareIncrementalGeneration(
+            name, configurationFile, encoding, output, incrementalStateRoot);
+      }
+      submit(
+          workQueue,
+          name,
+          configurationFile,
+          encoding,
+          stagingDirectory,
+          Collections.emptyList(),
+          false,
+          output.incrementalStateDirectory,
+          output.outputDirectory,
+          forked,
+          report);
+      return;
+    }
+    if (incrementalStateRoot != null) {
+      logger.info("Not generating {} incrementally: it is sharded by schema", name);
+      File incrementalStateDirectory = new File(incrementalStateRoot, stagingDirectory.getName());
+      fileSystemOperations.delete(deleteSpec -> deleteSpec.delete(incrementalStateDirectory));
+    }
+
+    SchemaShards schemaShards =
+        new SchemaShards(
+            schemas,
+            new File(stagingDirectory.getParentFile(), stagingDirectory.getName() + "-shards"));
+    shards.put(stagingDirectory, schemaShards);
+    for (int i = 0; i < schemas.size(); i++) {
+      submit(
+          workQueue,
+          name + " [schema " + schemas.get(i) + "]",
+          configurationFile,
+          encoding,
+          schemaShards.getSchemaShardDirectory(i),
+          schemaShards.getExcludedSchemas(i),
+          false,
+          null,
+          null,
+          forked,
+          report);
+    }
+    submit(
+        workQueue,
+        name + " [catalog]",
+        configurationFile,
+        encoding,
+        schemaShards.getCatalogShardDirectory(),
+        Collections.emptyList(),
+        true,
+        null,
+        null,
+        forked,
+        report);
+  }
+
+  private void submit(
+      WorkQueue workQueue,
+      String name,
+      RegularFileProperty configurationFile,
+      Property<String> encoding,
+      File outputDirectory,
+      List<String> excludedSchemas,
+      boolean catalogOnly,
+      @Nullable File incrementalStateDirectory,
+      @Nullable File previousOutputDirectory,
+      boolean forked,
+      CodegenReport report) {
+    File timingsFile =
+        new File(outputDirectory.getParentFile(), outputDirectory.getName() + ".timings");
+    report.addGeneration(name, timingsFile);
+    workQueue.submit(
+        JooqCodegenWorkAction.class,
+        params -> {
+          if (spec.getSnapshotFile().isPresent()) {
+            params.getSnapshotFile().set(spec.getSnapshotFile());
+          } else if (hasMigrations(spec)) {
+            params
+                .getMigrations()
+                .from(
+                    spec.getMigrations()
+                        .getAsFileTree()
+                        .matching(pattern -> pattern.include("**/*.sql")));
+            params.getMigrationsDatabaseUrl().set(spec.getMigrationsDatabaseUrl());
+          } else {
+            // The url is not an @Input so Gradle won't check it's been configured
+            params.getUrl().set(spec.getUrl().get());
+            params.getUser().set(spec.getUser());
+            params.getPassword().set(spec.getPassword());
+            if (spec.getPoolConnections().get() && spec.getConnectionPool().isPresent()) {
+              params.getConnectionPoolBuildId().set(spec.getConnectionPool().get().getBuildId());
+            }
+            if (spec.getShareMetadata().get() && spec.getConnectionPool().isPresent()) {
+              params.getSharedMetadataBuildId().set(spec.getConnectionPool().get().getBuildId());
+            }
+            if (spec.getMetadataCacheDirectory().isPresent()
+                && spec.getSchemaFingerprint().isPresent()) {
+              params.getSchemaFingerprint().set(spec.getSchemaFingerprint());
+              params.getMetadataCacheDirectory().set(spec.getMetadataCacheDirectory());
+              params.getMetadataCacheSize().set(spec.getMetadataCacheSize());
+            }
+            params.getMetadataConnections().set(spec.getMetadataConnections());
+            params.getConnectTimeoutMillis().set(spec.getConnectTimeout().map(Duration::toMillis));
+          }
+          params.getConfigurationFile().set(configurationFile);
+          params.getOutputDirectory().set(outputDirectory);
+          params.getEncoding().set(encoding);
+          params.getExcludedSchemas().set(excludedSchemas);
+          params.getCatalogOnly().set(catalogOnly);
+          params.getTimingsFile().set(timingsFile);
+          params.getRecordPeakHeap().set(forked);
+          if (forked) {
+            params.getOutOfMemoryFile().set(getOutOfMemoryFile());
+          }
+          params.getParallelGeneration().set(spec.getParallelGeneration());
+          params.getQueryTimeoutSeconds().set(spec.getQueryTimeout().map(CodegenRunner::toSeconds));
+          if (deadlineMillis > 0) {
+            params.getDeadlineMillis().set(deadlineMillis);
+          }
+          params.getCancellationFile().set(getCancellationFile());
+          if (incrementalStateDirectory != null) {
+            params.getIncrementalStateDirectory().set(incrementalStateDirectory);
+            params.getPreviousOutputDirectory().set(previousOutputDirectory);
+          }
+        });
+  }
+
+  /** Prepares the incremental generation of the given output, recording its key and state. */
+  private void prepareIncrementalGeneration(
+      String name,
+      RegularFileProperty configurationFile,
+      Property<String> encoding,
+      Output output,
+      File incrementalStateRoot)
+      throws IOException {
+    File stateDirectory = new File(incrementalStateRoot, output.stagingDirectory.getName());
+    if (hasMigrations(spec)) {
+      logger.info("Not generating {} incrementally: it is generated from migrations", name);
+      fileSystemOperations.delete(deleteSpec -> deleteSpec.delete(stateDirectory));
+      return;
+    }
+    String key =
+        IncrementalGeneration.key(
+            configurationFile.get().getAsFile(), encoding.getOrNull(), spec.getClasspath());
+    if (!IncrementalGeneration.prepare(
+        stateDirectory.toPath(), key, output.outputDirectory.toPath())) {
+      logger.info(
+          "Not using the previous code generation of {}: none, or the configuration, classpath, or output directory changed",
+          name);
+    }
+    output.incrementalKey = key;
+    output.incrementalStateDirectory = stateDirectory;
+  }
+
+  private static void checkNoOverlap(Collection<Output> outputs) {
+    List<Path> paths = new ArrayList<>();
+    for (Output output : outputs) {
+      Path path = output.outputDirectory.toPath().toAbsolutePath().normalize();
+      for (Path other : paths) {
+        if (path.startsWith(other) || other.startsWith(path)) {
+          throw new InvalidUserDataException(
+              "Output directories must not overlap: " + other + " and " + path);
+        }
+      }
+      paths.add(path);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.time.Duration;
+import org.gradle.api.NamedDomainObjectContainer;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.jvm.toolchain.JavaLauncher;
+
+/**
+ * The configuration of the code generations, shared by the {@link JooqCodegen} and {@link
+ * JooqCodegenCheck} tasks, and run by a {@link CodegenRunner}.
+ *
+ * <p>The output directory is not part of it, as it's an output of one task and an input of the
+ * other.
+ *
+ * @see JooqCodegen
+ */
+interface CodegenSpec {
+  ConfigurableFileCollection getClasspath();
+
+  Property<String> getUrl();
+
+  Property<String> getUser();
+
+  Property<String> getPassword();
+
+  Property<String> getEncoding();
+
+  RegularFileProperty getConfigurationFile();
+
+  NamedDomainObjectContainer<JooqCodegenExecution> getExecutions();
+
+  Property<JavaLauncher> getJavaLauncher();
+
+  RegularFileProperty getSchemaFingerprint();
+
+  DirectoryProperty getClassDataSharingArchiveDirectory();
+
+  ListProperty<String> getJvmArgs();
+
+  Property<String> getMinHeapSize();
+
+  Property<String> getMaxHeapSize();
+
+  Property<Boolean> getAdaptiveHeapSize();
+
+  Property<Boolean> getParallelGeneration();
+
+  Property<Integer> getMetadataConnections();
+
+  Property<Duration> getConnectTimeout();
+
+  Property<Duration> getQueryTimeout();
+
+  Property<Boolean> getShardBySchema();
+
+  RegularFileProperty getSnapshotFile();
+
+  ConfigurableFileCollection getMigrations();
+
+  Property<String> getMigrationsDatabaseUrl();
+
+  DirectoryProperty getMetadataCacheDirectory();
+
+  Property<Integer> getMetadataCacheSize();
+
+  Property<Boolean> getShareMetadata();
+
+  RegularFileProperty getReportFile();
+
+  Property<Boolean> getPoolConnections();
+
+  Property<JdbcConnectionPoolService> getConnectionPool();
+
+  Property<DatabaseLimiterService> getDatabaseLimiter();
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounds the duration of a code generation, and cancels it when requested.
+ *
+ * <p>The watchdog checks periodically whether the deadline has passed, the cancellation file has
+ * been created (by the task, when it's interrupted), or the thread that started the watchdog has
+ * been interrupted (by Gradle, e.g. when the build is cancelled). It then cancels the running
+ * statements and aborts the connections it {@linkplain #watch(Connection) watches}, such that
+ * blocked JDBC calls fail, and interrupts the thread. The code generation must then {@linkplain
+ * #checkNotCancelled(RuntimeException) fail}, as jOOQ ignores some errors and would otherwise
+ * generate partial output.
+ */
+final class CodegenWatchdog implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(CodegenWatchdog.class);
+
+  static final long POLL_INTERVAL_MILLIS = 100;
+
+  private final Thread thread = Thread.currentThread();
+  private final int queryTimeoutSeconds;
+  private final long deadlineMillis;
+  @Nullable private final Path cancellationFile;
+  private final ScheduledExecutorService scheduler = newScheduler("jooq-codegen-watchdog");
+  private final List<Connection> connections = new ArrayList<>();
+  // Statements are only weakly referenced, as most are closed long before the watchdog
+  private final Set<Statement> statements = Collections.newSetFromMap(new WeakHashMap<>());
+  @Nullable private volatile String cancellationReason;
+  private boolean closed;
+
+  /**
+   * Starts a watchdog for the current thread.
+   *
+   * @param queryTimeoutSeconds the query timeout to set on statements, or {@code 0} for none
+   * @param deadlineMillis the time (in milliseconds since the epoch) by which the code generation
+   *     must complete, or {@code 0} for none
+   * @param cancellationFile the file whose existence requests the cancellation, if any
+   */
+  CodegenWatchdog(int queryTimeoutSeconds, long deadlineMillis, @Nullable Path cancellationFile) {
+    this.queryTimeoutSeconds = queryTimeoutSeconds;
+    this.deadlineMillis = deadlineMillis;
+    this.cancellationFile = cancellationFile;
+    ScheduledFuture<?> unused =
+        scheduler.scheduleWithFixedDelay(
+            this::check, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /** Returns a single daemon thread scheduler, that won't prevent the JVM from exiting. */
+  static ScheduledExecutorService newScheduler(String name) {
+    return Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+          Thread thread = new Thread(runnable, name);
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /** Requests the cancellation of the code generations watching the given file. */
+  static void requestCancellation(Path cancellationFile) {
+    try {
+      Files.createDirectories(cancellationFile.toAbsolutePath().getParent());
+      Files.write(cancellationFile, new byte[0]);
+    } catch (IOException e) {
+      logger.warn("Cannot request the cancellation of the code generation", e);
+    }
+  }
+
+  /**
+   * Returns a connection that sets the query timeout on the statements it creates, and that will be
+   * aborted if the code generation is cancelled.
+   */
+  Connection watch(Connection connection) throws SQLException {
+    synchronized (this) {
+      if (cancellationReason == null) {
+        connections.add(connection);
+      }
+    }
+    checkNotCancelled(connection);
+    InvocationHandler handler =
+        (proxy, method, args) -> {
+          Object result;
+          try {
+            result = method.invoke(connection, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+          if (result instanceof Statement && method.getName().endsWith("Statement")) {
+            Statement statement = (Statement) result;
+            if (queryTimeoutSeconds > 0) {
+              statement.setQueryTimeout(queryTimeoutSeconds);
+            }
+            synchronized (this) {
+              statements.add(statement);
+            }
+          }
+          return result;
+        };
+    return (Connection)
+        Proxy.newProxyInstance(
+            CodegenWatchdog.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+  }
+
+  private void checkNotCancelled(Connection connection) throws SQLException {
+    if (cancellationReason != null) {
+      closeQuietly(connection);
+      throw new SQLException("Code generation " + cancellationReason);
+    }
+  }
+
+  /**
+   * Throws if the code generation has been cancelled, whether or not it otherwise failed (with the
+   * given exception).
+   */
+  void checkNotCancelled(@Nullable RuntimeException failure) {
+    String reason = cancellationReason;
+    if (reason != null) {
+      throw new IllegalStateException("Code generation " + reason, failure);
+    }
+  }
+
+  private void check() {
+    String reason = null;
+    if (deadlineMillis > 0 && System.currentTimeMillis() >= deadlineMillis) {
+      reason = "timed out";
+    } else if (cancellationFile != null && Files.exists(cancellationFile)) {
+      reason = "cancelled";
+    } else if (thread.isInterrupted()) {
+      reason = "interrupted";
+    }
+    if (reason != null) {
+      cancel(reason);
+    }
+  }
+
+  private void cancel(String reason) {
+    List<Statement> runningStatements;
+    List<Connection> openConnections;
+    synchronized (this) {
+      if (closed || cancellationReason != null) {
+        return;
+      }
+      cancellationReason = reason;
+      runningStatements = new ArrayList<>(statements);
+      openConnections = new ArrayList<>(connections);
+      statements.clear();
+      connections.clear();
+      // Interrupt while holding the lock, so close() then clears the interruption
+      thread.interrupt();
+    }
+    logger.warn("Code generation {}, cancelling database operations", reason);
+    for (Statement statement : runningStatements) {
+      try {
+        if (!statement.isClosed()) {
+          statement.cancel();
+        }
+      } catch (SQLException e) {
+        logger.debug("Cannot cancel statement", e);
+      }
+    }
+    // Aborting (closing) a connection can block, e.g. while the driver waits for the server
+    Executor executor =
+        command -> {
+          Thread thread = new Thread(command, "jooq-codegen-abort");
+          thread.setDaemon(true);
+          thread.start();
+        };
+    for (Connection connection : openConnections) {
+      try {
+        connection.abort(executor);
+      } catch (SQLException | AbstractMethodError e) {
+        executor.execute(() -> closeQuietly(connection));
+      }
+    }
+    scheduler.shutdown();
+  }
+
+  private static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    synchronized (this) {
+      closed = true;
+      statements.clear();
+      connections.clear();
+    }
+    // Clear the interruption caused by the watchdog, as worker threads are reused
+    if (cancellationReason != null) {
+      Thread.interrupted();
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.gradle.api.InvalidUserDataException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Reads bits of jOOQ code generation configuration files.
+ *
+ * <p>jOOQ is not available in the Gradle classloader (only in the workers'), so this uses the JDK's
+ * XML APIs directly.
+ */
+final class ConfigurationFiles {
+  private ConfigurationFiles() {}
+
+  /**
+   * Returns the schemas explicitly listed in {@code generator.database.inputSchema} and {@code
+   * generator.database.schemata}.
+   *
+   * <p>Returns an empty list if no schema is listed, or if the configuration uses {@code
+   * generator.database.catalogs}.
+   */
+  static List<String> getInputSchemas(File configurationFile) {
+    Element root;
+    try {
+      DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+      factory.setNamespaceAware(true);
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+      root = factory.newDocumentBuilder().parse(configurationFile).getDocumentElement();
+    } catch (ParserConfigurationException | SAXException | IOException e) {
+      throw new InvalidUserDataException("Cannot read configuration file " + configurationFile, e);
+    }
+    Element database = getChild(getChild(root, "generator"), "database");
+    if (database == null || getChild(database, "catalogs") != null) {
+      return Collections.emptyList();
+    }
+    List<String> schemas = new ArrayList<>();
+    addText(schemas, getChild(database, "inputSchema"));
+    Element schemata = getChild(database, "schemata");
+    if (schemata != null) {
+      for (Node node = schemata.getFirstChild(); node != null; node = node.getNextSibling()) {
+        if (isElement(node, "schema")) {
+          addText(schemas, getChild((Element) node, "inputSchema"));
+        }
+      }
+    }
+    return Collections.unmodifiableList(schemas);
+  }
+
+  @Nullable
+  private static Element getChild(@Nullable Element parent, String localName) {
+    if (parent == null) {
+      return null;
+    }
+    for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+      if (isElement(node, localName)) {
+        return (Element) node;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isElement(Node node, String localName) {
+    return node.getNodeType() == Node.ELEMENT_NODE && localName.equals(node.getLocalName());
+  }
+
+  private static void addText(List<String> values, @Nullable Element element) {
+    if (element != null) {
+      String value = element.getTextContent().trim();
+      if (!value.isEmpty() && !values.contains(value)) {
+        values.add(value);
+      }
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jooq.codegen.GenerationTool;
+import org.jooq.meta.jaxb.Configuration;
+
+/**
+ * Loads jOOQ code generation configuration files, caching the parsed configurations.
+ *
+ * <p>Parsing, and validating against the XSD, is costly, and the code generators' class loaders
+ * (and forked worker processes) are reused by Gradle across code generations and builds. The
+ * configurations are thus cached by content hash, and each call returns a deep copy that can be
+ * freely modified.
+ */
+final class ConfigurationLoader {
+  private ConfigurationLoader() {}
+
+  static final int MAX_ENTRIES = 32;
+
+  // content hash -> serialized configuration, least recently used first
+  private static final Map<String, byte[]> cache =
+      new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  static Configuration load(Path configurationFile) {
+    try {
+      byte[] content = Files.readAllBytes(configurationFile);
+      String key = Hashes.sha256(content);
+      byte[] serialized;
+      synchronized (cache) {
+        serialized = cache.get(key);
+      }
+      if (serialized == null) {
+        Configuration configuration;
+        try (InputStream is = new ByteArrayInputStream(content)) {
+          configuration = GenerationTool.load(is);
+        }
+        serialized = serialize(configuration);
+        synchronized (cache) {
+          cache.put(key, serialized);
+        }
+      }
+      return deserialize(serialized);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Returns the number of cached configurations, for tests. */
+  static int getCachedConfigurationCount() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  private static byte[] serialize(Configuration configuration) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(configuration);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Configuration deserialize(byte[] serialized) throws IOException {
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(serialized)) {
+          @Override
+          protected Class<?> resolveClass(ObjectStreamClass desc)
+              throws IOException, ClassNotFoundException {
+            // Resolve the jOOQ classes from the code generator's class loader
+            return Class.forName(desc.getName(), false, ConfigurationLoader.class.getClassLoader());
+          }
+        }) {
+      return (Configuration) in.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException(e);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Limits the number of code generation tasks connecting to the same database at the same time.
+ *
+ * <p>Limits are configured per database, identified by its JDBC URL or host (with or without the
+ * port), with a default limit for other databases. Tasks connecting to a database whose limit has
+ * been reached wait until another task connecting to the same database completes.
+ */
+public abstract class DatabaseLimiterService
+    implements BuildService<DatabaseLimiterService.Parameters> {
+
+  /** The parameters of the service. */
+  public interface Parameters extends BuildServiceParameters {
+    /** The maximum number of tasks connecting to the same database, if not otherwise configured. */
+    Property<Integer> getMaxParallelUsages();
+
+    /**
+     * The maximum number of tasks connecting to the same database, keyed by JDBC URL, host and port
+     * ({@code host:port}), or host.
+     */
+    MapProperty<String, Integer> getMaxParallelUsagesByDatabase();
+  }
+
+  // limit key -> semaphore
+  private final ConcurrentMap<String, Semaphore> semaphores = new ConcurrentHashMap<>();
+
+  /**
+   * Waits for the database to be available, according to the configured limits, and returns a
+   * permit to be closed once done with the database.
+   */
+  Permit acquire(String url) throws InterruptedException {
+    String key = null;
+    Integer limit = null;
+    Map<String, Integer> limits = getParameters().getMaxParallelUsagesByDatabase().get();
+    for (String candidate : getKeys(url)) {
+      limit = limits.get(candidate);
+      if (limit != null) {
+        key = candidate;
+        break;
+      }
+    }
+    if (limit == null) {
+      limit = getParameters().getMaxParallelUsages().getOrNull();
+      key = url;
+    }
+    if (limit == null || limit <= 0) {
+      return Permit.none();
+    }
+    int permits = limit;
+    Semaphore semaphore = semaphores.computeIfAbsent(key, k -> new Semaphore(permits, true));
+    long start = System.nanoTime();
+    semaphore.acquire();
+    return new Permit(semaphore, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /**
+   * Returns the keys that can be used to configure a limit for the database, most specific first:
+   * the URL, then the host and port, then the host.
+   */
+  static List<String> getKeys(String url) {
+    List<String> keys = new ArrayList<>();
+    keys.add(url);
+    String authority = getAuthority(url);
+    if (authority != null) {
+      keys.add(authority);
+      int colon = authority.lastIndexOf(':');
+      // Don't split IPv6 addresses without a port
+      if (colon > 0 && authority.indexOf(']') < colon) {
+        keys.add(authority.substring(0, colon));
+      }
+    }
+    return keys;
+  }
+
+  /** Returns the host and port of the database, if they can be found in the URL. */
+  @Nullable
+  private static String getAuthority(String url) {
+    int start = url.indexOf("//");
+    if (start >= 0) {
+      start += 2;
+    } else {
+      // e.g. jdbc:oracle:thin:@host:port:sid
+      start = url.indexOf('@');
+      if (start < 0) {
+        return null;
+      }
+      start++;
+    }
+    int end = start;
+    while (end < url.length() && "/;?,".indexOf(url.charAt(end)) < 0) {
+      end++;
+    }
+    String authority = url.substring(start, end);
+    // Strip user information
+    authority = authority.substring(authority.lastIndexOf('@') + 1);
+    if (url.indexOf("//") < 0) {
+      // Only keep host:port from host:port:sid
+      int colon = authority.indexOf(':');
+      if (colon >= 0 && authority.indexOf(':', colon + 1) >= 0) {
+        authority = authority.substring(0, authority.indexOf(':', colon + 1));
+      }
+    }
+    return authority.isEmpty() ? null : authority;
+  }
+
+  /** A permit to connect to the database, to be closed once done with the database. */
+  static final class Permit implements AutoCloseable {
+    @Nullable private final Semaphore semaphore;
+    private final long waitMillis;
+
+    private Permit(@Nullable Semaphore semaphore, long waitMillis) {
+      this.semaphore = semaphore;
+      this.waitMillis = waitMillis;
+    }
+
+    /** Returns a permit for a database that's not limited. */
+    static Permit none() {
+      return new Permit(null, 0);
+    }
+
+    /** Returns how long it took to acquire the permit. */
+    long getWaitMillis() {
+      return waitMillis;
+    }
+
+    @Override
+    public void close() {
+      if (semaphore != null) {
+        semaphore.release();
+      }
+    }
+  }
+}
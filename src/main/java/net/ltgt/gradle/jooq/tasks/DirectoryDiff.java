@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares a target directory with a source directory, without touching any file.
+ *
+ * <p>Files are first compared by size, then (only if the sizes are equal) by content, in parallel.
+ */
+final class DirectoryDiff {
+  /** Files in the source directory but not the target directory. */
+  final List<Path> added = new ArrayList<>();
+
+  /** Files in both directories, with different contents. */
+  final List<Path> modified = new ArrayList<>();
+
+  /** Files in the target directory but not the source directory. */
+  final List<Path> removed = new ArrayList<>();
+
+  int unchanged;
+
+  private DirectoryDiff() {}
+
+  static DirectoryDiff compare(Path source, Path target) throws IOException {
+    DirectoryDiff diff = new DirectoryDiff();
+    // The source directory doesn't exist when nothing has been generated
+    Map<Path, Long> sourceFiles =
+        Files.isDirectory(source) ? listFiles(source) : Collections.emptyMap();
+    Map<Path, Long> targetFiles =
+        Files.isDirectory(target) ? listFiles(target) : Collections.emptyMap();
+    List<Path> sameSize = new ArrayList<>();
+    for (Map.Entry<Path, Long> entry : sourceFiles.entrySet()) {
+      Long targetSize = targetFiles.get(entry.getKey());
+      if (targetSize == null) {
+        diff.added.add(entry.getKey());
+      } else if (targetSize.equals(entry.getValue())) {
+        sameSize.add(entry.getKey());
+      } else {
+        diff.modified.add(entry.getKey());
+      }
+    }
+    for (Path path : targetFiles.keySet()) {
+      if (!sourceFiles.containsKey(path)) {
+        diff.removed.add(path);
+      }
+    }
+    List<Path> differentContent;
+    try {
+      differentContent =
+          sameSize.parallelStream()
+              .filter(path -> !hasSameContent(source.resolve(path), target.resolve(path)))
+              .collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    diff.modified.addAll(differentContent);
+    Collections.sort(diff.modified);
+    diff.unchanged = sameSize.size() - differentContent.size();
+    return diff;
+  }
+
+  /** Returns whether the directories have the same files with the same contents. */
+  boolean isEmpty() {
+    return added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+  }
+
+  /** Returns the result as if the target directory had been synchronized with the source one. */
+  DirectorySync.Result toResult() {
+    DirectorySync.Result result = new DirectorySync.Result();
+    result.added = added.size();
+    result.modified = modified.size();
+    result.removed = removed.size();
+    result.unchanged = unchanged;
+    return result;
+  }
+
+  /** Describes the differences, listing at most {@code limit} files. */
+  String describe(int limit) {
+    StringBuilder description = new StringBuilder();
+    int listed = 0;
+    listed = describe(description, "added", added, listed, limit);
+    listed = describe(description, "modified", modified, listed, limit);
+    listed = describe(description, "removed", removed, listed, limit);
+    int total = added.size() + modified.size() + removed.size();
+    if (listed < total) {
+      description.append("\n  ... and ").append(total - listed).append(" more");
+    }
+    return description.toString();
+  }
+
+  private static int describe(
+      StringBuilder description, String change, List<Path> paths, int listed, int limit) {
+    for (Path path : paths) {
+      if (listed >= limit) {
+        break;
+      }
+      description.append("\n  ").append(change).append(": ").append(path);
+      listed++;
+    }
+    return listed;
+  }
+
+  private static Map<Path, Long> listFiles(Path directory) throws IOException {
+    Map<Path, Long> files = new TreeMap<>();
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+        files.put(directory.relativize(path), Files.size(path));
+      }
+    }
+    return files;
+  }
+
+  private static boolean hasSameContent(Path file, Path targetFile) {
+    try {
+      return Arrays.equals(Files.readAllBytes(file), Files.readAllBytes(targetFile));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
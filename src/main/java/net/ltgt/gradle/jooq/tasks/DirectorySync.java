@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Synchronizes a target directory with a source directory, only touching files whose content
+ * actually changed.
+ *
+ * <p>This preserves the timestamps of unchanged files, such that incremental compilation only
+ * recompiles what changed.
+ */
+final class DirectorySync {
+  private DirectorySync() {}
+
+  static final class Result {
+    int added;
+    int modified;
+    int removed;
+    int unchanged;
+
+    @Override
+    public String toString() {
+      return added
+          + " added, "
+          + modified
+          + " modified, "
+          + removed
+          + " removed, "
+          + unchanged
+          + " unchanged";
+    }
+  }
+
+  /**
+   * Synchronizes the target directory with the source directory.
+   *
+   * <p>A missing source directory is considered empty: all files in the target directory are then
+   * removed. A file in the target directory where the source directory has a directory (or the
+   * other way around) is replaced.
+   */
+  static Result sync(Path source, Path target) throws IOException {
+    Result result = new Result();
+    Set<Path> sourceFiles = new HashSet<>();
+    if (Files.exists(target) && !Files.isDirectory(target)) {
+      Files.delete(target);
+      result.removed++;
+    }
+    Files.createDirectories(target);
+    if (Files.isDirectory(source)) {
+      Files.walkFileTree(
+          source,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                throws IOException {
+              Path targetDir = target.resolve(source.relativize(dir));
+              if (Files.exists(targetDir, LinkOption.NOFOLLOW_LINKS)
+                  && !Files.isDirectory(targetDir, LinkOption.NOFOLLOW_LINKS)) {
+                Files.delete(targetDir);
+                result.removed++;
+              }
+              Files.createDirectories(targetDir);
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                throws IOException {
+              Path relativePath = source.relativize(file);
+              sourceFiles.add(relativePath);
+              Path targetFile = target.resolve(relativePath);
+              if (Files.isDirectory(targetFile, LinkOption.NOFOLLOW_LINKS)) {
+                result.removed += deleteRecursively(targetFile);
+              }
+              if (!Files.isRegularFile(targetFile)) {
+                result.added++;
+                replace(file, targetFile);
+              } else if (hasSameContent(file, attrs, targetFile)) {
+                result.unchanged++;
+              } else {
+                result.modified++;
+                replace(file, targetFile);
+              }
+              return FileVisitResult.CONTINUE;
+            }
+          });
+    }
+    Files.walkFileTree(
+        target,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+              throws IOException {
+            if (!sourceFiles.contains(target.relativize(file))) {
+              result.removed++;
+              Files.delete(file);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+            if (exc != null) {
+              throw exc;
+            }
+            if (!dir.equals(target) && !Files.isDirectory(source.resolve(target.relativize(dir)))) {
+              Files.delete(dir);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+    return result;
+  }
+
+  /** Deletes the directory and all its content, and returns the number of deleted files. */
+  private static int deleteRecursively(Path directory) throws IOException {
+    int[] deleted = new int[1];
+    Files.walkFileTree(
+        directory,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+              throws IOException {
+            Files.delete(file);
+            deleted[0]++;
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+            if (exc != null) {
+              throw exc;
+            }
+            Files.delete(dir);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+    return deleted[0];
+  }
+
+  private static boolean hasSameContent(Path file, BasicFileAttributes attrs, Path targetFile)
+      throws IOException {
+    return attrs.size() == Files.size(targetFile)
+        && Arrays.equals(Files.readAllBytes(file), Files.readAllBytes(targetFile));
+  }
+
+  /** Replaces the target file, such that readers never observe a partially written file. */
+  private static void replace(Path file, Path targetFile) throws IOException {
+    Path tempFile = Files.createTempFile(targetFile.getParent(), ".jooq", ".tmp");
+    try {
+      Files.copy(file, tempFile, StandardCopyOption.REPLACE_EXISTING);
+      Files.move(
+          tempFile,
+          targetFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+}
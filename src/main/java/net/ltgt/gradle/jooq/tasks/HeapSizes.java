@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/** Utilities for heap sizes of the forked code generator. */
+final class HeapSizes {
+  private HeapSizes() {}
+
+  static final long MIB = 1024 * 1024;
+
+  /** The minimum heap size computed in adaptive mode. */
+  static final long MIN_ADAPTIVE_BYTES = 256 * MIB;
+
+  /**
+   * Parses a heap size, in the format of the {@code -Xmx} JVM argument: a number of bytes,
+   * optionally followed by {@code k}, {@code m}, or {@code g}.
+   */
+  static long parse(String heapSize) {
+    String value = heapSize.trim().toLowerCase(Locale.ROOT);
+    long unit = 1;
+    switch (value.isEmpty() ? ' ' : value.charAt(value.length() - 1)) {
+      case 'k':
+        unit = 1024;
+        break;
+      case 'm':
+        unit = MIB;
+        break;
+      case 'g':
+        unit = 1024 * MIB;
+        break;
+      default:
+        return Long.parseLong(value);
+    }
+    return Long.parseLong(value.substring(0, value.length() - 1)) * unit;
+  }
+
+  /** Formats a heap size in mebibytes, rounding up. */
+  static String format(long bytes) {
+    return ((bytes + MIB - 1) / MIB) + "m";
+  }
+
+  /**
+   * Records the peak heap usage of the current JVM after garbage collections, until closed.
+   *
+   * <p>The heap memory pools don't reach their peak usages at the same time, so summing them would
+   * overestimate the peak heap usage. The heap usage after garbage collections is combined across
+   * all pools by the JVM, and only accounts for live objects (and garbage in pools that haven't
+   * been collected). If no garbage collection happened, the current heap usage is used instead.
+   */
+  static final class PeakUsageRecorder implements NotificationListener, AutoCloseable {
+    private final Set<String> heapPools = new HashSet<>();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final AtomicLong peakUsageAfterGc = new AtomicLong(-1);
+
+    PeakUsageRecorder() {
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP) {
+          heapPools.add(pool.getName());
+        }
+      }
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        if (collector instanceof NotificationEmitter) {
+          NotificationEmitter emitter = (NotificationEmitter) collector;
+          emitter.addNotificationListener(this, null, null);
+          emitters.add(emitter);
+        }
+      }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+      if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+          notification.getType())) {
+        return;
+      }
+      GcInfo gcInfo =
+          GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData())
+              .getGcInfo();
+      long used = 0;
+      for (Map.Entry<String, MemoryUsage> entry : gcInfo.getMemoryUsageAfterGc().entrySet()) {
+        if (heapPools.contains(entry.getKey())) {
+          used += entry.getValue().getUsed();
+        }
+      }
+      peakUsageAfterGc.accumulateAndGet(used, Math::max);
+    }
+
+    /** Returns the peak heap usage after garbage collections, or the current heap usage. */
+    long getPeakUsage() {
+      long peakUsage = peakUsageAfterGc.get();
+      return peakUsage >= 0
+          ? peakUsage
+          : ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Override
+    public void close() {
+      for (NotificationEmitter emitter : emitters) {
+        try {
+          emitter.removeNotificationListener(this);
+        } catch (ListenerNotFoundException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns half the physical memory of the machine, if known, which is larger than the JVM's
+   * default max heap size (a quarter of the physical memory).
+   */
+  @Nullable
+  static Long getHalfPhysicalMemory() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize() / 2;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * The state of incremental code generations, kept between builds.
+ *
+ * <p>The state of a code generation records the signature of the {@linkplain SchemaSignatures
+ * schema} it's been generated from, and the files generated for each table. The next code
+ * generation only renders the tables whose signature changed, copying the files of the other tables
+ * from the output directory.
+ *
+ * <p>This is only valid if the output directory hasn't changed since, and the code would be
+ * generated the same (same configuration, same code generator); so the state also records a key
+ * computed from the configuration and classpath, and the files of the output directory (with their
+ * size and last modified time), and is discarded whenever either changes.
+ *
+ * <p>Workers write the state of the code generation to a pending file, that the task commits once
+ * it has updated the output directory.
+ */
+final class IncrementalGeneration {
+  private static final String GENERATION_FILE = "generation.txt";
+  private static final String PENDING_FILE = "pending.txt";
+  private static final String OUTPUTS_FILE = "outputs.txt";
+
+  /** Computes the key of a code generation, from everything else than the schema. */
+  static String key(File configurationFile, @Nullable String encoding, Iterable<File> classpath)
+      throws IOException {
+    StringBuilder files = new StringBuilder();
+    for (File file : classpath) {
+      appendFile(files, file);
+    }
+    // The plugin's generators render the code too
+    CodeSource codeSource = IncrementalGeneration.class.getProtectionDomain().getCodeSource();
+    if (codeSource != null && codeSource.getLocation() != null) {
+      try {
+        appendFile(files, Paths.get(codeSource.getLocation().toURI()).toFile());
+      } catch (URISyntaxException | IllegalArgumentException e) {
+        files.append(codeSource.getLocation()).append('\n');
+      }
+    }
+    return Hashes.sha256(
+        Files.readAllBytes(configurationFile.toPath()),
+        Hashes.bytes(encoding),
+        Hashes.bytes(files.toString()));
+  }
+
+  private static void appendFile(StringBuilder files, File file) {
+    files
+        .append(file.getAbsolutePath())
+        .append('\t')
+        .append(file.length())
+        .append('\t')
+        .append(file.lastModified())
+        .append('\n');
+  }
+
+  /**
+   * Discards the state of the previous code generation, unless it matches the given key and output
+   * directory.
+   *
+   * @return whether the state of the previous code generation is kept
+   */
+  static boolean prepare(Path stateDirectory, String key, Path outputDirectory) throws IOException {
+    Files.deleteIfExists(stateDirectory.resolve(PENDING_FILE));
+    List<String> outputs;
+    try {
+      outputs = Files.readAllLines(stateDirectory.resolve(OUTPUTS_FILE), StandardCharsets.UTF_8);
+    } catch (NoSuchFileException e) {
+      outputs = null;
+    }
+    if (outputs != null && outputs.equals(describeOutputs(key, outputDirectory))) {
+      return true;
+    }
+    Files.deleteIfExists(stateDirectory.resolve(OUTPUTS_FILE));
+    Files.deleteIfExists(stateDirectory.resolve(GENERATION_FILE));
+    return false;
+  }
+
+  /**
+   * Commits the pending state of the code generation, once the output directory has been updated,
+   * or discards the state if there's none.
+   */
+  static void commit(Path stateDirectory, String key, Path outputDirectory) throws IOException {
+    Path pending = stateDirectory.resolve(PENDING_FILE);
+    if (!Files.isRegularFile(pending)) {
+      Files.deleteIfExists(stateDirectory.resolve(OUTPUTS_FILE));
+      Files.deleteIfExists(stateDirectory.resolve(GENERATION_FILE));
+      return;
+    }
+    Files.move(
+        pending, stateDirectory.resolve(GENERATION_FILE), StandardCopyOption.REPLACE_EXISTING);
+    Files.write(
+        stateDirectory.resolve(OUTPUTS_FILE),
+        describeOutputs(key, outputDirectory),
+        StandardCharsets.UTF_8);
+  }
+
+  private static List<String> describeOutputs(String key, Path outputDirectory) throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add(key);
+    if (!Files.isDirectory(outputDirectory)) {
+      return lines;
+    }
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(outputDirectory)) {
+      files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      lines.add(
+          outputDirectory.relativize(file)
+              + "\t"
+              + Files.size(file)
+              + "\t"
+              + Files.getLastModifiedTime(file).toMillis());
+    }
+    return lines;
+  }
+
+  private final Path stateDirectory;
+  private final SchemaSignatures signatures;
+  private final Map<List<String>, String> previousTables = new HashMap<>();
+  private final Map<List<String>, Set<String>> previousFiles = new HashMap<>();
+  private final Set<List<String>> unchangedTables = new HashSet<>();
+  private boolean schemaChanged;
+
+  private IncrementalGeneration(Path stateDirectory, SchemaSignatures signatures) {
+    this.stateDirectory = stateDirectory;
+    this.signatures = signatures;
+  }
+
+  /**
+   * Loads the state of the previous code generation, if any, and determines the tables that didn't
+   * change since, given the snapshot of the schema to generate from.
+   */
+  static IncrementalGeneration load(Path stateDirectory, Path snapshot) throws IOException {
+    IncrementalGeneration generation =
+        new IncrementalGeneration(stateDirectory, SchemaSignatures.read(snapshot));
+    generation.loadPrevious();
+    return generation;
+  }
+
+  private void loadPrevious() throws IOException {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(stateDirectory.resolve(GENERATION_FILE), StandardCharsets.UTF_8);
+    } catch (NoSuchFileException e) {
+      return;
+    }
+    String previousGlobal = null;
+    for (String line : lines) {
+      String[] parts = line.split("\t", -1);
+      if (parts[0].equals("global") && parts.length == 2) {
+        previousGlobal = parts[1];
+      } else if (parts[0].equals("table") && parts.length == 5) {
+        previousTables.put(Arrays.asList(parts[1], parts[2], parts[3]), parts[4]);
+      } else if (parts[0].equals("file") && parts.length == 5) {
+        previousFiles
+            .computeIfAbsent(Arrays.asList(parts[1], parts[2], parts[3]), k -> new TreeSet<>())
+            .add(parts[4]);
+      }
+    }
+    schemaChanged = !signatures.getGlobal().equals(previousGlobal);
+    if (schemaChanged) {
+      return;
+    }
+    for (Map.Entry<List<String>, String> entry : previousTables.entrySet()) {
+      if (entry.getValue().equals(signatures.getTables().get(entry.getKey()))) {
+        unchangedTables.add(entry.getKey());
+      }
+    }
+  }
+
+  /** Whether there's a previous code generation, and its state could be used. */
+  boolean hasPrevious() {
+    return !previousTables.isEmpty() && !schemaChanged;
+  }
+
+  /** The tables that didn't change since the previous code generation. */
+  Set<List<String>> getUnchangedTables() {
+    return unchangedTables;
+  }
+
+  /**
+   * Completes the code generation, copying the files of the unchanged tables from the previous
+   * output directory, and writes the pending state.
+   *
+   * @param renderedFiles the files rendered for each (changed) table
+   */
+  void complete(
+      Map<List<String>, Set<String>> renderedFiles,
+      Path previousOutputDirectory,
+      Path targetDirectory)
+      throws IOException {
+    Map<List<String>, Set<String>> files = new LinkedHashMap<>(renderedFiles);
+    for (List<String> table : unchangedTables) {
+      Set<String> tableFiles = previousFiles.getOrDefault(table, new TreeSet<>());
+      for (String file : tableFiles) {
+        Path target = targetDirectory.resolve(file);
+        // Never overwrite a file rendered for another table
+        if (!Files.exists(target)) {
+          Files.createDirectories(target.getParent());
+          Files.copy(previousOutputDirectory.resolve(file), target);
+        }
+      }
+      files.put(table, tableFiles);
+    }
+
+    Files.createDirectories(stateDirectory);
+    try (Writer writer =
+        Files.newBufferedWriter(stateDirectory.resolve(PENDING_FILE), StandardCharsets.UTF_8)) {
+      writer.write("global\t" + signatures.getGlobal() + "\n");
+      for (Map.Entry<List<String>, Set<String>> entry : files.entrySet()) {
+        String signature = signatures.getTables().get(entry.getKey());
+        // Tables that can't be identified in the snapshot, or whose files can't be recorded, will
+        // always be rendered
+        if (signature == null
+            || entry.getKey().stream().anyMatch(IncrementalGeneration::isUnsafe)
+            || entry.getValue().stream().anyMatch(IncrementalGeneration::isUnsafe)) {
+          continue;
+        }
+        String table = String.join("\t", entry.getKey());
+        writer.write("table\t" + table + "\t" + signature + "\n");
+        for (String file : entry.getValue()) {
+          writer.write("file\t" + table + "\t" + file + "\n");
+        }
+      }
+    }
+  }
+
+  private static boolean isUnsafe(String value) {
+    return value.indexOf('\t') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+  }
+}
@@ -0,0 +1,584 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.jooq.Constants;
+import org.jooq.meta.jaxb.Configuration;
+import org.jooq.meta.jaxb.Database;
+import org.jooq.meta.jaxb.SchemaMappingType;
+import org.jooq.tools.StringUtils;
+import org.jooq.tools.jdbc.JDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the database metadata from the standard {@code INFORMATION_SCHEMA} views into a jOOQ {@code
+ * InformationSchema} XML file, as read by jOOQ's {@code XMLDatabase}.
+ *
+ * <p>Rather than jOOQ's database-specific readers, that issue many queries (some for each table)
+ * one after the other on a single connection, this issues a few set-based queries for each schema
+ * (tables, columns, constraints, etc.) in parallel over several connections, such that reading the
+ * metadata of high-latency databases depends on the amount of metadata rather than the number of
+ * round trips.
+ *
+ * <p>Only the objects described by the {@code INFORMATION_SCHEMA} views are read: schemas, tables
+ * and views, columns, primary, unique, foreign key, and check constraints, and sequences; along
+ * with indexes read through JDBC. Routines, user-defined types, and other vendor-specific objects
+ * are not read, and catalogs are ignored.
+ */
+final class InformationSchemaReader {
+  private static final Logger logger = LoggerFactory.getLogger(InformationSchemaReader.class);
+
+  /** System schemas, excluded when no input schema is configured. */
+  private static final Set<String> SYSTEM_SCHEMAS =
+      new HashSet<>(
+          Arrays.asList("information_schema", "pg_catalog", "mysql", "performance_schema", "sys"));
+
+  private static final Pattern SYSTEM_SCHEMA_PREFIX = Pattern.compile("^pg_(?:toast|temp)");
+
+  /** PostgreSQL reports NOT NULL constraints as check constraints. */
+  private static final Pattern NOT_NULL_CONSTRAINT = Pattern.compile("\\d+_\\d+_\\d+_not_null");
+
+  interface ConnectionFactory {
+    Connection open() throws SQLException;
+  }
+
+  private interface Query<T> {
+    T run(Connection connection) throws SQLException;
+  }
+
+  private final ConnectionFactory connectionFactory;
+  private final ExecutorService executor;
+  private final BlockingQueue<Connection> connections = new LinkedBlockingQueue<>();
+  private final List<Connection> openedConnections =
+      Collections.synchronizedList(new ArrayList<>());
+
+  private InformationSchemaReader(ConnectionFactory connectionFactory, int maxConnections) {
+    this.connectionFactory = connectionFactory;
+    this.executor = Executors.newFixedThreadPool(maxConnections);
+  }
+
+  /**
+   * Reads the database metadata of the input schemas of the given configuration (or all non-system
+   * schemas if none) into the given file, using up to the given number of connections concurrently.
+   *
+   * @return the SQL dialect of the database
+   */
+  static String read(
+      Configuration configuration,
+      ConnectionFactory connectionFactory,
+      int maxConnections,
+      Path informationSchema)
+      throws Exception {
+    InformationSchemaReader reader = new InformationSchemaReader(connectionFactory, maxConnections);
+    try {
+      return reader.read(getInputSchemas(configuration), informationSchema);
+    } finally {
+      reader.close();
+    }
+  }
+
+  private static List<String> getInputSchemas(Configuration configuration) {
+    List<String> schemas = new ArrayList<>();
+    Database database =
+        configuration.getGenerator() == null ? null : configuration.getGenerator().getDatabase();
+    if (database == null) {
+      return schemas;
+    }
+    if (!StringUtils.isBlank(database.getInputSchema())) {
+      schemas.add(database.getInputSchema().trim());
+    }
+    if (database.getSchemata() != null) {
+      for (SchemaMappingType schema : database.getSchemata()) {
+        if (!StringUtils.isBlank(schema.getInputSchema())) {
+          schemas.add(schema.getInputSchema().trim());
+        }
+      }
+    }
+    return schemas;
+  }
+
+  private String read(List<String> inputSchemas, Path informationSchema) throws Exception {
+    Future<String> dialect = submit(connection -> JDBCUtils.dialect(connection).name());
+    List<String> schemas = inputSchemas;
+    if (schemas.isEmpty()) {
+      schemas = new ArrayList<>();
+      for (Map<String, String> row :
+          get(submit(connection -> query(connection, "SCHEMATA", null, null)))) {
+        String schema = row.get("schema_name");
+        if (schema != null
+            && !SYSTEM_SCHEMAS.contains(schema.toLowerCase(Locale.ROOT))
+            && !SYSTEM_SCHEMA_PREFIX.matcher(schema.toLowerCase(Locale.ROOT)).find()) {
+          schemas.add(schema);
+        }
+      }
+    }
+    logger.info("Reading metadata of schemas {} from INFORMATION_SCHEMA", schemas);
+
+    List<Future<List<Map<String, String>>>> tables = new ArrayList<>();
+    List<Future<List<Map<String, String>>>> columns = new ArrayList<>();
+    List<Future<List<Map<String, String>>>> tableConstraints = new ArrayList<>();
+    List<Future<List<Map<String, String>>>> keyColumnUsages = new ArrayList<>();
+    List<Future<List<Map<String, String>>>> referentialConstraints = new ArrayList<>();
+    List<Future<List<Map<String, String>>>> checkConstraints = new ArrayList<>();
+    List<Future<List<Map<String, String>>>> sequences = new ArrayList<>();
+    List<Future<List<Map<String, String>>>> indexes = new ArrayList<>();
+    for (String schema : schemas) {
+      tables.add(submit(connection -> query(connection, "TABLES", "TABLE_SCHEMA", schema)));
+      columns.add(submit(connection -> query(connection, "COLUMNS", "TABLE_SCHEMA", schema)));
+      tableConstraints.add(
+          submit(connection -> query(connection, "TABLE_CONSTRAINTS", "TABLE_SCHEMA", schema)));
+      keyColumnUsages.add(
+          submit(connection -> query(connection, "KEY_COLUMN_USAGE", "TABLE_SCHEMA", schema)));
+      referentialConstraints.add(
+          submit(
+              connection ->
+                  query(connection, "REFERENTIAL_CONSTRAINTS", "CONSTRAINT_SCHEMA", schema)));
+      checkConstraints.add(
+          submit(
+              optional(
+                  connection -> query(connection, "CHECK_CONSTRAINTS", "CONSTRAINT_SCHEMA", schema),
+                  "check constraints")));
+      sequences.add(
+          submit(
+              optional(
+                  connection -> query(connection, "SEQUENCES", "SEQUENCE_SCHEMA", schema),
+                  "sequences")));
+      indexes.add(submit(optional(connection -> queryIndexes(connection, schema), "indexes")));
+    }
+
+    List<Map<String, String>> tableConstraintRows =
+        sorted(getAll(tableConstraints), "table_schema", "table_name", "constraint_name");
+    tableConstraintRows.removeIf(
+        row -> NOT_NULL_CONSTRAINT.matcher(String.valueOf(row.get("constraint_name"))).matches());
+    Set<String> constraintNames = new HashSet<>();
+    for (Map<String, String> row : tableConstraintRows) {
+      constraintNames.add(row.get("table_schema") + "." + row.get("constraint_name"));
+    }
+
+    Files.createDirectories(informationSchema.toAbsolutePath().getParent());
+    try (OutputStream out = Files.newOutputStream(informationSchema)) {
+      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+      writer.writeStartDocument("UTF-8", "1.0");
+      writer.writeStartElement("information_schema");
+      writer.writeDefaultNamespace(Constants.NS_META);
+
+      writer.writeStartElement("schemata");
+      for (String schema : schemas) {
+        writer.writeStartElement("schema");
+        element(writer, "schema_name", schema);
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("sequences");
+      for (Map<String, String> row :
+          sorted(getAll(sequences), "sequence_schema", "sequence_name")) {
+        writer.writeStartElement("sequence");
+        element(writer, "sequence_schema", row.get("sequence_schema"));
+        element(writer, "sequence_name", row.get("sequence_name"));
+        element(writer, "data_type", row.get("data_type"));
+        element(writer, "numeric_precision", integer(row.get("numeric_precision")));
+        element(writer, "numeric_scale", integer(row.get("numeric_scale")));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("tables");
+      for (Map<String, String> row : sorted(getAll(tables), "table_schema", "table_name")) {
+        writer.writeStartElement("table");
+        element(writer, "table_schema", row.get("table_schema"));
+        element(writer, "table_name", row.get("table_name"));
+        element(writer, "table_type", tableType(row.get("table_type")));
+        element(writer, "comment", row.get("remarks"));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("columns");
+      for (Map<String, String> row :
+          sorted(getAll(columns), "table_schema", "table_name", "#ordinal_position")) {
+        writer.writeStartElement("column");
+        element(writer, "table_schema", row.get("table_schema"));
+        element(writer, "table_name", row.get("table_name"));
+        element(writer, "column_name", row.get("column_name"));
+        element(writer, "data_type", dataType(row));
+        element(writer, "character_maximum_length", integer(row.get("character_maximum_length")));
+        element(writer, "numeric_precision", integer(row.get("numeric_precision")));
+        element(writer, "numeric_scale", integer(row.get("numeric_scale")));
+        element(writer, "ordinal_position", integer(row.get("ordinal_position")));
+        element(writer, "identity_generation", identityGeneration(row));
+        element(writer, "is_nullable", String.valueOf(!"NO".equals(row.get("is_nullable"))));
+        element(writer, "column_default", row.get("column_default"));
+        element(writer, "comment", row.get("remarks"));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("table_constraints");
+      for (Map<String, String> row : tableConstraintRows) {
+        writer.writeStartElement("table_constraint");
+        element(writer, "constraint_schema", row.get("constraint_schema"));
+        element(writer, "constraint_name", row.get("constraint_name"));
+        element(writer, "constraint_type", row.get("constraint_type"));
+        element(writer, "table_schema", row.get("table_schema"));
+        element(writer, "table_name", row.get("table_name"));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("key_column_usages");
+      for (Map<String, String> row :
+          sorted(
+              getAll(keyColumnUsages),
+              "table_schema",
+              "table_name",
+              "constraint_name",
+              "#ordinal_position")) {
+        writer.writeStartElement("key_column_usage");
+        element(writer, "constraint_schema", row.get("constraint_schema"));
+        element(writer, "constraint_name", row.get("constraint_name"));
+        element(writer, "table_schema", row.get("table_schema"));
+        element(writer, "table_name", row.get("table_name"));
+        element(writer, "column_name", row.get("column_name"));
+        element(writer, "ordinal_position", integer(row.get("ordinal_position")));
+        element(
+            writer,
+            "position_in_unique_constraint",
+            integer(row.get("position_in_unique_constraint")));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("referential_constraints");
+      for (Map<String, String> row :
+          sorted(getAll(referentialConstraints), "constraint_schema", "constraint_name")) {
+        writer.writeStartElement("referential_constraint");
+        element(writer, "constraint_schema", row.get("constraint_schema"));
+        element(writer, "constraint_name", row.get("constraint_name"));
+        element(writer, "unique_constraint_schema", row.get("unique_constraint_schema"));
+        element(writer, "unique_constraint_name", row.get("unique_constraint_name"));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("check_constraints");
+      for (Map<String, String> row :
+          sorted(getAll(checkConstraints), "constraint_schema", "constraint_name")) {
+        // Only those of the tables, e.g. not those of domains
+        if (!constraintNames.contains(
+            row.get("constraint_schema") + "." + row.get("constraint_name"))) {
+          continue;
+        }
+        writer.writeStartElement("check_constraint");
+        element(writer, "constraint_schema", row.get("constraint_schema"));
+        element(writer, "constraint_name", row.get("constraint_name"));
+        element(writer, "check_clause", row.get("check_clause"));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      List<Map<String, String>> indexRows =
+          sorted(getAll(indexes), "table_schem", "table_name", "index_name", "#ordinal_position");
+      indexRows.removeIf(
+          row ->
+              row.get("index_name") == null
+                  || row.get("column_name") == null
+                  // Indexes backing constraints
+                  || constraintNames.contains(
+                      row.get("table_schem") + "." + row.get("index_name")));
+      writer.writeStartElement("indexes");
+      Set<String> writtenIndexes = new HashSet<>();
+      for (Map<String, String> row : indexRows) {
+        if (!writtenIndexes.add(row.get("table_schem") + "." + row.get("index_name"))) {
+          continue;
+        }
+        writer.writeStartElement("index");
+        element(writer, "index_schema", row.get("table_schem"));
+        element(writer, "index_name", row.get("index_name"));
+        element(writer, "table_schema", row.get("table_schem"));
+        element(writer, "table_name", row.get("table_name"));
+        element(writer, "is_unique", String.valueOf(!isTrue(row.get("non_unique"))));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("index_column_usages");
+      for (Map<String, String> row : indexRows) {
+        writer.writeStartElement("index_column_usage");
+        element(writer, "index_schema", row.get("table_schem"));
+        element(writer, "index_name", row.get("index_name"));
+        element(writer, "table_schema", row.get("table_schem"));
+        element(writer, "table_name", row.get("table_name"));
+        element(writer, "column_name", row.get("column_name"));
+        element(writer, "ordinal_position", integer(row.get("ordinal_position")));
+        element(writer, "is_descending", String.valueOf("D".equals(row.get("asc_or_desc"))));
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+
+      writer.writeEndElement();
+      writer.writeEndDocument();
+      writer.close();
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+    return get(dialect);
+  }
+
+  /**
+   * Runs the query on one of the connections, opening a new one if none is available (there are
+   * never more connections than threads).
+   */
+  private <T> Future<T> submit(Query<T> query) {
+    return executor.submit(
+        () -> {
+          Connection connection = connections.poll();
+          if (connection == null) {
+            connection = connectionFactory.open();
+            openedConnections.add(connection);
+          }
+          try {
+            return query.run(connection);
+          } finally {
+            connections.add(connection);
+          }
+        });
+  }
+
+  private static List<Map<String, String>> query(
+      Connection connection, String view, @Nullable String schemaColumn, @Nullable String schema)
+      throws SQLException {
+    String sql = "SELECT * FROM INFORMATION_SCHEMA." + view;
+    if (schemaColumn != null) {
+      sql += " WHERE " + schemaColumn + " = ?";
+    }
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      if (schemaColumn != null) {
+        statement.setString(1, schema);
+      }
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return rows(resultSet);
+      }
+    }
+  }
+
+  private static List<Map<String, String>> queryIndexes(Connection connection, String schema)
+      throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+    try (ResultSet resultSet =
+        metaData.getIndexInfo(connection.getCatalog(), schema, null, false, true)) {
+      List<Map<String, String>> rows = rows(resultSet);
+      rows.removeIf(
+          row -> String.valueOf(DatabaseMetaData.tableIndexStatistic).equals(row.get("type")));
+      return rows;
+    }
+  }
+
+  /** Returns a query that ignores failures, for metadata that not all databases expose. */
+  private static Query<List<Map<String, String>>> optional(
+      Query<List<Map<String, String>>> query, String what) {
+    return connection -> {
+      try {
+        return query.run(connection);
+      } catch (SQLException e) {
+        logger.info("Cannot read {}, ignoring them: {}", what, e.toString());
+        return Collections.emptyList();
+      }
+    };
+  }
+
+  /** Returns the rows, as maps of lower-case column labels to values. */
+  private static List<Map<String, String>> rows(ResultSet resultSet) throws SQLException {
+    ResultSetMetaData metaData = resultSet.getMetaData();
+    String[] labels = new String[metaData.getColumnCount()];
+    for (int i = 0; i < labels.length; i++) {
+      labels[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+    }
+    List<Map<String, String>> rows = new ArrayList<>();
+    while (resultSet.next()) {
+      Map<String, String> row = new HashMap<>();
+      for (int i = 0; i < labels.length; i++) {
+        row.put(labels[i], resultSet.getString(i + 1));
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  private static <T> T get(Future<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static List<Map<String, String>> getAll(List<Future<List<Map<String, String>>>> futures)
+      throws Exception {
+    List<Map<String, String>> rows = new ArrayList<>();
+    for (Future<List<Map<String, String>>> future : futures) {
+      rows.addAll(get(future));
+    }
+    return rows;
+  }
+
+  /** Sorts the rows by the given columns, numerically for those prefixed with {@code #}. */
+  private static List<Map<String, String>> sorted(
+      List<Map<String, String>> rows, String... columns) {
+    Comparator<Map<String, String>> comparator = null;
+    for (String column : columns) {
+      Comparator<Map<String, String>> byColumn;
+      if (column.startsWith("#")) {
+        String name = column.substring(1);
+        byColumn =
+            Comparator.comparingLong(
+                row -> {
+                  String value = integer(row.get(name));
+                  return value == null ? Long.MAX_VALUE : Long.parseLong(value);
+                });
+      } else {
+        byColumn =
+            Comparator.comparing(
+                row -> row.get(column), Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+      }
+      comparator = comparator == null ? byColumn : comparator.thenComparing(byColumn);
+    }
+    if (comparator != null) {
+      rows.sort(comparator);
+    }
+    return rows;
+  }
+
+  private static void element(XMLStreamWriter writer, String name, @Nullable String value)
+      throws XMLStreamException {
+    if (value != null) {
+      writer.writeStartElement(name);
+      writer.writeCharacters(value);
+      writer.writeEndElement();
+    }
+  }
+
+  /** Returns the value if it's an integer in the range of jOOQ's {@code int} elements. */
+  @Nullable
+  private static String integer(@Nullable String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return String.valueOf(Integer.parseInt(value.trim()));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static boolean isTrue(@Nullable String value) {
+    return "true".equalsIgnoreCase(value) || "1".equals(value) || "YES".equalsIgnoreCase(value);
+  }
+
+  private static String tableType(@Nullable String tableType) {
+    if (tableType == null) {
+      return "BASE TABLE";
+    }
+    switch (tableType.toUpperCase(Locale.ROOT)) {
+      case "VIEW":
+      case "MATERIALIZED VIEW":
+      case "GLOBAL TEMPORARY":
+      case "LOCAL TEMPORARY":
+        return tableType.toUpperCase(Locale.ROOT);
+      default:
+        return "BASE TABLE";
+    }
+  }
+
+  @Nullable
+  private static String dataType(Map<String, String> row) {
+    String dataType = row.get("data_type");
+    // PostgreSQL reports the actual name of user-defined and array types separately
+    if (("USER-DEFINED".equals(dataType) || "ARRAY".equals(dataType))
+        && row.get("udt_name") != null) {
+      return row.get("udt_name");
+    }
+    return dataType;
+  }
+
+  @Nullable
+  private static String identityGeneration(Map<String, String> row) {
+    if (isTrue(row.get("is_identity"))) {
+      String identityGeneration = row.get("identity_generation");
+      return identityGeneration == null ? "BY DEFAULT" : identityGeneration;
+    }
+    // PostgreSQL serial columns
+    String columnDefault = row.get("column_default");
+    if (columnDefault != null && columnDefault.startsWith("nextval(")) {
+      return "BY DEFAULT";
+    }
+    return null;
+  }
+
+  private void close() throws SQLException {
+    executor.shutdownNow();
+    SQLException failure = null;
+    for (Connection connection : openedConnections) {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * A pool of database connections, shared by all code generations running with the same class loader
+ * (i.e. same classpath) in the same JVM.
+ *
+ * <p>Gradle creates a class loader for each work action running in-process, so the pool is only
+ * effective in forked worker processes, that run all work actions with the same classpath with the
+ * same class loader.
+ *
+ * <p>Connections are only reused within a build, as identified by the {@link
+ * JdbcConnectionPoolService}; connections from a previous build are closed as soon as a connection
+ * is leased for a new build. Idle connections are also closed after {@link #IDLE_TIMEOUT_MILLIS}.
+ *
+ * <p>The session state of the connections (auto-commit, read-only, transaction isolation, catalog,
+ * and schema) is restored when they're returned to the pool; connections whose state cannot be
+ * restored are closed.
+ */
+final class JdbcConnectionPool {
+  private JdbcConnectionPool() {}
+
+  static final long IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  // [driver, url, user, password, properties] -> idle connections, most recently used first
+  private static final Map<List<Object>, Deque<IdleConnection>> idleConnections = new HashMap<>();
+  @Nullable private static String currentBuildId;
+  @Nullable private static Timer evictionTimer;
+
+  /**
+   * Leases a connection, reusing an idle one for the same build, driver, URL, credentials, and
+   * driver properties if any.
+   */
+  static Lease lease(
+      String buildId,
+      @Nullable String driverClassName,
+      String url,
+      @Nullable String user,
+      @Nullable String password,
+      Properties driverProperties,
+      long connectTimeoutMillis)
+      throws SQLException {
+    List<Object> key =
+        Arrays.asList(driverClassName, url, user, password, new HashMap<>(driverProperties));
+    for (IdleConnection idle = take(buildId, key); idle != null; idle = take(buildId, key)) {
+      if (isValid(idle.connection)) {
+        return new Lease(buildId, key, idle.connection, idle.state, true);
+      }
+      closeQuietly(idle.connection);
+    }
+    Connection connection =
+        JdbcConnections.open(
+            driverClassName, url, user, password, driverProperties, connectTimeoutMillis);
+    return new Lease(buildId, key, connection, SessionState.capture(connection), false);
+  }
+
+  @Nullable
+  private static synchronized IdleConnection take(String buildId, List<Object> key) {
+    if (!buildId.equals(currentBuildId)) {
+      closeAll();
+      currentBuildId = buildId;
+    }
+    Deque<IdleConnection> idle = idleConnections.get(key);
+    return idle == null ? null : idle.pollFirst();
+  }
+
+  private static synchronized void release(
+      String buildId, List<Object> key, Connection connection, SessionState state) {
+    if (!buildId.equals(currentBuildId)) {
+      closeQuietly(connection);
+      return;
+    }
+    idleConnections
+        .computeIfAbsent(key, k -> new ArrayDeque<>())
+        .addFirst(new IdleConnection(connection, state, System.nanoTime()));
+    if (evictionTimer == null) {
+      // Don't let the timer thread inherit the context class loader of the work action
+      Thread currentThread = Thread.currentThread();
+      ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+      currentThread.setContextClassLoader(null);
+      try {
+        evictionTimer = new Timer("jooq-connection-pool-eviction", true);
+      } finally {
+        currentThread.setContextClassLoader(contextClassLoader);
+      }
+      evictionTimer.schedule(
+          new TimerTask() {
+            @Override
+            public void run() {
+              evictIdleConnections();
+            }
+          },
+          IDLE_TIMEOUT_MILLIS / 2,
+          IDLE_TIMEOUT_MILLIS / 2);
+    }
+  }
+
+  private static synchronized void evictIdleConnections() {
+    long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_MILLIS);
+    for (Iterator<Deque<IdleConnection>> it = idleConnections.values().iterator(); it.hasNext(); ) {
+      Deque<IdleConnection> idle = it.next();
+      // Least recently used connections are last
+      while (!idle.isEmpty() && idle.peekLast().idleSince - deadline <= 0) {
+        closeQuietly(idle.pollLast().connection);
+      }
+      if (idle.isEmpty()) {
+        it.remove();
+      }
+    }
+    if (idleConnections.isEmpty() && evictionTimer != null) {
+      // Don't keep a thread (and the class loader) alive for nothing
+      evictionTimer.cancel();
+      evictionTimer = null;
+    }
+  }
+
+  private static void closeAll() {
+    for (Deque<IdleConnection> idle : idleConnections.values()) {
+      for (IdleConnection connection : idle) {
+        closeQuietly(connection.connection);
+      }
+    }
+    idleConnections.clear();
+  }
+
+  /** Returns the number of idle connections, for tests. */
+  static synchronized int getIdleConnectionCount() {
+    int count = 0;
+    for (Deque<IdleConnection> idle : idleConnections.values()) {
+      count += idle.size();
+    }
+    return count;
+  }
+
+  private static boolean isValid(Connection connection) {
+    try {
+      return connection.isValid(5);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  /** A leased connection, returned to the pool when closed. */
+  static final class Lease implements AutoCloseable {
+    private final String buildId;
+    private final List<Object> key;
+    private final Connection connection;
+    // null if the session state could not be captured, and the connection won't be pooled
+    @Nullable private final SessionState state;
+    private final boolean reused;
+
+    private Lease(
+        String buildId,
+        List<Object> key,
+        Connection connection,
+        @Nullable SessionState state,
+        boolean reused) {
+      this.buildId = buildId;
+      this.key = key;
+      this.connection = connection;
+      this.state = state;
+      this.reused = reused;
+    }
+
+    Connection getConnection() {
+      return connection;
+    }
+
+    /** Returns whether the connection was reused from the pool, rather than newly opened. */
+    boolean isReused() {
+      return reused;
+    }
+
+    @Override
+    public void close() {
+      if (state == null || !state.restore(connection)) {
+        closeQuietly(connection);
+        return;
+      }
+      release(buildId, key, connection, state);
+    }
+  }
+
+  /** The session state of a connection, as initially opened. */
+  static final class SessionState {
+    private final boolean autoCommit;
+    private final boolean readOnly;
+    private final int transactionIsolation;
+    @Nullable private final String catalog;
+    @Nullable private final String schema;
+
+    private SessionState(
+        boolean autoCommit,
+        boolean readOnly,
+        int transactionIsolation,
+        @Nullable String catalog,
+        @Nullable String schema) {
+      this.autoCommit = autoCommit;
+      this.readOnly = readOnly;
+      this.transactionIsolation = transactionIsolation;
+      this.catalog = catalog;
+      this.schema = schema;
+    }
+
+    /** Captures the session state of the connection, or returns null if that's not possible. */
+    @Nullable
+    static SessionState capture(Connection connection) {
+      try {
+        return new SessionState(
+            connection.getAutoCommit(),
+            connection.isReadOnly(),
+            connection.getTransactionIsolation(),
+            connection.getCatalog(),
+            connection.getSchema());
+      } catch (SQLException | AbstractMethodError e) {
+        // Pre-JDBC 4.1 drivers don't implement getSchema()
+        return null;
+      }
+    }
+
+    /**
+     * Rolls back any pending transaction, and restores the session state of the connection.
+     *
+     * @return whether the connection is still usable, with its session state restored
+     */
+    boolean restore(Connection connection) {
+      try {
+        if (connection.isClosed()) {
+          return false;
+        }
+        if (!connection.getAutoCommit()) {
+          connection.rollback();
+        }
+        if (connection.getAutoCommit() != autoCommit) {
+          connection.setAutoCommit(autoCommit);
+        }
+        if (connection.isReadOnly() != readOnly) {
+          connection.setReadOnly(readOnly);
+        }
+        if (connection.getTransactionIsolation() != transactionIsolation) {
+          connection.setTransactionIsolation(transactionIsolation);
+        }
+        if (!Objects.equals(connection.getCatalog(), catalog)) {
+          if (catalog == null) {
+            return false;
+          }
+          connection.setCatalog(catalog);
+        }
+        if (!Objects.equals(connection.getSchema(), schema)) {
+          if (schema == null) {
+            return false;
+          }
+          connection.setSchema(schema);
+        }
+        connection.clearWarnings();
+        return true;
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+  }
+
+  private static final class IdleConnection {
+    final Connection connection;
+    final SessionState state;
+    final long idleSince;
+
+    IdleConnection(Connection connection, SessionState state, long idleSince) {
+      this.connection = connection;
+      this.state = state;
+      this.idleSince = idleSince;
+    }
+  }
+}
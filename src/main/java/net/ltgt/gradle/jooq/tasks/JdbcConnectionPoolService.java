@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.util.UUID;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Scopes the reuse of database connections by the code generators to a single build.
+ *
+ * <p>Connections are opened by the code generators with the JDBC driver from their classpath, so
+ * they're pooled within the code generator's class loader (shared by all code generations with the
+ * same classpath running in the Gradle daemon) or forked worker process. The pool is keyed by the
+ * {@linkplain #getBuildId() build identifier} such that connections are never reused across builds:
+ * connections left idle from a previous build are closed at the start of the next one, or after a
+ * short idle timeout.
+ *
+ * <p>The build identifier similarly scopes the {@linkplain JooqCodegen#getShareMetadata() shared
+ * database metadata}.
+ */
+public abstract class JdbcConnectionPoolService
+    implements BuildService<BuildServiceParameters.None> {
+  private final String buildId = UUID.randomUUID().toString();
+
+  /** Returns an identifier unique to the current build. */
+  public String getBuildId() {
+    return buildId;
+  }
+}
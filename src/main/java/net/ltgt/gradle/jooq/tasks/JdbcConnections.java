@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+import org.jooq.tools.StringUtils;
+
+final class JdbcConnections {
+  private JdbcConnections() {}
+
+  // The work actions currently running with this class loader
+  private static int runningWorkActions;
+
+  /**
+   * Records that a work action starts running with this class loader, and may load JDBC drivers.
+   *
+   * <p>Must be followed by a call to {@link #endWork()} when the work action completes.
+   */
+  static synchronized void beginWork() {
+    runningWorkActions++;
+  }
+
+  /**
+   * Records that a work action completed, deregistering the JDBC drivers loaded by this class
+   * loader when no other work action is running with it.
+   *
+   * <p>Most drivers register themselves with {@link DriverManager} when loaded, which would keep
+   * the worker's class loader (and all the classes it loaded) alive after the build, leaking
+   * metaspace in the Gradle daemon. The drivers are never used through the {@link DriverManager}
+   * anyway (see {@link #open(String, String, String, String)}).
+   */
+  static synchronized void endWork() {
+    if (--runningWorkActions > 0) {
+      return;
+    }
+    ClassLoader classLoader = JdbcConnections.class.getClassLoader();
+    for (Driver driver : Collections.list(DriverManager.getDrivers())) {
+      if (Objects.equals(driver.getClass().getClassLoader(), classLoader)) {
+        try {
+          DriverManager.deregisterDriver(driver);
+        } catch (SQLException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /**
+   * Opens a connection to the database.
+   *
+   * <p>{@link DriverManager} only knows about the drivers visible to the class loader it's been
+   * initialized with, so this method looks up the driver in the worker's class loader instead.
+   */
+  static Connection open(
+      @Nullable String driverClassName,
+      String url,
+      @Nullable String user,
+      @Nullable String password)
+      throws SQLException {
+    return open(driverClassName, url, user, password, new Properties(), 0);
+  }
+
+  /**
+   * Opens a connection to the database, with additional driver properties, failing if it takes
+   * longer than the given timeout (if greater than zero).
+   *
+   * <p>Not all drivers support a login timeout, so the connection is opened in another thread, and
+   * closed if it's eventually opened after the timeout.
+   */
+  static Connection open(
+      @Nullable String driverClassName,
+      String url,
+      @Nullable String user,
+      @Nullable String password,
+      Properties driverProperties,
+      long connectTimeoutMillis)
+      throws SQLException {
+    Driver driver = findDriver(driverClassName, url);
+    Properties properties = new Properties();
+    properties.putAll(driverProperties);
+    if (user != null) {
+      properties.setProperty("user", user);
+    }
+    if (password != null) {
+      properties.setProperty("password", password);
+    }
+    if (connectTimeoutMillis <= 0) {
+      return connect(driver, url, properties);
+    }
+    CompletableFuture<Connection> future = new CompletableFuture<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                Connection connection = connect(driver, url, properties);
+                if (!future.complete(connection)) {
+                  closeQuietly(connection);
+                }
+              } catch (Throwable t) {
+                future.completeExceptionally(t);
+              }
+            },
+            "jooq-connect");
+    thread.setDaemon(true);
+    thread.start();
+    SQLException failure;
+    try {
+      return future.get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      }
+      throw new SQLException("Cannot connect to " + url, e.getCause());
+    } catch (TimeoutException e) {
+      failure =
+          new SQLTimeoutException(
+              "Cannot connect to " + url + " within " + connectTimeoutMillis + " ms");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure = new SQLException("Interrupted while connecting to " + url, e);
+    }
+    if (!future.completeExceptionally(failure) && !future.isCompletedExceptionally()) {
+      // The connection has been opened in the meantime
+      return future.join();
+    }
+    thread.interrupt();
+    throw failure;
+  }
+
+  private static Connection connect(Driver driver, String url, Properties properties)
+      throws SQLException {
+    Connection connection = driver.connect(url, properties);
+    if (connection == null) {
+      throw new SQLException("Driver " + driver.getClass().getName() + " rejected URL " + url);
+    }
+    return connection;
+  }
+
+  private static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  private static Driver findDriver(@Nullable String driverClassName, String url)
+      throws SQLException {
+    ClassLoader classLoader = JdbcConnections.class.getClassLoader();
+    if (!StringUtils.isBlank(driverClassName)) {
+      try {
+        return Class.forName(driverClassName, true, classLoader)
+            .asSubclass(Driver.class)
+            .getDeclaredConstructor()
+            .newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new SQLException("Cannot load JDBC driver " + driverClassName, e);
+      }
+    }
+    for (Driver driver : ServiceLoader.load(Driver.class, classLoader)) {
+      if (driver.acceptsURL(url)) {
+        return driver;
+      }
+    }
+    throw new SQLException("No suitable JDBC driver found in the classpath for " + url);
+  }
+}
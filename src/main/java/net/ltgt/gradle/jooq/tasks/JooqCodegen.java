@@ -15,32 +15,76 @@
  */
 package net.ltgt.gradle.jooq.tasks;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.inject.Inject;
+import org.gradle.api.Action;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileSystemOperations;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.LocalState;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectories;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
-import org.gradle.api.tasks.UntrackedTask;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.api.tasks.options.Option;
 import org.gradle.jvm.toolchain.JavaLauncher;
-import org.gradle.workers.WorkQueue;
 import org.gradle.workers.WorkerExecutor;
 
-@UntrackedTask(because = "Depends on the database")
-public abstract class JooqCodegen extends DefaultTask {
+/**
+ * Generates code from a database schema using jOOQ.
+ *
+ * <p>As the generated code depends on the database, the task is never considered up-to-date, nor
+ * loaded from the build cache, unless a {@linkplain #getSchemaFingerprint() schema fingerprint} is
+ * configured, or the code is generated from a {@linkplain #getSnapshotFile() schema snapshot} or
+ * {@linkplain #getMigrations() migration scripts}.
+ *
+ * <p>The database connection properties ({@linkplain #getUrl() url}, {@linkplain #getUser() user},
+ * and {@linkplain #getPassword() password}) are not considered as inputs: the schema fingerprint
+ * identifies the schema whichever the database it's been read from.
+ */
+@CacheableTask
+public abstract class JooqCodegen extends DefaultTask implements CodegenSpec {
+
+  @SuppressWarnings("this-escape")
+  public JooqCodegen() {
+    getShardBySchema().convention(false);
+    getMigrationsDatabaseUrl().convention("jdbc:h2:mem:");
+    getMetadataCacheSize().convention(10);
+    getPoolConnections().convention(false);
+    getAdaptiveHeapSize().convention(false);
+    getParallelGeneration().convention(false);
+    getShareMetadata().convention(false);
+    getIncrementalGeneration().convention(false);
+    getExecutions().configureEach(execution -> execution.getEncoding().convention(getEncoding()));
+    getOutputs().upToDateWhen(task -> CodegenRunner.hasSchemaIdentity((JooqCodegen) task));
+    getOutputs()
+        .cacheIf(
+            "A schema fingerprint, snapshot, or migrations are configured",
+            task -> CodegenRunner.hasSchemaIdentity((JooqCodegen) task));
+  }
 
   @Inject
   protected abstract WorkerExecutor getWorkerExecutor();
@@ -48,12 +92,16 @@ public abstract class JooqCodegen extends DefaultTask {
   @Inject
   protected abstract FileSystemOperations getFileSystemOperations();
 
+  @Inject
+  protected abstract ProviderFactory getProviderFactory();
+
   /**
    * The classpath for executing the jOOQ code generator.
    *
    * <p>Defaults to the {@code jooqCodegenClasspath} configuration, itself extending the {@code
    * jooqCodegen} configuration.
    */
+  @Override
   @Classpath
   public abstract ConfigurableFileCollection getClasspath();
 
@@ -63,7 +111,8 @@ public abstract class JooqCodegen extends DefaultTask {
    * <p>This will override any {@code jdbc.url} set in the {@linkplain #getConfigurationFile()
    * configuration file}.
    */
-  @Input
+  @Override
+  @Internal
   @Option(option = "url", description = "Configures the database JDBC URL")
   public abstract Property<String> getUrl();
 
@@ -73,8 +122,8 @@ public abstract class JooqCodegen extends DefaultTask {
    * <p>This will override any {@code jdbc.user} set in the {@linkplain #getConfigurationFile()
    * configuration file}.
    */
-  @Input
-  @Optional
+  @Override
+  @Internal
   @Option(option = "user", description = "Configures the database user")
   public abstract Property<String> getUser();
 
@@ -84,8 +133,8 @@ public abstract class JooqCodegen extends DefaultTask {
    * <p>This will override any {@code jdbc.password} set in the {@linkplain #getConfigurationFile()
    * configuration file}.
    */
-  @Input
-  @Optional
+  @Override
+  @Internal
   @Option(option = "password", description = "Configures the database password")
   public abstract Property<String> getPassword();
 
@@ -102,6 +151,7 @@ public abstract class JooqCodegen extends DefaultTask {
    *
    * <p>If not configured, it will default to jOOQ's default encoding, which is UTF-8.
    */
+  @Override
   @Input
   @Optional
   public abstract Property<String> getEncoding();
@@ -111,7 +161,9 @@ public abstract class JooqCodegen extends DefaultTask {
    *
    * <p>When the {@code java} plugin is applied, it defaults to {@code src/jooq-codegen.xml}.
    */
+  @Override
   @InputFile
+  @Optional
   @PathSensitive(PathSensitivity.NONE)
   public abstract RegularFileProperty getConfigurationFile();
 
@@ -121,11 +173,58 @@ public abstract class JooqCodegen extends DefaultTask {
    * <p>This will override any {@code generator.target.directory} set in the {@linkplain
    * #getConfigurationFile() configuration file}.
    *
+   * <p>Code is first generated into a temporary directory, and the output directory is then only
+   * updated if generation succeeds: files whose content changed are updated, stale files are
+   * deleted, and other files are left untouched (preserving their timestamp).
+   *
    * <p>When the {@code java} plugin is applied, it defaults to {@code src/main/jooq}.
    */
   @OutputDirectory
+  @Optional
   public abstract DirectoryProperty getOutputDirectory();
 
+  /**
+   * Additional code generations, each with its own configuration file and output directory.
+   *
+   * <p>All code generations of the task run in parallel (up to the {@code org.gradle.workers.max}
+   * limit).
+   *
+   * <p>When only executions are used, the task's {@linkplain #getConfigurationFile() configuration
+   * file} and {@linkplain #getOutputDirectory() output directory} need to have no value, e.g. by
+   * setting their convention to {@code null}.
+   *
+   * @see #execution(String, Action)
+   */
+  @Override
+  @Nested
+  public abstract NamedDomainObjectContainer<JooqCodegenExecution> getExecutions();
+
+  /** Configures the execution with the given name, creating it if necessary. */
+  public void execution(String name, Action<? super JooqCodegenExecution> action) {
+    action.execute(getExecutions().maybeCreate(name));
+  }
+
+  /**
+   * The output directories of the {@linkplain #getExecutions() executions}, by name.
+   *
+   * <p>Executions without an output directory are ignored here, and fail the task when it runs.
+   */
+  @OutputDirectories
+  public Provider<Map<String, File>> getExecutionOutputDirectories() {
+    return getProviderFactory()
+        .provider(
+            () -> {
+              Map<String, File> outputDirectories = new LinkedHashMap<>();
+              for (JooqCodegenExecution execution : getExecutions()) {
+                if (execution.getOutputDirectory().isPresent()) {
+                  outputDirectories.put(
+                      execution.getName(), execution.getOutputDirectory().get().getAsFile());
+                }
+              }
+              return outputDirectories;
+            });
+  }
+
   /**
    * Configures the java executable to be used to run the jOOQ code generator.
    *
@@ -135,39 +234,394 @@ public abstract class JooqCodegen extends DefaultTask {
    * <p>When the {@code java-base} plugin is applied, it defaults to using the toolchain {@link
    * JavaPluginExtension#getToolchain() configured at the project level}.
    */
+  @Override
   @Nested
   @Optional
   public abstract Property<JavaLauncher> getJavaLauncher();
 
+  /**
+   * A file containing a fingerprint of the database schema.
+   *
+   * <p>When configured, the task will be considered up-to-date as long as the fingerprint, and the
+   * other inputs, didn't change; otherwise the task is never up-to-date.
+   *
+   * <p>This is generally wired to the {@linkplain JooqSchemaFingerprint#getFingerprintFile()
+   * output} of the {@code jooqSchemaFingerprint} task.
+   */
+  @Override
+  @InputFile
+  @Optional
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getSchemaFingerprint();
+
+  /**
+   * The directory where to store a class data sharing (AppCDS) archive for the forked code
+   * generator JVM.
+   *
+   * <p>When configured, and the code generator runs in a forked JVM (i.e. the {@linkplain
+   * #getJavaLauncher() java launcher} is not the one used to run Gradle) of Java 19 or later, the
+   * JVM will use an archive of the classes loaded from the {@linkplain #getClasspath() classpath},
+   * creating it on first use. This reduces the startup time of subsequent forked JVMs. A distinct
+   * archive is used whenever the classpath or the java launcher change.
+   *
+   * <p>To benefit from it on ephemeral CI agents, the directory needs to be preserved (cached)
+   * between builds.
+   */
+  @Override
+  @Internal
+  public abstract DirectoryProperty getClassDataSharingArchiveDirectory();
+
+  /**
+   * Additional JVM arguments for the forked code generator JVM, e.g. to configure the garbage
+   * collector.
+   *
+   * <p>When configured, the code generator always runs in a forked JVM, even if the {@linkplain
+   * #getJavaLauncher() java launcher} is the one used to run Gradle.
+   */
+  @Override
+  @Internal
+  public abstract ListProperty<String> getJvmArgs();
+
+  /**
+   * The minimum heap size for the forked code generator JVM, e.g. {@code 256m}.
+   *
+   * <p>When configured, the code generator always runs in a forked JVM, even if the {@linkplain
+   * #getJavaLauncher() java launcher} is the one used to run Gradle.
+   */
+  @Override
+  @Internal
+  public abstract Property<String> getMinHeapSize();
+
+  /**
+   * The maximum heap size for the forked code generator JVM, e.g. {@code 2g}.
+   *
+   * <p>When configured, the code generator always runs in a forked JVM, even if the {@linkplain
+   * #getJavaLauncher() java launcher} is the one used to run Gradle.
+   *
+   * <p>If the forked code generator runs out of memory, code generation is retried once with twice
+   * the maximum heap size (or, if none is configured, half the physical memory).
+   *
+   * @see #getAdaptiveHeapSize()
+   */
+  @Override
+  @Internal
+  public abstract Property<String> getMaxHeapSize();
+
+  /**
+   * Whether to compute the {@linkplain #getMaxHeapSize() maximum heap size} of the forked code
+   * generator JVM when not configured.
+   *
+   * <p>The peak heap usage (after garbage collections) of the forked code generator is recorded in
+   * the {@linkplain #getReportFile() report}. When enabled, the maximum heap size is twice the peak
+   * heap usage of the previous run of the task, or, for the first run, is estimated from the size
+   * of the {@linkplain #getSnapshotFile() snapshot file} if any; with a minimum of 256 MiB. When
+   * the maximum heap size can be computed, the code generator always runs in a forked JVM.
+   *
+   * <p>Defaults to {@code false}.
+   */
+  @Override
+  @Internal
+  public abstract Property<Boolean> getAdaptiveHeapSize();
+
+  /**
+   * Whether to render the tables, records, POJOs, interfaces, and DAOs of each schema in parallel.
+   *
+   * <p>When enabled, the jOOQ {@code JavaGenerator} or {@code KotlinGenerator} is replaced with a
+   * subclass shipped with the plugin, rendering tables concurrently on a fork-join pool using all
+   * available processors. The generated code is the same as when rendered sequentially. Custom
+   * generators are left untouched.
+   *
+   * <p>Defaults to {@code false}.
+   */
+  @Override
+  @Internal
+  public abstract Property<Boolean> getParallelGeneration();
+
+  /**
+   * Whether to only render the tables that changed since the previous code generation.
+   *
+   * <p>When enabled, the database metadata is read into a snapshot (if not already generating from
+   * a {@linkplain #getSnapshotFile() snapshot}) and compared, table by table, with the one of the
+   * previous code generation (kept in the task's temporary directory). The code is still generated
+   * from the database, as jOOQ's {@code XMLDatabase} doesn't read everything back the same, so the
+   * database metadata is read twice. The tables, records, POJOs,
+   * interfaces, and DAOs are then only rendered for the tables that were added or changed (along
+   * with their columns, keys, indexes, and the foreign keys referencing them); the files of the
+   * other tables are copied from the output directory. Other files (e.g. {@code Tables}, {@code
+   * Keys}, or {@code Indexes}) are always rendered, and any other change to the schema (e.g. to
+   * routines, sequences, or types) renders everything.
+   *
+   * <p>The previous code generation is only used if the configuration, the {@linkplain
+   * #getClasspath() classpath}, and the files in the output directory haven't changed since.
+   *
+   * <p>Like {@linkplain #getParallelGeneration() parallel generation}, this replaces the jOOQ
+   * {@code JavaGenerator} or {@code KotlinGenerator} with a subclass shipped with the plugin;
+   * custom generators always render everything. This is not supported when generating from
+   * {@linkplain #getMigrations() migration scripts} or {@linkplain #getShardBySchema() sharding by
+   * schema}.
+   *
+   * <p>Defaults to {@code false}.
+   */
+  @Internal
+  public abstract Property<Boolean> getIncrementalGeneration();
+
+  /** The state of the previous code generations, in incremental generation mode. */
+  @LocalState
+  public File getIncrementalStateDirectory() {
+    return new File(getTemporaryDir(), "incremental");
+  }
+
+  /**
+   * The number of database connections to read the database metadata with, in parallel.
+   *
+   * <p>When configured, rather than jOOQ reading the metadata with many queries (some for each
+   * table) one after the other on a single connection, the plugin reads it from the standard {@code
+   * INFORMATION_SCHEMA} views with a few queries for each schema, run concurrently over up to that
+   * many connections. The metadata is read into a snapshot that the code is then generated from,
+   * using jOOQ's {@code XMLDatabase}. This mostly benefits remote databases, where each query
+   * incurs network latency.
+   *
+   * <p>Only the schemas, tables and views, columns, primary, unique, foreign key, and check
+   * constraints, sequences, and indexes are read; routines, user-defined types, and other
+   * vendor-specific objects are not. This requires the database to implement the {@code
+   * INFORMATION_SCHEMA} views (e.g. PostgreSQL, MySQL, SQL Server, or H2), and is ignored when
+   * generating from a {@linkplain #getSnapshotFile() snapshot} or {@linkplain #getMigrations()
+   * migration scripts}. Connections are opened specifically, not taken from the {@linkplain
+   * #getPoolConnections() connection pool}.
+   *
+   * <p>Not set by default, using jOOQ's own database-specific metadata reading.
+   */
+  @Override
+  @Internal
+  public abstract Property<Integer> getMetadataConnections();
+
+  /**
+   * The maximum time to wait for a database connection to be opened.
+   *
+   * <p>The connection is opened in a separate thread, such that the timeout applies even if the
+   * JDBC driver doesn't support login timeouts.
+   *
+   * <p>Not set by default, waiting as long as the JDBC driver does.
+   */
+  @Override
+  @Internal
+  public abstract Property<Duration> getConnectTimeout();
+
+  /**
+   * The maximum time each query is allowed to run.
+   *
+   * <p>This is set as the {@linkplain java.sql.Statement#setQueryTimeout(int) query timeout}
+   * (rounded up to the second) on all statements created by jOOQ and the plugin; metadata read
+   * through the JDBC {@code DatabaseMetaData} is only bounded by the task's {@linkplain
+   * #getTimeout() timeout}.
+   *
+   * <p>Not set by default.
+   */
+  @Override
+  @Internal
+  public abstract Property<Duration> getQueryTimeout();
+
+  /**
+   * Whether to split each code generation into one generation per schema, all run in parallel.
+   *
+   * <p>This only applies to configuration files that explicitly list several schemas in {@code
+   * generator.database.inputSchema} and {@code generator.database.schemata}, and don't use {@code
+   * generator.database.catalogs}. Each schema is generated separately, all other schemas being
+   * excluded, and an additional generation produces the catalog classes. The outputs are then
+   * merged, to produce the same result as a single generation.
+   *
+   * <p>Schemas must not reference each other (e.g. foreign keys to tables in other schemas) as
+   * those references would be lost.
+   *
+   * <p>Defaults to {@code false}.
+   */
+  @Override
+  @Input
+  public abstract Property<Boolean> getShardBySchema();
+
+  /**
+   * A schema snapshot to generate the code from, rather than connecting to the database.
+   *
+   * <p>When configured, the code is generated using jOOQ's {@code XMLDatabase} with the SQL dialect
+   * recorded in the snapshot, and the {@linkplain #getUrl() url}, {@linkplain #getUser() user}, and
+   * {@linkplain #getPassword() password} are ignored.
+   *
+   * <p>The snapshot is generally produced by the {@code jooqSnapshot} task, and committed to the
+   * source tree; the {@code jooq} task should therefore not depend on the {@code jooqSnapshot}
+   * task, as the latter connects to the database.
+   *
+   * @see JooqSnapshot
+   */
+  @Override
+  @InputFile
+  @Optional
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getSnapshotFile();
+
+  /**
+   * SQL migration scripts to apply to an embedded database to generate the code from, rather than
+   * connecting to the database.
+   *
+   * <p>When configured, the code generator will start an embedded database (see {@link
+   * #getMigrationsDatabaseUrl()}), apply the {@code *.sql} files in the natural order of their
+   * names (sequences of digits being compared numerically, such that {@code V2__foo.sql} is applied
+   * before {@code V10__bar.sql}), and generate the code from that database. The {@linkplain
+   * #getUrl() url}, {@linkplain #getUser() user}, and {@linkplain #getPassword() password} are
+   * ignored.
+   *
+   * <p>Scripts are parsed with jOOQ's parser, so they can be written for another database than the
+   * embedded one, within the limits of jOOQ's parser and the embedded database's features.
+   */
+  @Override
+  @InputFiles
+  @IgnoreEmptyDirectories
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public abstract ConfigurableFileCollection getMigrations();
+
+  /**
+   * The JDBC URL of the embedded database to apply the {@linkplain #getMigrations() migrations} to.
+   *
+   * <p>The database's JDBC driver needs to be in the {@linkplain #getClasspath() classpath}. The
+   * database only lives as long as the code generation, so this should generally be a private
+   * in-memory database.
+   *
+   * <p>Defaults to {@code jdbc:h2:mem:}, which needs H2 to be added to the {@code jooqCodegen}
+   * configuration.
+   */
+  @Override
+  @Input
+  public abstract Property<String> getMigrationsDatabaseUrl();
+
+  /**
+   * The directory where to cache the database metadata read by jOOQ.
+   *
+   * <p>When configured, along with a {@linkplain #getSchemaFingerprint() schema fingerprint}, the
+   * database metadata is read once and cached as a jOOQ {@code InformationSchema} XML file, keyed
+   * by the {@linkplain #getUrl() url}, schema fingerprint, and {@linkplain #getConfigurationFile()
+   * configuration file} (including included and excluded objects). The code is then always
+   * generated from the cached metadata using jOOQ's {@code XMLDatabase}, without any catalog query
+   * when the metadata is already in the cache (e.g. when switching back to a branch whose schema
+   * had already been seen). The code generation fails if the database has objects that jOOQ's
+   * {@code XMLDatabase} doesn't support (enums, domains, array types, and XML schema collections).
+   *
+   * @see #getMetadataCacheSize()
+   */
+  @Override
+  @Internal
+  public abstract DirectoryProperty getMetadataCacheDirectory();
+
+  /**
+   * The maximum number of entries in the {@linkplain #getMetadataCacheDirectory() metadata cache},
+   * least recently used entries being evicted first. Must be at least 1.
+   *
+   * <p>Defaults to 10.
+   */
+  @Override
+  @Internal
+  public abstract Property<Integer> getMetadataCacheSize();
+
+  /**
+   * Whether to share the database metadata read by jOOQ with other code generations of the build.
+   *
+   * <p>When enabled, the database metadata is read once per build for all code generations
+   * (including those of other projects and tasks, and other executions and shards of the same task)
+   * connecting to the same {@linkplain #getUrl() url} with the same {@linkplain #getUser() user}
+   * and running with the same {@linkplain #getClasspath() classpath} in the same JVM. All the
+   * schemas of the database are read, and each code generation then generates from that metadata
+   * using jOOQ's {@code XMLDatabase}, applying its own {@linkplain #getConfigurationFile()
+   * configuration} (input schemas, included and excluded objects, forced types, etc.)
+   *
+   * <p>The metadata is shared within the code generator's JVM, so when enabled the code generator
+   * always runs in a forked JVM.
+   *
+   * <p>This is ignored when using the {@linkplain #getMetadataCacheDirectory() metadata cache}.
+   *
+   * <p>Defaults to {@code false}.
+   */
+  @Override
+  @Internal
+  public abstract Property<Boolean> getShareMetadata();
+
+  /**
+   * The file where to write a JSON report of the durations of the phases of the code generation.
+   *
+   * <p>The report lists each code generation (including each {@linkplain #getExecutions()
+   * execution}, and each shard when {@linkplain #getShardBySchema() sharding by schema}) with the
+   * duration of its phases (loading the configuration, reading the database metadata when using the
+   * {@linkplain #getMetadataCacheDirectory() metadata cache}, applying the {@linkplain
+   * #getMigrations() migrations}, and generating the code) and the number and size of the generated
+   * files, and each output directory with the duration of merging the shards and synchronizing the
+   * generated files, and how many files have been added, modified, removed, or left unchanged.
+   *
+   * <p>A summary is also logged at the {@code INFO} level.
+   *
+   * <p>Defaults to {@code build/reports/jooq/<taskName>.json}.
+   */
+  @Override
+  @Internal
+  public abstract RegularFileProperty getReportFile();
+
+  /**
+   * Whether to reuse database connections across code generations.
+   *
+   * <p>When enabled, the code generator always runs in a forked JVM, and connections are pooled by
+   * driver, URL, credentials, and driver properties, such that all code generations of the build
+   * (including those of other projects and tasks, and other executions and shards of the same task)
+   * running with the same {@linkplain #getClasspath() classpath} and {@linkplain #getJavaLauncher()
+   * java launcher} reuse connections rather than each opening its own. Connections are never reused
+   * across builds, and are closed after being idle for 10 seconds.
+   *
+   * <p>Defaults to {@code false}.
+   *
+   * @see #getConnectionPool()
+   */
+  @Override
+  @Internal
+  public abstract Property<Boolean> getPoolConnections();
+
+  /**
+   * The service scoping the {@linkplain #getPoolConnections() connection pool} to the build.
+   *
+   * <p>This is configured by the plugin and should not generally be changed.
+   */
+  @Override
+  @Internal
+  public abstract Property<JdbcConnectionPoolService> getConnectionPool();
+
+  /**
+   * The service limiting the number of tasks connecting to the same database at the same time.
+   *
+   * <p>This is configured by the plugin and should not generally be changed.
+   */
+  @Override
+  @Internal
+  public abstract Property<DatabaseLimiterService> getDatabaseLimiter();
+
   @TaskAction
-  void run() {
-    getFileSystemOperations().delete(spec -> spec.delete(getOutputDirectory()));
-
-    final WorkQueue workQueue;
-    JavaLauncher javaLauncher = getJavaLauncher().getOrNull();
-    if (javaLauncher == null || javaLauncher.getMetadata().isCurrentJvm()) {
-      workQueue =
-          getWorkerExecutor()
-              .classLoaderIsolation(spec -> spec.getClasspath().from(getClasspath()));
-    } else {
-      workQueue =
-          getWorkerExecutor()
-              .processIsolation(
-                  spec -> {
-                    spec.getClasspath().from(getClasspath());
-                    spec.forkOptions(
-                        forkOptions -> forkOptions.setExecutable(javaLauncher.getExecutablePath()));
-                  });
+  void run() throws IOException, InterruptedException {
+    if (!getIncrementalGeneration().get()) {
+      getFileSystemOperations().delete(spec -> spec.delete(getIncrementalStateDirectory()));
+    }
+    CodegenRunner runner = new CodegenRunner(this, getWorkerExecutor(), getFileSystemOperations());
+    CodegenRunner.Generation generation =
+        runner.generate(
+            getOutputDirectory().isPresent() ? getOutputDirectory().get().getAsFile() : null,
+            getIncrementalGeneration().get() ? getIncrementalStateDirectory() : null);
+    // Only update the files that actually changed
+    for (CodegenRunner.Output output : generation.outputs) {
+      long start = Timings.start();
+      DirectorySync.Result result =
+          DirectorySync.sync(output.stagingDirectory.toPath(), output.outputDirectory.toPath());
+      output.timings.record("sync", start);
+      getLogger().info("Generated files in {}: {}", output.outputDirectory, result);
+      generation.report.addOutput(output.outputDirectory, output.timings, result);
+      if (output.incrementalKey != null && output.incrementalStateDirectory != null) {
+        IncrementalGeneration.commit(
+            output.incrementalStateDirectory.toPath(),
+            output.incrementalKey,
+            output.outputDirectory.toPath());
+      }
     }
-    workQueue.submit(
-        JooqCodegenWorkAction.class,
-        params -> {
-          params.getUrl().set(getUrl());
-          params.getUser().set(getUser());
-          params.getPassword().set(getPassword());
-          params.getConfigurationFile().set(getConfigurationFile());
-          params.getOutputDirectory().set(getOutputDirectory());
-          params.getEncoding().set(getEncoding());
-        });
+    runner.complete(generation);
   }
 }
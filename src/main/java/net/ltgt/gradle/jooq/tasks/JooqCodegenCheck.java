@@ -0,0 +1,553 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import org.gradle.api.Action;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.NamedDomainObjectContainer;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.VerificationException;
+import org.gradle.api.tasks.options.Option;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Checks that the code generated with jOOQ is up-to-date.
+ *
+ * <p>The code is generated into a temporary directory, exactly like the {@link JooqCodegen} task
+ * would do, and compared with the {@linkplain #getOutputDirectory() output directory} (and those of
+ * the {@linkplain #getExecutions() executions}); the task fails if any file would be added,
+ * modified, or removed. The output directories are never modified.
+ *
+ * <p>The task is skipped when neither a {@linkplain #getUrl() url}, {@linkplain #getSnapshotFile()
+ * schema snapshot}, nor {@linkplain #getMigrations() migration scripts} are configured.
+ *
+ * @see #checks(TaskProvider)
+ */
+@CacheableTask
+public abstract class JooqCodegenCheck extends DefaultTask implements CodegenSpec {
+  /** The maximum number of files listed in the failure message, for each output directory. */
+  private static final int MAX_LISTED_FILES = 20;
+
+  @SuppressWarnings("this-escape")
+  public JooqCodegenCheck() {
+    getShardBySchema().convention(false);
+    getMigrationsDatabaseUrl().convention("jdbc:h2:mem:");
+    getMetadataCacheSize().convention(10);
+    getPoolConnections().convention(false);
+    getAdaptiveHeapSize().convention(false);
+    getParallelGeneration().convention(false);
+    getShareMetadata().convention(false);
+    getExecutions().configureEach(execution -> execution.getEncoding().convention(getEncoding()));
+    getOutputs().upToDateWhen(task -> CodegenRunner.hasSchemaIdentity((JooqCodegenCheck) task));
+    getOutputs()
+        .cacheIf(
+            "A schema fingerprint, snapshot, or migrations are configured",
+            task -> CodegenRunner.hasSchemaIdentity((JooqCodegenCheck) task));
+    onlyIf(
+        "A url, snapshot, or migrations are configured",
+        task -> {
+          JooqCodegenCheck check = (JooqCodegenCheck) task;
+          return check.getUrl().isPresent()
+              || check.getSnapshotFile().isPresent()
+              || !check.getMigrations().isEmpty();
+        });
+  }
+
+  @Inject
+  protected abstract WorkerExecutor getWorkerExecutor();
+
+  @Inject
+  protected abstract FileSystemOperations getFileSystemOperations();
+
+  @Inject
+  protected abstract ObjectFactory getObjectFactory();
+
+  @Inject
+  protected abstract ProviderFactory getProviderFactory();
+
+  /**
+   * Configures this task to check the code generated by the given task, using its configuration
+   * (including its executions) by default.
+   *
+   * <p>This doesn't make this task depend on the given task, nor does it make the given task run
+   * when this task runs.
+   */
+  public void checks(TaskProvider<JooqCodegen> task) {
+    // Output directories are outputs of the task, so their values are copied through providers
+    // without producer to avoid a task dependency; and so are the file collections, whose producer
+    // would otherwise be the task too.
+    getClasspath().from(getProviderFactory().provider(() -> task.get().getClasspath()));
+    getUrl().convention(task.flatMap(JooqCodegen::getUrl));
+    getUser().convention(task.flatMap(JooqCodegen::getUser));
+    getPassword().convention(task.flatMap(JooqCodegen::getPassword));
+    getEncoding().convention(task.flatMap(JooqCodegen::getEncoding));
+    getConfigurationFile().convention(task.flatMap(JooqCodegen::getConfigurationFile));
+    getOutputDirectory()
+        .convention(
+            getProviderFactory().provider(() -> task.get().getOutputDirectory().getOrNull()));
+    getJavaLauncher().convention(task.flatMap(JooqCodegen::getJavaLauncher));
+    getSchemaFingerprint().convention(task.flatMap(JooqCodegen::getSchemaFingerprint));
+    getClassDataSharingArchiveDirectory()
+        .convention(task.flatMap(JooqCodegen::getClassDataSharingArchiveDirectory));
+    getJvmArgs().convention(task.flatMap(JooqCodegen::getJvmArgs));
+    getMinHeapSize().convention(task.flatMap(JooqCodegen::getMinHeapSize));
+    getMaxHeapSize().convention(task.flatMap(JooqCodegen::getMaxHeapSize));
+    getAdaptiveHeapSize().convention(task.flatMap(JooqCodegen::getAdaptiveHeapSize));
+    getParallelGeneration().convention(task.flatMap(JooqCodegen::getParallelGeneration));
+    getMetadataConnections().convention(task.flatMap(JooqCodegen::getMetadataConnections));
+    getConnectTimeout().convention(task.flatMap(JooqCodegen::getConnectTimeout));
+    getQueryTimeout().convention(task.flatMap(JooqCodegen::getQueryTimeout));
+    getShardBySchema().convention(task.flatMap(JooqCodegen::getShardBySchema));
+    getSnapshotFile().convention(task.flatMap(JooqCodegen::getSnapshotFile));
+    getMigrations().from(getProviderFactory().provider(() -> task.get().getMigrations()));
+    getMigrationsDatabaseUrl().convention(task.flatMap(JooqCodegen::getMigrationsDatabaseUrl));
+    getMetadataCacheDirectory().convention(task.flatMap(JooqCodegen::getMetadataCacheDirectory));
+    getMetadataCacheSize().convention(task.flatMap(JooqCodegen::getMetadataCacheSize));
+    getShareMetadata().convention(task.flatMap(JooqCodegen::getShareMetadata));
+    getPoolConnections().convention(task.flatMap(JooqCodegen::getPoolConnections));
+    getTimeout().convention(task.flatMap(JooqCodegen::getTimeout));
+
+    // The executions are only copied when this task's executions are queried. Their values are
+    // set rather than their conventions, as the encoding's convention is set when they're added.
+    getExecutions()
+        .addAllLater(
+            getProviderFactory()
+                .provider(
+                    () -> {
+                      List<JooqCodegenExecution> executions = new ArrayList<>();
+                      for (JooqCodegenExecution checked : task.get().getExecutions()) {
+                        JooqCodegenExecution execution =
+                            getObjectFactory()
+                                .newInstance(JooqCodegenExecution.class, checked.getName());
+                        execution.getConfigurationFile().set(checked.getConfigurationFile());
+                        execution.getEncoding().set(checked.getEncoding());
+                        execution
+                            .getOutputDirectory()
+                            .set(
+                                getProviderFactory()
+                                    .provider(() -> checked.getOutputDirectory().getOrNull()));
+                        executions.add(execution);
+                      }
+                      return executions;
+                    }));
+  }
+
+  /**
+   * The classpath for executing the jOOQ code generator.
+   *
+   * @see JooqCodegen#getClasspath()
+   */
+  @Override
+  @Classpath
+  public abstract ConfigurableFileCollection getClasspath();
+
+  /**
+   * The jdbc url to use to connect to the database.
+   *
+   * @see JooqCodegen#getUrl()
+   */
+  @Override
+  @Internal
+  @Option(option = "url", description = "Configures the database JDBC URL")
+  public abstract Property<String> getUrl();
+
+  /**
+   * The user to use to connect to the database.
+   *
+   * @see JooqCodegen#getUser()
+   */
+  @Override
+  @Internal
+  @Option(option = "user", description = "Configures the database user")
+  public abstract Property<String> getUser();
+
+  /**
+   * The password to use to connect to the database.
+   *
+   * @see JooqCodegen#getPassword()
+   */
+  @Override
+  @Internal
+  @Option(option = "password", description = "Configures the database password")
+  public abstract Property<String> getPassword();
+
+  /**
+   * The encoding of the generated files.
+   *
+   * @see JooqCodegen#getEncoding()
+   */
+  @Override
+  @Input
+  @Optional
+  public abstract Property<String> getEncoding();
+
+  /**
+   * The jOOQ code generation configuration file.
+   *
+   * @see JooqCodegen#getConfigurationFile()
+   */
+  @Override
+  @InputFile
+  @Optional
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getConfigurationFile();
+
+  /**
+   * The directory containing the generated code to check.
+   *
+   * <p>This is an input of this task, and is never modified.
+   *
+   * @see JooqCodegen#getOutputDirectory()
+   */
+  @InputFiles
+  @Optional
+  @PathSensitive(PathSensitivity.RELATIVE)
+  @IgnoreEmptyDirectories
+  public abstract DirectoryProperty getOutputDirectory();
+
+  /**
+   * Additional code generations, each with its own configuration file and output directory.
+   *
+   * @see JooqCodegen#getExecutions()
+   * @see #execution(String, Action)
+   */
+  @Override
+  @Nested
+  public abstract NamedDomainObjectContainer<JooqCodegenExecution> getExecutions();
+
+  /** Configures the execution with the given name, creating it if necessary. */
+  public void execution(String name, Action<? super JooqCodegenExecution> action) {
+    // Iterating realizes the executions copied from the checked task, that aren't found by name
+    for (JooqCodegenExecution execution : getExecutions()) {
+      if (execution.getName().equals(name)) {
+        action.execute(execution);
+        return;
+      }
+    }
+    action.execute(getExecutions().create(name));
+  }
+
+  /**
+   * The output directories of the {@linkplain #getExecutions() executions}, as inputs.
+   *
+   * <p>Executions without an output directory are ignored here, and fail the task when it runs.
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.RELATIVE)
+  @IgnoreEmptyDirectories
+  public FileCollection getExecutionOutputFiles() {
+    return getObjectFactory()
+        .fileCollection()
+        .from(
+            getProviderFactory()
+                .provider(
+                    () -> {
+                      Map<String, File> outputDirectories = new LinkedHashMap<>();
+                      for (JooqCodegenExecution execution : getExecutions()) {
+                        if (execution.getOutputDirectory().isPresent()) {
+                          outputDirectories.put(
+                              execution.getName(),
+                              execution.getOutputDirectory().get().getAsFile());
+                        }
+                      }
+                      return outputDirectories.values();
+                    }));
+  }
+
+  /**
+   * Configures the java executable to be used to run the jOOQ code generator.
+   *
+   * @see JooqCodegen#getJavaLauncher()
+   */
+  @Override
+  @Nested
+  @Optional
+  public abstract Property<JavaLauncher> getJavaLauncher();
+
+  /**
+   * A file containing a fingerprint of the database schema.
+   *
+   * @see JooqCodegen#getSchemaFingerprint()
+   */
+  @Override
+  @InputFile
+  @Optional
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getSchemaFingerprint();
+
+  /**
+   * The directory where to store a class data sharing (AppCDS) archive for the forked code
+   * generator JVM.
+   *
+   * @see JooqCodegen#getClassDataSharingArchiveDirectory()
+   */
+  @Override
+  @Internal
+  public abstract DirectoryProperty getClassDataSharingArchiveDirectory();
+
+  /**
+   * Additional JVM arguments for the forked code generator JVM.
+   *
+   * @see JooqCodegen#getJvmArgs()
+   */
+  @Override
+  @Internal
+  public abstract ListProperty<String> getJvmArgs();
+
+  /**
+   * The minimum heap size for the forked code generator JVM.
+   *
+   * @see JooqCodegen#getMinHeapSize()
+   */
+  @Override
+  @Internal
+  public abstract Property<String> getMinHeapSize();
+
+  /**
+   * The maximum heap size for the forked code generator JVM.
+   *
+   * @see JooqCodegen#getMaxHeapSize()
+   */
+  @Override
+  @Internal
+  public abstract Property<String> getMaxHeapSize();
+
+  /**
+   * Whether to compute the maximum heap size of the forked code generator JVM when not configured.
+   *
+   * @see JooqCodegen#getAdaptiveHeapSize()
+   */
+  @Override
+  @Internal
+  public abstract Property<Boolean> getAdaptiveHeapSize();
+
+  /**
+   * Whether to render the tables of each schema in parallel.
+   *
+   * @see JooqCodegen#getParallelGeneration()
+   */
+  @Override
+  @Internal
+  public abstract Property<Boolean> getParallelGeneration();
+
+  /**
+   * The number of database connections to read the database metadata with, in parallel.
+   *
+   * @see JooqCodegen#getMetadataConnections()
+   */
+  @Override
+  @Internal
+  public abstract Property<Integer> getMetadataConnections();
+
+  /**
+   * The maximum time to wait for a database connection to be opened.
+   *
+   * @see JooqCodegen#getConnectTimeout()
+   */
+  @Override
+  @Internal
+  public abstract Property<Duration> getConnectTimeout();
+
+  /**
+   * The maximum time each query is allowed to run.
+   *
+   * @see JooqCodegen#getQueryTimeout()
+   */
+  @Override
+  @Internal
+  public abstract Property<Duration> getQueryTimeout();
+
+  /**
+   * Whether to split each code generation into one generation per schema, all run in parallel.
+   *
+   * @see JooqCodegen#getShardBySchema()
+   */
+  @Override
+  @Input
+  public abstract Property<Boolean> getShardBySchema();
+
+  /**
+   * A schema snapshot to generate the code from, rather than connecting to the database.
+   *
+   * @see JooqCodegen#getSnapshotFile()
+   */
+  @Override
+  @InputFile
+  @Optional
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getSnapshotFile();
+
+  /**
+   * SQL migration scripts to apply to an embedded database to generate the code from, rather than
+   * connecting to the database.
+   *
+   * @see JooqCodegen#getMigrations()
+   */
+  @Override
+  @InputFiles
+  @IgnoreEmptyDirectories
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public abstract ConfigurableFileCollection getMigrations();
+
+  /**
+   * The JDBC URL of the embedded database to apply the migrations to.
+   *
+   * @see JooqCodegen#getMigrationsDatabaseUrl()
+   */
+  @Override
+  @Input
+  public abstract Property<String> getMigrationsDatabaseUrl();
+
+  /**
+   * The directory where to cache the database metadata read by jOOQ.
+   *
+   * @see JooqCodegen#getMetadataCacheDirectory()
+   */
+  @Override
+  @Internal
+  public abstract DirectoryProperty getMetadataCacheDirectory();
+
+  /**
+   * The maximum number of entries in the metadata cache.
+   *
+   * @see JooqCodegen#getMetadataCacheSize()
+   */
+  @Override
+  @Internal
+  public abstract Property<Integer> getMetadataCacheSize();
+
+  /**
+   * Whether to share the database metadata read by jOOQ with other code generations of the build.
+   *
+   * @see JooqCodegen#getShareMetadata()
+   */
+  @Override
+  @Internal
+  public abstract Property<Boolean> getShareMetadata();
+
+  /**
+   * The file where to write a JSON report of the durations of the phases of the code generation.
+   *
+   * <p>Output directories are listed with the duration of comparing, rather than synchronizing, the
+   * generated files.
+   *
+   * @see JooqCodegen#getReportFile()
+   */
+  @Override
+  @Internal
+  public abstract RegularFileProperty getReportFile();
+
+  /**
+   * Whether to reuse database connections across code generations.
+   *
+   * @see JooqCodegen#getPoolConnections()
+   */
+  @Override
+  @Internal
+  public abstract Property<Boolean> getPoolConnections();
+
+  /**
+   * The service scoping the connection pool to the build.
+   *
+   * @see JooqCodegen#getConnectionPool()
+   */
+  @Override
+  @Internal
+  public abstract Property<JdbcConnectionPoolService> getConnectionPool();
+
+  /**
+   * The service limiting the number of tasks connecting to the same database at the same time.
+   *
+   * @see JooqCodegen#getDatabaseLimiter()
+   */
+  @Override
+  @Internal
+  public abstract Property<DatabaseLimiterService> getDatabaseLimiter();
+
+  /** The file recording the successful check, for the task to be up-to-date. */
+  @OutputFile
+  public abstract RegularFileProperty getResultFile();
+
+  @TaskAction
+  void run() throws IOException, InterruptedException {
+    File resultFile = getResultFile().get().getAsFile();
+    Files.deleteIfExists(resultFile.toPath());
+
+    CodegenRunner runner = new CodegenRunner(this, getWorkerExecutor(), getFileSystemOperations());
+    CodegenRunner.Generation generation =
+        runner.generate(
+            getOutputDirectory().isPresent() ? getOutputDirectory().get().getAsFile() : null, null);
+    List<String> outOfDate = new ArrayList<>();
+    for (CodegenRunner.Output output : generation.outputs) {
+      long start = Timings.start();
+      DirectoryDiff diff =
+          DirectoryDiff.compare(output.stagingDirectory.toPath(), output.outputDirectory.toPath());
+      output.timings.record("compare", start);
+      DirectorySync.Result result = diff.toResult();
+      getLogger().info("Checked files in {}: {}", output.outputDirectory, result);
+      generation.report.addOutput(output.outputDirectory, output.timings, result);
+      if (!diff.isEmpty()) {
+        outOfDate.add(
+            "Generated code in "
+                + output.outputDirectory
+                + " is not up-to-date ("
+                + result
+                + "):"
+                + diff.describe(MAX_LISTED_FILES));
+      }
+    }
+    runner.complete(generation);
+
+    if (!outOfDate.isEmpty()) {
+      throw new VerificationException(String.join("\n", outOfDate));
+    }
+    Files.createDirectories(resultFile.getParentFile().toPath());
+    Files.write(resultFile.toPath(), "OK\n".getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import javax.inject.Inject;
+import org.gradle.api.Named;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * An additional code generation, with its own configuration file and output directory, run by a
+ * {@link JooqCodegen} task in parallel with its other executions.
+ *
+ * @see JooqCodegen#execution(String, org.gradle.api.Action)
+ */
+public abstract class JooqCodegenExecution implements Named {
+  private final String name;
+
+  @Inject
+  public JooqCodegenExecution(String name) {
+    this.name = name;
+  }
+
+  @Internal
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * The jOOQ code generation configuration file.
+   *
+   * @see JooqCodegen#getConfigurationFile()
+   */
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getConfigurationFile();
+
+  /**
+   * The encoding of the generated files.
+   *
+   * <p>Defaults to the task's {@linkplain JooqCodegen#getEncoding() encoding}.
+   *
+   * @see JooqCodegen#getEncoding()
+   */
+  @Input
+  @Optional
+  public abstract Property<String> getEncoding();
+
+  /**
+   * The directory where jOOQ will generate the code.
+   *
+   * <p>It must not overlap with the output directory of the task or of any other execution.
+   *
+   * <p>This is declared as an output through {@link JooqCodegen#getExecutionOutputDirectories()}.
+   *
+   * @see JooqCodegen#getOutputDirectory()
+   */
+  @Internal
+  public abstract DirectoryProperty getOutputDirectory();
+}
@@ -15,21 +15,37 @@
  */
 package net.ltgt.gradle.jooq.tasks;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import net.ltgt.gradle.jooq.codegen.GenerationContext;
+import net.ltgt.gradle.jooq.codegen.ParallelJavaGenerator;
+import net.ltgt.gradle.jooq.codegen.ParallelKotlinGenerator;
+import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.workers.WorkAction;
 import org.gradle.workers.WorkParameters;
 import org.jooq.codegen.GenerationTool;
 import org.jooq.meta.jaxb.Configuration;
+import org.jooq.meta.jaxb.Database;
+import org.jooq.meta.jaxb.Generate;
+import org.jooq.meta.jaxb.Generator;
 import org.jooq.meta.jaxb.Jdbc;
 import org.jooq.meta.jaxb.Target;
 import org.jooq.tools.StringUtils;
@@ -47,34 +63,494 @@ abstract class JooqCodegenWorkAction implements WorkAction<JooqCodegenWorkAction
 
     RegularFileProperty getConfigurationFile();
 
+    /** The schema snapshot to generate from, instead of connecting to the database. */
+    RegularFileProperty getSnapshotFile();
+
+    /** The migration scripts to apply to an embedded database to generate from. */
+    ConfigurableFileCollection getMigrations();
+
+    /** The JDBC URL of the embedded database to apply the migrations to. */
+    Property<String> getMigrationsDatabaseUrl();
+
+    /** The schema fingerprint, used as part of the metadata cache key. */
+    RegularFileProperty getSchemaFingerprint();
+
+    /** The directory of the metadata cache, if enabled. */
+    DirectoryProperty getMetadataCacheDirectory();
+
+    /** The maximum number of entries in the metadata cache. */
+    Property<Integer> getMetadataCacheSize();
+
     DirectoryProperty getOutputDirectory();
 
     Property<String> getEncoding();
+
+    /** The schemas whose objects are excluded from the generation, when sharding by schema. */
+    ListProperty<String> getExcludedSchemas();
+
+    /** Whether to only generate catalogs and (empty) schemas, when sharding by schema. */
+    Property<Boolean> getCatalogOnly();
+
+    /**
+     * The {@linkplain JdbcConnectionPoolService#getBuildId() build identifier} to pool connections
+     * for, if enabled.
+     */
+    Property<String> getConnectionPoolBuildId();
+
+    /** The file where to store the {@linkplain Timings timings} of the code generation. */
+    RegularFileProperty getTimingsFile();
+
+    /**
+     * The {@linkplain JdbcConnectionPoolService#getBuildId() build identifier} to share the
+     * database metadata for, if enabled.
+     */
+    Property<String> getSharedMetadataBuildId();
+
+    /** Whether to record the peak heap usage, when running in a forked process. */
+    Property<Boolean> getRecordPeakHeap();
+
+    /**
+     * The file to create if the code generation runs out of memory, when running in a forked
+     * process.
+     */
+    RegularFileProperty getOutOfMemoryFile();
+
+    /** Whether to render tables in parallel, replacing the jOOQ Java or Kotlin generator. */
+    Property<Boolean> getParallelGeneration();
+
+    /**
+     * The directory of the {@linkplain IncrementalGeneration incremental generation} state, if
+     * enabled.
+     */
+    DirectoryProperty getIncrementalStateDirectory();
+
+    /** The output directory the code has previously been generated into, in incremental mode. */
+    DirectoryProperty getPreviousOutputDirectory();
+
+    /**
+     * The number of connections to read the database metadata with, from the standard {@code
+     * INFORMATION_SCHEMA} views, if enabled.
+     */
+    Property<Integer> getMetadataConnections();
+
+    /** The timeout to open database connections, if any. */
+    Property<Long> getConnectTimeoutMillis();
+
+    /** The timeout set on each query, if any. */
+    Property<Integer> getQueryTimeoutSeconds();
+
+    /**
+     * The time (in milliseconds since the epoch) by which the code generation must complete, if
+     * any.
+     */
+    Property<Long> getDeadlineMillis();
+
+    /** The file whose existence requests the cancellation of the code generation. */
+    RegularFileProperty getCancellationFile();
   }
 
+  private static final List<String> JAVA_GENERATORS =
+      Arrays.asList("org.jooq.codegen.JavaGenerator", "org.jooq.codegen.DefaultGenerator");
+  private static final String KOTLIN_GENERATOR = "org.jooq.codegen.KotlinGenerator";
+
   private final Logger logger = LoggerFactory.getLogger(getClass());
 
+  // Only set during execute()
+  private CodegenWatchdog watchdog;
+
   @Inject
   public JooqCodegenWorkAction() {}
 
   @Override
   public void execute() {
-    Configuration configuration;
-    try (InputStream is =
-        Files.newInputStream(getParameters().getConfigurationFile().get().getAsFile().toPath())) {
-      configuration = GenerationTool.load(is);
+    JdbcConnections.beginWork();
+    // Worker processes are reused, one code generation at a time
+    try (HeapSizes.PeakUsageRecorder peakUsage =
+            getParameters().getRecordPeakHeap().getOrElse(false)
+                ? new HeapSizes.PeakUsageRecorder()
+                : null;
+        CodegenWatchdog watchdog =
+            new CodegenWatchdog(
+                getParameters().getQueryTimeoutSeconds().getOrElse(0),
+                getParameters().getDeadlineMillis().getOrElse(0L),
+                getParameters().getCancellationFile().isPresent()
+                    ? getParameters().getCancellationFile().get().getAsFile().toPath()
+                    : null)) {
+      this.watchdog = watchdog;
+      try {
+        generate(peakUsage);
+      } catch (RuntimeException e) {
+        reportOutOfMemory(e);
+        watchdog.checkNotCancelled(e);
+        throw e;
+      } catch (Error e) {
+        reportOutOfMemory(e);
+        throw e;
+      }
+      // jOOQ ignores some errors, so the generated code could be incomplete
+      watchdog.checkNotCancelled(null);
+    } finally {
+      this.watchdog = null;
+      JdbcConnections.endWork();
+    }
+  }
+
+  /**
+   * Creates the {@linkplain Parameters#getOutOfMemoryFile() out-of-memory file}, if the code
+   * generation failed because it ran out of memory.
+   */
+  private void reportOutOfMemory(Throwable failure) {
+    if (!getParameters().getOutOfMemoryFile().isPresent()) {
+      return;
+    }
+    for (Throwable t = failure; t != null; t = t.getCause()) {
+      if (t instanceof OutOfMemoryError) {
+        try {
+          Files.write(getParameters().getOutOfMemoryFile().get().getAsFile().toPath(), new byte[0]);
+        } catch (IOException e) {
+          failure.addSuppressed(e);
+        }
+        return;
+      }
+    }
+  }
+
+  private void generate(@Nullable HeapSizes.PeakUsageRecorder peakUsage) {
+    Timings timings = new Timings();
+    long start = Timings.start();
+    Configuration configuration = loadConfiguration();
+    List<File> migrations = Migrations.sort(getParameters().getMigrations());
+    timings.record("load", start);
+    boolean incremental = getParameters().getIncrementalStateDirectory().isPresent();
+    boolean connectToDatabase = false;
+    // The snapshot the code is generated from, if any
+    Path snapshot = null;
+    // The snapshot the tables that changed are determined from, in incremental mode
+    Path changesSnapshot = null;
+    if (getParameters().getSnapshotFile().isPresent()) {
+      snapshot = getParameters().getSnapshotFile().get().getAsFile().toPath();
+    } else if (!migrations.isEmpty()) {
+      configureMigrations(configuration);
+    } else if (getParameters().getMetadataCacheDirectory().isPresent()) {
+      snapshot = getCachedMetadata(timings);
+    } else if (getParameters().getSharedMetadataBuildId().isPresent()) {
+      snapshot = getSharedMetadata(configuration, timings);
+    } else if (getParameters().getMetadataConnections().isPresent()) {
+      // Metadata read in parallel is only available as a snapshot
+      snapshot = readMetadataSnapshot(timings);
+    } else {
+      if (incremental) {
+        // Tables that changed are determined from a snapshot, but the code is still generated from
+        // the database: jOOQ's XMLDatabase doesn't read everything back the same (e.g. the
+        // nullability of sequences), so the code could differ from a full generation.
+        changesSnapshot = readMetadataSnapshot(timings);
+      }
+      configureJdbc(configuration);
+      connectToDatabase = true;
+    }
+    if (snapshot != null) {
+      configureSnapshot(configuration, snapshot);
+      changesSnapshot = snapshot;
+    }
+    configureTarget(configuration);
+    configureShard(configuration);
+    boolean pluginGenerator = configureGenerator(configuration, incremental);
+    IncrementalGeneration incrementalGeneration = null;
+    if (pluginGenerator && incremental && changesSnapshot != null) {
+      start = Timings.start();
+      incrementalGeneration = loadIncrementalGeneration(changesSnapshot);
+      timings.record("diff", start);
+    }
+    File targetDirectory = getParameters().getOutputDirectory().get().getAsFile();
+    try (GenerationContext context =
+        pluginGenerator
+            ? GenerationContext.register(
+                targetDirectory,
+                getParameters().getParallelGeneration().getOrElse(false),
+                incrementalGeneration == null
+                    ? Collections.emptySet()
+                    : incrementalGeneration.getUnchangedTables())
+            : null) {
+      if (!migrations.isEmpty()) {
+        // The in-memory database only lives as long as the connection
+        try (Connection connection =
+            watchdog.watch(
+                JdbcConnections.open(
+                    null, getParameters().getMigrationsDatabaseUrl().get(), null, null))) {
+          start = Timings.start();
+          Migrations.apply(connection, migrations);
+          timings.record("migrations", start);
+          start = Timings.start();
+          GenerationTool generationTool = newGenerationTool(pluginGenerator);
+          generationTool.setConnection(connection);
+          generationTool.run(configuration);
+          timings.record("generate", start);
+        }
+      } else if (connectToDatabase && getParameters().getConnectionPoolBuildId().isPresent()) {
+        try (JdbcConnectionPool.Lease lease = leaseConnection(configuration, timings)) {
+          start = Timings.start();
+          // Reading the database metadata happens within the generation
+          GenerationTool generationTool = newGenerationTool(pluginGenerator);
+          generationTool.setConnection(watchdog.watch(lease.getConnection()));
+          generationTool.run(configuration);
+          timings.record("generate", start);
+        }
+      } else if (connectToDatabase) {
+        start = Timings.start();
+        try (Connection connection = openConnection(configuration)) {
+          timings.record("connect", start);
+          start = Timings.start();
+          // Reading the database metadata happens within the generation
+          GenerationTool generationTool = newGenerationTool(pluginGenerator);
+          generationTool.setConnection(connection);
+          generationTool.run(configuration);
+          timings.record("generate", start);
+        }
+      } else {
+        start = Timings.start();
+        newGenerationTool(pluginGenerator).run(configuration);
+        timings.record("generate", start);
+      }
+      if (incrementalGeneration != null && context != null) {
+        start = Timings.start();
+        incrementalGeneration.complete(
+            context.getRenderedFiles(),
+            getParameters().getPreviousOutputDirectory().get().getAsFile().toPath(),
+            targetDirectory.toPath());
+        timings.record("copy", start);
+      }
+      if (peakUsage != null) {
+        timings.setPeakHeapBytes(peakUsage.getPeakUsage());
+      }
+      if (getParameters().getTimingsFile().isPresent()) {
+        timings.countFiles(getParameters().getOutputDirectory().get().getAsFile().toPath());
+        timings.store(getParameters().getTimingsFile().get().getAsFile().toPath());
+      }
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private Configuration loadConfiguration() {
+    return ConfigurationLoader.load(
+        getParameters().getConfigurationFile().get().getAsFile().toPath());
+  }
+
+  /**
+   * Returns the database metadata from the cache, reading it from the database (and putting it in
+   * the cache) if needed.
+   */
+  private Path getCachedMetadata(Timings timings) {
+    MetadataCache cache =
+        new MetadataCache(
+            getParameters().getMetadataCacheDirectory().get().getAsFile().toPath(),
+            getParameters().getMetadataCacheSize().get());
+    try {
+      String key =
+          Hashes.sha256(
+              Hashes.bytes(getParameters().getUrl().get()),
+              Files.readAllBytes(getParameters().getSchemaFingerprint().get().getAsFile().toPath()),
+              Files.readAllBytes(getParameters().getConfigurationFile().get().getAsFile().toPath()),
+              Hashes.bytes(String.join("\n", getParameters().getExcludedSchemas().get())),
+              Hashes.bytes(String.valueOf(getParameters().getCatalogOnly().get())));
+      File outputDirectory = getParameters().getOutputDirectory().get().getAsFile();
+      Path workDirectory =
+          new File(outputDirectory.getParentFile(), outputDirectory.getName() + "-metadata")
+              .toPath();
+      Path snapshot = workDirectory.resolveSibling(workDirectory.getFileName() + ".xml");
+      if (cache.get(key, snapshot)) {
+        logger.info("Using cached database metadata {}", key);
+        return snapshot;
+      }
+
+      Configuration configuration = loadConfiguration();
+      configureShard(configuration);
+      readMetadata(configuration, timings, workDirectory, snapshot);
+      cache.put(key, snapshot);
+      logger.info("Cached database metadata {}", key);
+      return snapshot;
     } catch (IOException e) {
       throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
     }
-    configureJdbc(configuration);
-    configureTarget(configuration);
+  }
+
+  /**
+   * Returns the database metadata {@linkplain SharedMetadata shared} with the other code
+   * generations of the build, reading it from the database if needed.
+   *
+   * <p>All the schemas of the database are read, without any of the configured includes, excludes,
+   * forced types, etc. that are applied when generating from the shared metadata.
+   */
+  private Path getSharedMetadata(Configuration configuration, Timings timings) {
+    Database database = configuration.getGenerator().getDatabase();
+    Database metadataDatabase = new Database();
+    if (database != null) {
+      metadataDatabase.setName(database.getName());
+      metadataDatabase.getProperties().addAll(database.getProperties());
+    }
+    Generator metadataGenerator = new Generator();
+    metadataGenerator.setDatabase(metadataDatabase);
+    Configuration metadataConfiguration = new Configuration();
+    metadataConfiguration.setJdbc(configuration.getJdbc());
+    metadataConfiguration.setGenerator(metadataGenerator);
+
+    boolean[] read = new boolean[1];
+    Path snapshot;
+    try {
+      snapshot =
+          SharedMetadata.get(
+              getParameters().getSharedMetadataBuildId().get(),
+              Arrays.asList(
+                  getParameters().getUrl().get(),
+                  getParameters().getUser().getOrNull(),
+                  metadataDatabase.getName()),
+              (workDirectory, file) -> {
+                read[0] = true;
+                readMetadata(metadataConfiguration, timings, workDirectory, file);
+              });
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    if (read[0]) {
+      logger.info("Read shared database metadata {}", snapshot);
+    } else {
+      logger.info("Using shared database metadata {}", snapshot);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Reads the database metadata into a snapshot, to determine the tables that changed since the
+   * previous incremental code generation, or to generate the code from when reading the metadata
+   * in parallel.
+   */
+  private Path readMetadataSnapshot(Timings timings) {
+    Configuration configuration = loadConfiguration();
+    configureShard(configuration);
+    File outputDirectory = getParameters().getOutputDirectory().get().getAsFile();
+    Path workDirectory =
+        new File(outputDirectory.getParentFile(), outputDirectory.getName() + "-metadata").toPath();
+    Path snapshot = workDirectory.resolveSibling(workDirectory.getFileName() + ".xml");
     try {
-      GenerationTool.generate(configuration);
+      readMetadata(configuration, timings, workDirectory, snapshot);
     } catch (RuntimeException e) {
       throw e;
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    return snapshot;
+  }
+
+  private IncrementalGeneration loadIncrementalGeneration(Path snapshot) {
+    IncrementalGeneration incrementalGeneration;
+    try {
+      incrementalGeneration =
+          IncrementalGeneration.load(
+              getParameters().getIncrementalStateDirectory().get().getAsFile().toPath(), snapshot);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (incrementalGeneration.hasPrevious()) {
+      logger.info(
+          "Skipping {} tables unchanged since the previous code generation",
+          incrementalGeneration.getUnchangedTables().size());
+    } else {
+      logger.info("Generating all tables: no previous code generation of the same schema");
+    }
+    return incrementalGeneration;
+  }
+
+  private void readMetadata(
+      Configuration configuration, Timings timings, Path workDirectory, Path snapshot)
+      throws Exception {
+    if (getParameters().getMetadataConnections().isPresent()) {
+      long start = Timings.start();
+      Path informationSchema = workDirectory.resolve("information_schema.xml");
+      String dialect =
+          InformationSchemaReader.read(
+              configuration,
+              () -> openConnection(configuration),
+              getParameters().getMetadataConnections().get(),
+              informationSchema);
+      Snapshots.write(informationSchema, dialect, snapshot);
+      timings.record("metadata", start);
+    } else if (getParameters().getConnectionPoolBuildId().isPresent()) {
+      try (JdbcConnectionPool.Lease lease = leaseConnection(configuration, timings)) {
+        long start = Timings.start();
+        Snapshots.take(
+            configuration, watchdog.watch(lease.getConnection()), workDirectory, snapshot);
+        timings.record("metadata", start);
+      }
+    } else {
+      long start = Timings.start();
+      try (Connection connection = openConnection(configuration)) {
+        timings.record("connect", start);
+        start = Timings.start();
+        Snapshots.take(configuration, connection, workDirectory, snapshot);
+        timings.record("metadata", start);
+      }
+    }
+  }
+
+  private JdbcConnectionPool.Lease leaseConnection(Configuration configuration, Timings timings)
+      throws SQLException {
+    long start = Timings.start();
+    JdbcConnectionPool.Lease lease =
+        JdbcConnectionPool.lease(
+            getParameters().getConnectionPoolBuildId().get(),
+            getDriver(configuration),
+            getParameters().getUrl().get(),
+            getParameters().getUser().getOrNull(),
+            getParameters().getPassword().getOrNull(),
+            getDriverProperties(configuration),
+            getParameters().getConnectTimeoutMillis().getOrElse(0L));
+    timings.record("connect", start);
+    if (lease.isReused()) {
+      logger.info("Reusing pooled connection to {}", getParameters().getUrl().get());
+    }
+    return lease;
+  }
+
+  /**
+   * Opens a connection to the database, with the driver properties of the configuration, watched by
+   * the {@linkplain CodegenWatchdog watchdog}.
+   */
+  private Connection openConnection(Configuration configuration) throws SQLException {
+    return watchdog.watch(
+        JdbcConnections.open(
+            getDriver(configuration),
+            getParameters().getUrl().get(),
+            getParameters().getUser().getOrNull(),
+            getParameters().getPassword().getOrNull(),
+            getDriverProperties(configuration),
+            getParameters().getConnectTimeoutMillis().getOrElse(0L)));
+  }
+
+  private static Properties getDriverProperties(Configuration configuration) {
+    Properties properties = new Properties();
+    if (configuration.getJdbc() != null && configuration.getJdbc().getProperties() != null) {
+      for (org.jooq.meta.jaxb.Property property : configuration.getJdbc().getProperties()) {
+        if (property.getKey() != null && property.getValue() != null) {
+          properties.setProperty(property.getKey(), property.getValue());
+        }
+      }
+    }
+    return properties;
+  }
+
+  @Nullable
+  private static String getDriver(Configuration configuration) {
+    return configuration.getJdbc() == null ? null : configuration.getJdbc().getDriver();
   }
 
   private void configureJdbc(Configuration configuration) {
@@ -93,6 +569,51 @@ abstract class JooqCodegenWorkAction implements WorkAction<JooqCodegenWorkAction
         getParameters().getPassword().getOrNull());
   }
 
+  private void configureSnapshot(Configuration configuration, Path snapshotFile) {
+    String dialect;
+    try {
+      dialect = Snapshots.readDialect(snapshotFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (dialect == null) {
+      logger.warn(
+          "Snapshot file ({}) does not record the SQL dialect of the database; using the DEFAULT dialect",
+          snapshotFile);
+      dialect = "DEFAULT";
+    }
+
+    // The JDBC configuration is only used when taking the snapshot
+    configuration.setJdbc(null);
+
+    Database database = configuration.getGenerator().getDatabase();
+    if (database == null) {
+      database = new Database();
+      configuration.getGenerator().setDatabase(database);
+    }
+    database.setName(Snapshots.XML_DATABASE);
+    List<org.jooq.meta.jaxb.Property> properties = database.getProperties();
+    properties.removeIf(
+        property -> "dialect".equals(property.getKey()) || "xmlFile".equals(property.getKey()));
+    properties.add(new org.jooq.meta.jaxb.Property().withKey("dialect").withValue(dialect));
+    properties.add(
+        new org.jooq.meta.jaxb.Property().withKey("xmlFile").withValue(snapshotFile.toString()));
+  }
+
+  private void configureMigrations(Configuration configuration) {
+    // The JDBC configuration only applies to the database the migrations would be applied to
+    configuration.setJdbc(null);
+
+    Database database = configuration.getGenerator().getDatabase();
+    if (database != null && !StringUtils.isBlank(database.getName())) {
+      logger.info(
+          "Configuration file ({}) has a configured generator.database.name ({}) that will be ignored, the database will be detected from the embedded database",
+          getParameters().getConfigurationFile().get().getAsFile().getPath(),
+          database.getName());
+      database.setName(null);
+    }
+  }
+
   private void configureTarget(Configuration configuration) {
     Target target = configuration.getGenerator().getTarget();
     if (target == null) {
@@ -102,7 +623,7 @@ abstract class JooqCodegenWorkAction implements WorkAction<JooqCodegenWorkAction
 
     if (Objects.equals(target.isClean(), false)) {
       logger.warn(
-          "Configuration file ({}) has a configured generator.target.clean with value false that will be ignored (the plugin always clear the output directory)",
+          "Configuration file ({}) has a configured generator.target.clean with value false that will be ignored (the plugin always removes stale files from the output directory)",
           getParameters().getConfigurationFile().get().getAsFile().getPath());
     }
     if (Objects.equals(target.getPackageName(), GenerationTool.DEFAULT_TARGET_PACKAGENAME)) {
@@ -128,6 +649,89 @@ abstract class JooqCodegenWorkAction implements WorkAction<JooqCodegenWorkAction
         getParameters().getEncoding().getOrElse(GenerationTool.DEFAULT_TARGET_ENCODING));
   }
 
+  /**
+   * Replaces the jOOQ Java or Kotlin generator with the plugin's counterpart, if parallel or
+   * incremental generation is enabled.
+   *
+   * @return whether the generator has been replaced
+   */
+  private boolean configureGenerator(Configuration configuration, boolean incremental) {
+    boolean parallel = getParameters().getParallelGeneration().getOrElse(false);
+    if (!parallel && !incremental) {
+      return false;
+    }
+    Generator generator = configuration.getGenerator();
+    String name = StringUtils.isBlank(generator.getName()) ? null : generator.getName().trim();
+    String pluginName;
+    if (name == null || JAVA_GENERATORS.contains(name)) {
+      pluginName = ParallelJavaGenerator.class.getName();
+    } else if (name.equals(KOTLIN_GENERATOR)) {
+      pluginName = ParallelKotlinGenerator.class.getName();
+    } else {
+      logger.warn(
+          "Configuration file ({}) has a configured generator.name ({}) that cannot be run {}; generating {}",
+          getParameters().getConfigurationFile().get().getAsFile().getPath(),
+          name,
+          parallel ? "in parallel" : "incrementally",
+          parallel ? "sequentially" : "all tables");
+      return false;
+    }
+    generator.setName(pluginName);
+    return true;
+  }
+
+  private static GenerationTool newGenerationTool(boolean pluginGenerator) {
+    GenerationTool generationTool = new GenerationTool();
+    if (pluginGenerator) {
+      // The plugin's generators are loaded alongside this class, that also sees the codegen
+      // classpath.
+      generationTool.setClassLoader(JooqCodegenWorkAction.class.getClassLoader());
+    }
+    return generationTool;
+  }
+
+  private void configureShard(Configuration configuration) {
+    List<String> excludedSchemas = getParameters().getExcludedSchemas().get();
+    boolean catalogOnly = getParameters().getCatalogOnly().get();
+    if (excludedSchemas.isEmpty() && !catalogOnly) {
+      return;
+    }
+
+    Database database = configuration.getGenerator().getDatabase();
+    if (database == null) {
+      database = new Database();
+      configuration.getGenerator().setDatabase(database);
+    }
+    Generate generate = configuration.getGenerator().getGenerate();
+    if (generate == null) {
+      generate = new Generate();
+      configuration.getGenerator().setGenerate(generate);
+    }
+
+    if (catalogOnly) {
+      database.setExcludes(".*");
+      generate.setEmptySchemas(true);
+      generate.setEmptyCatalogs(true);
+    } else {
+      // Excludes are matched against qualified names too, possibly including the catalog
+      StringBuilder excludes = new StringBuilder();
+      for (String schema : excludedSchemas) {
+        if (excludes.length() > 0) {
+          excludes.append('|');
+        }
+        excludes.append("(?:.*\\.)?").append(Pattern.quote(schema)).append("\\..*");
+      }
+      // Put the configured excludes last, as they could end with a comment.
+      if (!StringUtils.isBlank(database.getExcludes())) {
+        excludes.append('|').append(database.getExcludes());
+      }
+      database.setExcludes(excludes.toString());
+      // Empty schemas and catalogs are generated by the catalog shard
+      generate.setEmptySchemas(false);
+      generate.setEmptyCatalogs(false);
+    }
+  }
+
   private void set(
       String configurationFileValue,
       Consumer<String> set,
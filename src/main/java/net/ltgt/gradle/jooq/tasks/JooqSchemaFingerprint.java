@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.UntrackedTask;
+import org.gradle.api.tasks.options.Option;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Computes a fingerprint of the database schema, to be used as {@link
+ * JooqCodegen#getSchemaFingerprint()}.
+ *
+ * <p>The fingerprint is computed by a {@link net.ltgt.gradle.jooq.fingerprint.SchemaFingerprinter}
+ * found in the {@linkplain #getClasspath() classpath}, from the schemas configured in the
+ * {@linkplain #getConfigurationFile() configuration file} (either {@code
+ * generator.database.inputSchema} or {@code generator.database.schemata}), or all non-system
+ * schemas if none is configured.
+ *
+ * <p>Alternatively, a {@linkplain #getSchemaVersionQuery() schema version query} can be used to
+ * compute the fingerprint without reading the catalog.
+ */
+@UntrackedTask(because = "Depends on the database")
+public abstract class JooqSchemaFingerprint extends DefaultTask {
+
+  @Inject
+  protected abstract WorkerExecutor getWorkerExecutor();
+
+  /**
+   * The classpath used to compute the fingerprint, must contain the JDBC driver.
+   *
+   * <p>Defaults to the {@code jooqCodegenClasspath} configuration, itself extending the {@code
+   * jooqCodegen} configuration.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getClasspath();
+
+  /**
+   * The jdbc url to use to connect to the database.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain JooqCodegen#getUrl() url}.
+   */
+  @Input
+  @Option(option = "url", description = "Configures the database JDBC URL")
+  public abstract Property<String> getUrl();
+
+  /**
+   * The user to use to connect to the database.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain JooqCodegen#getUser() user}.
+   */
+  @Input
+  @Optional
+  @Option(option = "user", description = "Configures the database user")
+  public abstract Property<String> getUser();
+
+  /**
+   * The password to use to connect to the database.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain JooqCodegen#getPassword()
+   * password}.
+   */
+  @Input
+  @Optional
+  @Option(option = "password", description = "Configures the database password")
+  public abstract Property<String> getPassword();
+
+  /**
+   * The jOOQ code generation configuration file, used to determine the schemas to compute a
+   * fingerprint of.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain
+   * JooqCodegen#getConfigurationFile() configuration file}.
+   */
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getConfigurationFile();
+
+  /**
+   * The file where the fingerprint will be written.
+   *
+   * <p>Defaults to {@code build/jooq/<task name>.txt}.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getFingerprintFile();
+
+  /**
+   * Configures the java executable to be used to compute the fingerprint.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain JooqCodegen#getJavaLauncher()
+   * java launcher}.
+   */
+  @Nested
+  @Optional
+  public abstract Property<JavaLauncher> getJavaLauncher();
+
+  /**
+   * A query whose results identify the version of the database schema, used to compute the
+   * fingerprint rather than reading the catalog.
+   *
+   * <p>This is generally a query on the migration history table of a schema migration tool, such as
+   * Flyway or Liquibase; it's cheaper than reading the catalog, particularly on databases where
+   * reading the catalog is slow (such as Oracle), but won't detect changes made outside the schema
+   * migration tool.
+   */
+  @Input
+  @Optional
+  public abstract Property<String> getSchemaVersionQuery();
+
+  @TaskAction
+  void run() {
+    WorkQueues.create(getWorkerExecutor(), getClasspath(), getJavaLauncher().getOrNull())
+        .submit(
+            JooqSchemaFingerprintWorkAction.class,
+            params -> {
+              params.getUrl().set(getUrl());
+              params.getUser().set(getUser());
+              params.getPassword().set(getPassword());
+              params.getConfigurationFile().set(getConfigurationFile());
+              params.getFingerprintFile().set(getFingerprintFile());
+              params.getSchemaVersionQuery().set(getSchemaVersionQuery());
+            });
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import javax.inject.Inject;
+import net.ltgt.gradle.jooq.fingerprint.SchemaFingerprinter;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.jooq.meta.jaxb.Configuration;
+import org.jooq.meta.jaxb.Database;
+import org.jooq.meta.jaxb.SchemaMappingType;
+import org.jooq.tools.StringUtils;
+
+abstract class JooqSchemaFingerprintWorkAction
+    implements WorkAction<JooqSchemaFingerprintWorkAction.Parameters> {
+  interface Parameters extends WorkParameters {
+
+    Property<String> getUrl();
+
+    Property<String> getUser();
+
+    Property<String> getPassword();
+
+    RegularFileProperty getConfigurationFile();
+
+    RegularFileProperty getFingerprintFile();
+
+    Property<String> getSchemaVersionQuery();
+  }
+
+  @Inject
+  public JooqSchemaFingerprintWorkAction() {}
+
+  @Override
+  public void execute() {
+    Configuration configuration =
+        ConfigurationLoader.load(getParameters().getConfigurationFile().get().getAsFile().toPath());
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+    JdbcConnections.beginWork();
+    try (Connection connection =
+        JdbcConnections.open(
+            configuration.getJdbc() == null ? null : configuration.getJdbc().getDriver(),
+            getParameters().getUrl().get(),
+            getParameters().getUser().getOrNull(),
+            getParameters().getPassword().getOrNull())) {
+      SchemaFingerprinter fingerprinter =
+          getParameters().getSchemaVersionQuery().isPresent()
+              ? new SchemaVersionQueryFingerprinter(getParameters().getSchemaVersionQuery().get())
+              : findFingerprinter(connection.getMetaData());
+      fingerprinter.fingerprint(connection, getInputSchemas(configuration), digest);
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    } finally {
+      JdbcConnections.endWork();
+    }
+
+    StringBuilder fingerprint = new StringBuilder();
+    for (byte b : digest.digest()) {
+      fingerprint.append(String.format("%02x", b));
+    }
+    try {
+      Files.write(
+          getParameters().getFingerprintFile().get().getAsFile().toPath(),
+          fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private SchemaFingerprinter findFingerprinter(DatabaseMetaData metaData) throws SQLException {
+    for (SchemaFingerprinter fingerprinter :
+        ServiceLoader.load(SchemaFingerprinter.class, getClass().getClassLoader())) {
+      if (fingerprinter.supports(metaData)) {
+        return fingerprinter;
+      }
+    }
+    throw new InvalidUserDataException(
+        "No schema fingerprinter found for "
+            + metaData.getDatabaseProductName()
+            + " "
+            + metaData.getDatabaseProductVersion()
+            + ". Configure a schemaVersionQuery on the task to compute the fingerprint from the"
+            + " results of a query (e.g. on the migration history table of Flyway or Liquibase), or"
+            + " add an implementation of "
+            + SchemaFingerprinter.class.getName()
+            + " to the jooqCodegen configuration, registered in a META-INF/services/"
+            + SchemaFingerprinter.class.getName()
+            + " file.");
+  }
+
+  private static List<String> getInputSchemas(Configuration configuration) {
+    List<String> schemas = new ArrayList<>();
+    Database database = configuration.getGenerator().getDatabase();
+    if (database == null) {
+      return schemas;
+    }
+    if (!StringUtils.isBlank(database.getInputSchema())) {
+      schemas.add(database.getInputSchema());
+    }
+    for (SchemaMappingType schema : database.getSchemata()) {
+      if (!StringUtils.isBlank(schema.getInputSchema())) {
+        schemas.add(schema.getInputSchema());
+      }
+    }
+    return schemas;
+  }
+}
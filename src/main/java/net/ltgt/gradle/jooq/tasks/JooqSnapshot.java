@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.UntrackedTask;
+import org.gradle.api.tasks.options.Option;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Reads the database schema and writes it to a snapshot file, to be used as {@link
+ * JooqCodegen#getSnapshotFile()}.
+ *
+ * <p>The snapshot is a jOOQ {@code InformationSchema} XML file, generated by jOOQ's {@code
+ * XMLGenerator} using the {@linkplain #getConfigurationFile() configuration file} (so it only
+ * contains the objects included by the configuration), and records the SQL dialect of the database.
+ */
+@UntrackedTask(because = "Depends on the database")
+public abstract class JooqSnapshot extends DefaultTask {
+
+  @Inject
+  protected abstract WorkerExecutor getWorkerExecutor();
+
+  @Inject
+  protected abstract FileSystemOperations getFileSystemOperations();
+
+  /**
+   * The classpath for executing the jOOQ code generator, must contain the JDBC driver.
+   *
+   * <p>Defaults to the {@code jooqCodegenClasspath} configuration, itself extending the {@code
+   * jooqCodegen} configuration.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getClasspath();
+
+  /**
+   * The jdbc url to use to connect to the database.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain JooqCodegen#getUrl() url}.
+   */
+  @Input
+  @Option(option = "url", description = "Configures the database JDBC URL")
+  public abstract Property<String> getUrl();
+
+  /**
+   * The user to use to connect to the database.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain JooqCodegen#getUser() user}.
+   */
+  @Input
+  @Optional
+  @Option(option = "user", description = "Configures the database user")
+  public abstract Property<String> getUser();
+
+  /**
+   * The password to use to connect to the database.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain JooqCodegen#getPassword()
+   * password}.
+   */
+  @Input
+  @Optional
+  @Option(option = "password", description = "Configures the database password")
+  public abstract Property<String> getPassword();
+
+  /**
+   * The jOOQ code generation configuration file, used to determine the objects to include in the
+   * snapshot.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain
+   * JooqCodegen#getConfigurationFile() configuration file}.
+   */
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getConfigurationFile();
+
+  /**
+   * The file where the snapshot will be written.
+   *
+   * <p>For the {@code jooqSnapshot} task, defaults to {@code src/jooq-snapshot.xml}.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getSnapshotFile();
+
+  /**
+   * Configures the java executable to be used to read the database schema.
+   *
+   * <p>When the {@code jooq} task exists, defaults to its {@linkplain JooqCodegen#getJavaLauncher()
+   * java launcher}.
+   */
+  @Nested
+  @Optional
+  public abstract Property<JavaLauncher> getJavaLauncher();
+
+  @TaskAction
+  void run() {
+    File workDirectory = new File(getTemporaryDir(), "xml");
+    getFileSystemOperations().delete(spec -> spec.delete(workDirectory));
+    WorkQueues.create(getWorkerExecutor(), getClasspath(), getJavaLauncher().getOrNull())
+        .submit(
+            JooqSnapshotWorkAction.class,
+            params -> {
+              params.getUrl().set(getUrl());
+              params.getUser().set(getUser());
+              params.getPassword().set(getPassword());
+              params.getConfigurationFile().set(getConfigurationFile());
+              params.getWorkDirectory().set(workDirectory);
+              params.getSnapshotFile().set(getSnapshotFile());
+            });
+  }
+}
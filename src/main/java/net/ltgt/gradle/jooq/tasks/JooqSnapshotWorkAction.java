@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.sql.Connection;
+import javax.inject.Inject;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.jooq.meta.jaxb.Configuration;
+
+abstract class JooqSnapshotWorkAction implements WorkAction<JooqSnapshotWorkAction.Parameters> {
+  interface Parameters extends WorkParameters {
+
+    Property<String> getUrl();
+
+    Property<String> getUser();
+
+    Property<String> getPassword();
+
+    RegularFileProperty getConfigurationFile();
+
+    DirectoryProperty getWorkDirectory();
+
+    RegularFileProperty getSnapshotFile();
+  }
+
+  @Inject
+  public JooqSnapshotWorkAction() {}
+
+  @Override
+  public void execute() {
+    Configuration configuration =
+        ConfigurationLoader.load(getParameters().getConfigurationFile().get().getAsFile().toPath());
+
+    JdbcConnections.beginWork();
+    try (Connection connection =
+        JdbcConnections.open(
+            configuration.getJdbc() == null ? null : configuration.getJdbc().getDriver(),
+            getParameters().getUrl().get(),
+            getParameters().getUser().getOrNull(),
+            getParameters().getPassword().getOrNull())) {
+      Snapshots.take(
+          configuration,
+          connection,
+          getParameters().getWorkDirectory().get().getAsFile().toPath(),
+          getParameters().getSnapshotFile().get().getAsFile().toPath());
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    } finally {
+      JdbcConnections.endWork();
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A cache of introspected database metadata, as {@linkplain Snapshots snapshots}, used by the
+ * workers.
+ *
+ * <p>Entries are keyed by everything that can change the introspected metadata: the database URL,
+ * the schema fingerprint, and the configuration (including the included and excluded objects). The
+ * number of entries is bounded, least recently used entries being evicted first; the last modified
+ * time of the files is used to track their use.
+ *
+ * <p>The cache can be used concurrently by several workers, possibly in distinct processes: entries
+ * are copied in and out of the cache while holding a lock on the cache directory, such that an
+ * entry being evicted is never in use.
+ */
+final class MetadataCache {
+  private static final String EXTENSION = ".xml";
+  private static final String LOCK_FILE = ".lock";
+
+  private final Path directory;
+  private final int maxEntries;
+
+  MetadataCache(Path directory, int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+    }
+    this.directory = directory;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Copies the cached file for the given key, if any, to the given file, marking it as recently
+   * used.
+   *
+   * @return whether the key was in the cache
+   */
+  boolean get(String key, Path file) throws IOException {
+    return withLock(
+        () -> {
+          Path entry = directory.resolve(key + EXTENSION);
+          try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+          } catch (NoSuchFileException e) {
+            return false;
+          }
+          Files.createDirectories(file.toAbsolutePath().getParent());
+          Files.copy(entry, file, StandardCopyOption.REPLACE_EXISTING);
+          return true;
+        });
+  }
+
+  /**
+   * Copies the given file into the cache for the given key, then evicts the least recently used
+   * entries.
+   */
+  void put(String key, Path file) throws IOException {
+    withLock(
+        () -> {
+          Path entry = directory.resolve(key + EXTENSION);
+          Files.copy(file, entry, StandardCopyOption.REPLACE_EXISTING);
+          Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+          evict();
+          return null;
+        });
+  }
+
+  private void evict() throws IOException {
+    List<Path> entries;
+    try (Stream<Path> files = Files.list(directory)) {
+      entries =
+          files
+              .filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+              .collect(Collectors.toCollection(ArrayList::new));
+    }
+    if (entries.size() <= maxEntries) {
+      return;
+    }
+    entries.sort(Comparator.comparing(MetadataCache::lastModified).reversed());
+    for (Path entry : entries.subList(maxEntries, entries.size())) {
+      Files.delete(entry);
+    }
+  }
+
+  private static FileTime lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  private interface Action<T> {
+    T run() throws IOException;
+  }
+
+  /**
+   * Runs the action while holding the lock on the cache directory.
+   *
+   * <p>File locks are held on behalf of the whole JVM, and workers running in the same JVM can have
+   * distinct class loaders, so they additionally synchronize on the (interned) path of the lock
+   * file.
+   */
+  @SuppressWarnings("StringIntern")
+  private <T> T withLock(Action<T> action) throws IOException {
+    Files.createDirectories(directory);
+    Path lockFile = directory.resolve(LOCK_FILE).toAbsolutePath();
+    synchronized (lockFile.toString().intern()) {
+      try (FileChannel channel =
+          FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        // Closing the channel releases the lock
+        channel.lock();
+        return action.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.impl.DSL;
+
+/** Applies SQL migration scripts to an (embedded) database, in the worker. */
+final class Migrations {
+  private Migrations() {}
+
+  /**
+   * Compares file names in their <i>natural</i> order, where sequences of digits are compared
+   * numerically (e.g. {@code V2__foo.sql} sorts before {@code V10__bar.sql}).
+   *
+   * <p>The version of Flyway-like names (before the {@code __} separator) is compared first, such
+   * that {@code V1__foo.sql} sorts before {@code V1_1__bar.sql}.
+   */
+  static final Comparator<File> NATURAL_ORDER =
+      Comparator.<File, String>comparing(
+              file -> version(file.getName()), Migrations::compareNatural)
+          .thenComparing(File::getName, Migrations::compareNatural)
+          .thenComparing(File::getPath);
+
+  /** Returns the SQL files, in the order they should be applied. */
+  static List<File> sort(Iterable<File> files) {
+    List<File> sorted = new ArrayList<>();
+    for (File file : files) {
+      if (file.isFile() && file.getName().endsWith(".sql")) {
+        sorted.add(file);
+      }
+    }
+    sorted.sort(NATURAL_ORDER);
+    return sorted;
+  }
+
+  /**
+   * Applies the scripts, in order.
+   *
+   * <p>Scripts are parsed by jOOQ's parser and each statement is then executed in the dialect of
+   * the database, which allows applying scripts written for another database, within the limits of
+   * jOOQ's parser and the database's features.
+   */
+  static void apply(Connection connection, List<File> scripts) throws IOException, SQLException {
+    DSLContext ctx = DSL.using(connection);
+    for (File script : scripts) {
+      String sql = new String(Files.readAllBytes(script.toPath()), StandardCharsets.UTF_8);
+      try {
+        for (Query query : ctx.parser().parse(sql)) {
+          query.execute();
+        }
+      } catch (RuntimeException e) {
+        throw new SQLException("Error applying migration script " + script, e);
+      }
+    }
+  }
+
+  private static String version(String name) {
+    int index = name.indexOf("__");
+    return index < 0 ? name : name.substring(0, index);
+  }
+
+  private static int compareNatural(String a, String b) {
+    int i = 0;
+    int j = 0;
+    while (i < a.length() && j < b.length()) {
+      char ca = a.charAt(i);
+      char cb = b.charAt(j);
+      if (isDigit(ca) && isDigit(cb)) {
+        int endA = skipDigits(a, i);
+        int endB = skipDigits(b, j);
+        int result = compareNumbers(a.substring(i, endA), b.substring(j, endB));
+        if (result != 0) {
+          return result;
+        }
+        i = endA;
+        j = endB;
+      } else {
+        if (ca != cb) {
+          return Character.compare(ca, cb);
+        }
+        i++;
+        j++;
+      }
+    }
+    return Integer.compare(a.length() - i, b.length() - j);
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static int skipDigits(String s, int start) {
+    int end = start;
+    while (end < s.length() && isDigit(s.charAt(end))) {
+      end++;
+    }
+    return end;
+  }
+
+  private static int compareNumbers(String a, String b) {
+    // Ignore leading zeros, then longer means greater
+    String strippedA = a.replaceFirst("^0+(?=.)", "");
+    String strippedB = b.replaceFirst("^0+(?=.)", "");
+    if (strippedA.length() != strippedB.length()) {
+      return Integer.compare(strippedA.length(), strippedB.length());
+    }
+    return strippedA.compareTo(strippedB);
+  }
+}
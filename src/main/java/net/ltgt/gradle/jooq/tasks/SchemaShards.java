@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A code generation split into one generation per schema, plus a <i>catalog</i> generation.
+ *
+ * <p>Each schema shard generates the objects of its schema only, all other schemas being excluded,
+ * but still listed in the configuration such that the generated code is laid out the same (jOOQ
+ * puts each schema into its own sub-package when there are several of them). The catalog shard
+ * excludes all objects, but generates empty schemas and catalogs, to produce the catalog classes
+ * that reference all schemas.
+ *
+ * <p>Merging then takes each file from the only schema shard that generated it, or from the catalog
+ * shard if it's been generated by several schema shards (e.g. the catalog classes) or none (e.g.
+ * empty schemas).
+ */
+final class SchemaShards {
+  private final List<String> schemas;
+  private final File shardsDirectory;
+
+  SchemaShards(List<String> schemas, File shardsDirectory) {
+    this.schemas = schemas;
+    this.shardsDirectory = shardsDirectory;
+  }
+
+  List<String> getSchemas() {
+    return schemas;
+  }
+
+  /** Returns the schemas to exclude from the shard for the schema at the given index. */
+  List<String> getExcludedSchemas(int index) {
+    List<String> excludedSchemas = new ArrayList<>(schemas);
+    excludedSchemas.remove(index);
+    return excludedSchemas;
+  }
+
+  File getSchemaShardDirectory(int index) {
+    return new File(shardsDirectory, String.valueOf(index));
+  }
+
+  File getCatalogShardDirectory() {
+    return new File(shardsDirectory, "catalog");
+  }
+
+  /** Merges the outputs of the shards into the target directory. */
+  void merge(Path target) throws IOException {
+    Files.createDirectories(target);
+    // relative path -> schema shard directories that generated it
+    Map<Path, List<Path>> files = new LinkedHashMap<>();
+    for (int i = 0; i < schemas.size(); i++) {
+      Path shardDirectory = getSchemaShardDirectory(i).toPath();
+      for (Path relativePath : listFiles(shardDirectory)) {
+        files.computeIfAbsent(relativePath, ignored -> new ArrayList<>()).add(shardDirectory);
+      }
+    }
+    Path catalogShardDirectory = getCatalogShardDirectory().toPath();
+    for (Path relativePath : listFiles(catalogShardDirectory)) {
+      files.computeIfAbsent(relativePath, ignored -> new ArrayList<>());
+    }
+
+    for (Map.Entry<Path, List<Path>> entry : files.entrySet()) {
+      Path relativePath = entry.getKey();
+      Path source =
+          entry.getValue().size() == 1
+              ? entry.getValue().get(0).resolve(relativePath)
+              : catalogShardDirectory.resolve(relativePath);
+      if (!Files.isRegularFile(source)) {
+        throw new IllegalStateException(
+            "Cannot merge sharded outputs: "
+                + relativePath
+                + " has been generated by several shards but not the catalog shard");
+      }
+      Path targetFile = target.resolve(relativePath);
+      Files.createDirectories(targetFile.getParent());
+      Files.copy(source, targetFile);
+    }
+  }
+
+  private static List<Path> listFiles(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return new ArrayList<>();
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths
+          .filter(Files::isRegularFile)
+          .map(directory::relativize)
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Signatures of the tables of a {@linkplain Snapshots schema snapshot}, to tell which tables
+ * changed between two snapshots.
+ *
+ * <p>Each record of the snapshot (column, constraint, index, etc.) is attributed to the tables it
+ * references, either directly or through a constraint; a foreign key is thus attributed to both the
+ * referencing and the referenced tables, as the code generated for both depends on it (including
+ * the name of the other table). All other records (catalogs, schemas, sequences, routines, types,
+ * etc.) contribute to a global signature, along with the SQL dialect: when it changes, all tables
+ * have to be considered changed.
+ */
+final class SchemaSignatures {
+  private final String global;
+  private final Map<List<String>, String> tables;
+
+  SchemaSignatures(String global, Map<List<String>, String> tables) {
+    this.global = global;
+    this.tables = tables;
+  }
+
+  String getGlobal() {
+    return global;
+  }
+
+  /** The signature of each table, by catalog, schema, and table name. */
+  Map<List<String>, String> getTables() {
+    return tables;
+  }
+
+  static SchemaSignatures read(Path snapshot) throws IOException {
+    List<Map<String, String>> records = new ArrayList<>();
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try (InputStream in = Files.newInputStream(snapshot)) {
+      XMLStreamReader reader = factory.createXMLStreamReader(in);
+      try {
+        readRecords(reader, records);
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException("Cannot read snapshot " + snapshot, e);
+    }
+
+    // Constraints are referenced by name, e.g. from check or referential constraints
+    Map<List<String>, List<String>> constraintTables = new HashMap<>();
+    for (Map<String, String> record : records) {
+      List<String> table = tableKey(record, "table_");
+      if (table != null && record.containsKey("constraint_name")) {
+        constraintTables.put(constraintKey(record, "constraint_"), table);
+      }
+    }
+
+    StringBuilder global = new StringBuilder("dialect=").append(Snapshots.readDialect(snapshot));
+    Map<List<String>, StringBuilder> tables = new LinkedHashMap<>();
+    for (Map<String, String> record : records) {
+      Set<List<String>> referencedTables = new HashSet<>();
+      List<String> table = tableKey(record, "table_");
+      if (table != null) {
+        referencedTables.add(table);
+      }
+      boolean unknownConstraint = false;
+      for (String prefix : Arrays.asList("constraint_", "unique_constraint_")) {
+        if (record.containsKey(prefix + "name")) {
+          List<String> constraintTable = constraintTables.get(constraintKey(record, prefix));
+          if (constraintTable != null) {
+            referencedTables.add(constraintTable);
+          } else {
+            unknownConstraint = true;
+          }
+        }
+      }
+      // The referenced tables are part of the signature, e.g. for the referencing table of a
+      // foreign key to be part of the signature of the referenced table.
+      String signature = record + " " + names(referencedTables);
+      if (referencedTables.isEmpty() || unknownConstraint) {
+        global.append('\n').append(signature);
+      }
+      for (List<String> referencedTable : referencedTables) {
+        tables
+            .computeIfAbsent(referencedTable, k -> new StringBuilder())
+            .append('\n')
+            .append(signature);
+      }
+    }
+
+    Map<List<String>, String> tableSignatures = new LinkedHashMap<>();
+    for (Map.Entry<List<String>, StringBuilder> entry : tables.entrySet()) {
+      tableSignatures.put(entry.getKey(), hash(entry.getValue()));
+    }
+    return new SchemaSignatures(hash(global), tableSignatures);
+  }
+
+  /**
+   * Reads the records of the snapshot: the children of the lists (e.g. {@code tables}) of the root
+   * element, as maps of their fields (e.g. {@code table_name}) to their values, the list name being
+   * recorded as an additional {@code #} field.
+   */
+  private static void readRecords(XMLStreamReader reader, List<Map<String, String>> records)
+      throws XMLStreamException {
+    int depth = 0;
+    String list = null;
+    Map<String, String> record = null;
+    String field = null;
+    StringBuilder value = new StringBuilder();
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          if (depth == 2) {
+            list = reader.getLocalName();
+          } else if (depth == 3) {
+            record = new LinkedHashMap<>();
+            record.put("#", list);
+          } else if (depth == 4) {
+            field = reader.getLocalName();
+            value.setLength(0);
+          } else if (depth > 4 && record != null) {
+            // Nested structures aren't expected; keep them in the signature anyway
+            value.append('<').append(reader.getLocalName()).append('>');
+          }
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+          if (depth >= 4) {
+            value.append(reader.getText());
+          }
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          if (depth == 4 && record != null) {
+            record.put(field, value.toString());
+          } else if (depth == 3 && record != null) {
+            records.add(record);
+            record = null;
+          }
+          depth--;
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private static Set<String> names(Set<List<String>> tables) {
+    Set<String> names = new TreeSet<>();
+    for (List<String> table : tables) {
+      names.add(table.toString());
+    }
+    return names;
+  }
+
+  @Nullable
+  private static List<String> tableKey(Map<String, String> record, String prefix) {
+    String name = record.get(prefix + "name");
+    if (name == null) {
+      return null;
+    }
+    return Arrays.asList(
+        record.getOrDefault(prefix + "catalog", ""),
+        record.getOrDefault(prefix + "schema", ""),
+        name);
+  }
+
+  private static List<String> constraintKey(Map<String, String> record, String prefix) {
+    return Arrays.asList(
+        record.getOrDefault(prefix + "catalog", ""),
+        record.getOrDefault(prefix + "schema", ""),
+        record.get(prefix + "name"));
+  }
+
+  private static String hash(CharSequence signature) {
+    return Hashes.sha256(Hashes.bytes(signature.toString()));
+  }
+}
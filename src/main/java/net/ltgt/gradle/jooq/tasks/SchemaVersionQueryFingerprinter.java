@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.sql.DatabaseMetaData;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import net.ltgt.gradle.jooq.fingerprint.QuerySchemaFingerprinter;
+
+/**
+ * Computes a fingerprint from the results of a user-provided <i>schema version query</i>, e.g. on
+ * the migration history table of a schema migration tool.
+ */
+final class SchemaVersionQueryFingerprinter extends QuerySchemaFingerprinter {
+  private final String query;
+
+  SchemaVersionQueryFingerprinter(String query) {
+    this.query = query;
+  }
+
+  @Override
+  public boolean supports(DatabaseMetaData metaData) {
+    return true;
+  }
+
+  @Override
+  protected List<String> getQueries(Function<String, String> schemaCondition) {
+    return Collections.singletonList(query);
+  }
+
+  @Override
+  protected String getNonSystemSchemaCondition(String column) {
+    // Unused, as the query doesn't use the schema condition
+    return "1 = 1";
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * Database metadata, as {@linkplain Snapshots snapshots}, shared by all code generations running
+ * with the same class loader (i.e. same classpath) in the same JVM.
+ *
+ * <p>The metadata of a database is read by the first code generation needing it, while the others
+ * wait for it, then generate from the snapshot, applying their own configuration (includes,
+ * excludes, forced types, etc.). Snapshots are only shared within a build, as identified by the
+ * {@link JdbcConnectionPoolService}; snapshots from a previous build are deleted as soon as a
+ * snapshot is requested for a new build.
+ */
+final class SharedMetadata {
+  private SharedMetadata() {}
+
+  /** Reads the database metadata into a snapshot, using the given work directory. */
+  interface Reader {
+    void read(Path workDirectory, Path snapshot) throws Exception;
+  }
+
+  // [url, user, database name] -> snapshot
+  private static final Map<List<String>, Future<Path>> snapshots = new HashMap<>();
+  @Nullable private static String currentBuildId;
+  @Nullable private static Path directory;
+  private static int nextId;
+
+  /**
+   * Returns the snapshot for the given build and key, reading it with the given reader if no other
+   * code generation has already read it (or is reading it).
+   */
+  static Path get(String buildId, List<String> key, Reader reader) throws Exception {
+    Future<Path> snapshot;
+    FutureTask<Path> read = null;
+    synchronized (SharedMetadata.class) {
+      if (!buildId.equals(currentBuildId)) {
+        deleteAll();
+        currentBuildId = buildId;
+        directory = Files.createTempDirectory("jooq-shared-metadata");
+      }
+      snapshot = snapshots.get(key);
+      if (snapshot == null) {
+        Path workDirectory = directory.resolve(String.valueOf(nextId++));
+        Path file = workDirectory.resolveSibling(workDirectory.getFileName() + ".xml");
+        read =
+            new FutureTask<>(
+                () -> {
+                  reader.read(workDirectory, file);
+                  return file;
+                });
+        snapshot = read;
+        snapshots.put(key, snapshot);
+      }
+    }
+    if (read != null) {
+      read.run();
+    }
+    try {
+      return snapshot.get();
+    } catch (ExecutionException e) {
+      if (read != null) {
+        // Let later code generations try again
+        synchronized (SharedMetadata.class) {
+          snapshots.remove(key, read);
+        }
+      }
+      Throwable cause = e.getCause();
+      throw cause instanceof Exception ? (Exception) cause : e;
+    }
+  }
+
+  private static void deleteAll() throws IOException {
+    snapshots.clear();
+    nextId = 0;
+    if (directory != null) {
+      try (Stream<Path> files = Files.walk(directory)) {
+        for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+          Files.deleteIfExists(file);
+        }
+      }
+      directory = null;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import net.ltgt.gradle.jooq.codegen.SnapshotGenerator;
+import org.jooq.codegen.GenerationTool;
+import org.jooq.meta.jaxb.Configuration;
+import org.jooq.meta.jaxb.Target;
+import org.jooq.tools.jdbc.JDBCUtils;
+
+/**
+ * Reads and writes schema snapshots: jOOQ {@code InformationSchema} XML files, as read by jOOQ's
+ * {@code XMLDatabase}, with an additional comment recording the SQL dialect of the database they've
+ * been read from.
+ */
+final class Snapshots {
+  private Snapshots() {}
+
+  static final String XML_DATABASE = "org.jooq.meta.xml.XMLDatabase";
+
+  private static final Pattern DIALECT_COMMENT = Pattern.compile("<!-- jOOQ dialect: (\\w+) -->");
+
+  /**
+   * Reads the database schema and writes it as a snapshot.
+   *
+   * <p>This uses jOOQ's {@code XMLGenerator} to read the schema with the configured database (and
+   * includes, excludes, etc.), generating into the given work directory. It fails if the database
+   * has objects that cannot be read back from the snapshot (see {@link SnapshotGenerator}).
+   */
+  static void take(
+      Configuration configuration, Connection connection, Path workDirectory, Path snapshot)
+      throws Exception {
+    configuration.getGenerator().setName(SnapshotGenerator.class.getName());
+    Target target = configuration.getGenerator().getTarget();
+    if (target == null) {
+      target = new Target();
+      configuration.getGenerator().setTarget(target);
+    }
+    target.setDirectory(workDirectory.toString());
+    target.setClean(true);
+
+    GenerationTool generationTool = new GenerationTool();
+    // The plugin's generator is loaded alongside this class, that also sees the codegen classpath.
+    generationTool.setClassLoader(Snapshots.class.getClassLoader());
+    generationTool.setConnection(connection);
+    generationTool.run(configuration);
+
+    write(findInformationSchema(workDirectory), JDBCUtils.dialect(connection).name(), snapshot);
+  }
+
+  /** Writes the snapshot from an XML file generated by jOOQ's {@code XMLGenerator}. */
+  static void write(Path informationSchema, String dialect, Path snapshot) throws IOException {
+    String xml = new String(Files.readAllBytes(informationSchema), StandardCharsets.UTF_8);
+    // Insert the comment after the XML declaration, if any
+    int index = xml.startsWith("<?xml") ? xml.indexOf("?>") + 2 : 0;
+    Files.createDirectories(snapshot.toAbsolutePath().getParent());
+    try (Writer writer = Files.newBufferedWriter(snapshot, StandardCharsets.UTF_8)) {
+      writer.write(xml, 0, index);
+      writer.write("\n<!-- jOOQ dialect: " + dialect + " -->\n");
+      writer.write(xml.substring(index).replaceFirst("^\\s+", ""));
+    }
+  }
+
+  private static Path findInformationSchema(Path directory) throws IOException {
+    List<Path> xmlFiles;
+    try (Stream<Path> paths = Files.walk(directory)) {
+      xmlFiles =
+          paths
+              .filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".xml"))
+              .collect(Collectors.toList());
+    }
+    if (xmlFiles.size() != 1) {
+      throw new IllegalStateException(
+          "Expected jOOQ's XMLGenerator to generate exactly one file, found " + xmlFiles);
+    }
+    return xmlFiles.get(0);
+  }
+
+  /** Returns the SQL dialect recorded in the snapshot, if any. */
+  @Nullable
+  static String readDialect(Path snapshot) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+      // The comment is written right after the XML declaration
+      for (int i = 0; i < 3; i++) {
+        String line = reader.readLine();
+        if (line == null) {
+          break;
+        }
+        Matcher matcher = DIALECT_COMMENT.matcher(line);
+        if (matcher.find()) {
+          return matcher.group(1);
+        }
+      }
+    }
+    return null;
+  }
+}
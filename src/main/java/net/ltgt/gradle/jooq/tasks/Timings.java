@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durations of the phases of a code generation, along with the number of generated files and their
+ * size.
+ *
+ * <p>Timings are recorded by the workers and stored to a file, to be read back by the task.
+ */
+final class Timings {
+  private final Map<String, Long> phases = new LinkedHashMap<>();
+  private long files;
+  private long bytes;
+  private long peakHeapBytes;
+
+  /** Returns a start time, to later {@linkplain #record(String, long) record} a phase. */
+  static long start() {
+    return System.nanoTime();
+  }
+
+  /** Records the duration of a phase, since the given start time. */
+  void record(String phase, long start) {
+    phases.merge(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), (a, b) -> a + b);
+  }
+
+  /** Counts the files, and their size, in the given directory. */
+  void countFiles(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+        files++;
+        bytes += Files.size(path);
+      }
+    }
+  }
+
+  /** Returns the phases' durations in milliseconds, in the order they've been recorded. */
+  Map<String, Long> getPhases() {
+    return Collections.unmodifiableMap(phases);
+  }
+
+  long getFiles() {
+    return files;
+  }
+
+  long getBytes() {
+    return bytes;
+  }
+
+  /** Returns the peak heap usage of the forked code generator, or 0 if not recorded. */
+  long getPeakHeapBytes() {
+    return peakHeapBytes;
+  }
+
+  void setPeakHeapBytes(long peakHeapBytes) {
+    this.peakHeapBytes = peakHeapBytes;
+  }
+
+  void store(Path file) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("phases", String.join(",", phases.keySet()));
+    for (Map.Entry<String, Long> phase : phases.entrySet()) {
+      properties.setProperty("phase." + phase.getKey(), String.valueOf(phase.getValue()));
+    }
+    properties.setProperty("files", String.valueOf(files));
+    properties.setProperty("bytes", String.valueOf(bytes));
+    properties.setProperty("peakHeap", String.valueOf(peakHeapBytes));
+    try (OutputStream os = Files.newOutputStream(file)) {
+      properties.store(os, null);
+    }
+  }
+
+  static Timings load(Path file) throws IOException {
+    Properties properties = new Properties();
+    try (InputStream is = Files.newInputStream(file)) {
+      properties.load(is);
+    }
+    Timings timings = new Timings();
+    String phases = properties.getProperty("phases", "");
+    if (!phases.isEmpty()) {
+      for (String phase : phases.split(",", -1)) {
+        timings.phases.put(phase, Long.parseLong(properties.getProperty("phase." + phase, "0")));
+      }
+    }
+    timings.files = Long.parseLong(properties.getProperty("files", "0"));
+    timings.bytes = Long.parseLong(properties.getProperty("bytes", "0"));
+    timings.peakHeapBytes = Long.parseLong(properties.getProperty("peakHeap", "0"));
+    return timings;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.gradle.api.Action;
+import org.gradle.api.file.FileCollection;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+
+final class WorkQueues {
+  private WorkQueues() {}
+
+  /**
+   * Creates a work queue running <i>in-process</i> if the java launcher is the same as the one used
+   * to run Gradle, or in a forked process otherwise.
+   */
+  static WorkQueue create(
+      WorkerExecutor workerExecutor,
+      FileCollection classpath,
+      @Nullable JavaLauncher javaLauncher) {
+    return create(workerExecutor, classpath, javaLauncher, Collections.emptyList());
+  }
+
+  /**
+   * Creates a work queue running <i>in-process</i> if the java launcher is the same as the one used
+   * to run Gradle, or in a forked process otherwise.
+   *
+   * <p>The JVM arguments are only used when running in a forked process.
+   */
+  static WorkQueue create(
+      WorkerExecutor workerExecutor,
+      FileCollection classpath,
+      @Nullable JavaLauncher javaLauncher,
+      List<String> jvmArgs) {
+    return create(
+        workerExecutor,
+        classpath,
+        javaLauncher,
+        javaLauncher != null && isForked(javaLauncher),
+        forkOptions -> forkOptions.jvmArgs(jvmArgs));
+  }
+
+  /**
+   * Creates a work queue running in a forked process if {@code fork} is {@code true}, or
+   * <i>in-process</i> otherwise.
+   *
+   * <p>The fork options are only used when running in a forked process.
+   */
+  static WorkQueue create(
+      WorkerExecutor workerExecutor,
+      FileCollection classpath,
+      @Nullable JavaLauncher javaLauncher,
+      boolean fork,
+      Action<? super JavaForkOptions> forkOptions) {
+    if (!fork) {
+      return workerExecutor.classLoaderIsolation(spec -> spec.getClasspath().from(classpath));
+    }
+    return workerExecutor.processIsolation(
+        spec -> {
+          spec.getClasspath().from(classpath);
+          spec.forkOptions(
+              options -> {
+                if (javaLauncher != null) {
+                  options.setExecutable(javaLauncher.getExecutablePath());
+                }
+                forkOptions.execute(options);
+              });
+        });
+  }
+
+  /** Returns whether a work queue for the given java launcher will run in a forked process. */
+  static boolean isForked(JavaLauncher javaLauncher) {
+    return !javaLauncher.getMetadata().isCurrentJvm();
+  }
+}
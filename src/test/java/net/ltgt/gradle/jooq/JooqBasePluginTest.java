@@ -21,6 +21,9 @@ import com.google.common.truth.Correspondence;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import net.ltgt.gradle.jooq.tasks.JooqCodegen;
+import net.ltgt.gradle.jooq.tasks.JooqCodegenCheck;
+import net.ltgt.gradle.jooq.tasks.JooqSchemaFingerprint;
+import net.ltgt.gradle.jooq.tasks.JooqSnapshot;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.DependencyScopeConfiguration;
 import org.gradle.api.artifacts.ResolvableConfiguration;
@@ -57,6 +60,7 @@ class JooqBasePluginTest {
         .containsExactly(jooqCodegenConfiguration);
 
     assertThat(project.getTasks().withType(JooqCodegen.class)).hasSize(1);
+    assertThat(project.getTasks().withType(JooqCodegenCheck.class)).hasSize(1);
 
     var jooq = project.getTasks().withType(JooqCodegen.class).getByName("jooq");
     assertThat(jooq.getClasspath().getFrom())
@@ -72,6 +76,75 @@ class JooqBasePluginTest {
     assertThat(jooq.getConfigurationFile().isPresent()).isFalse();
     assertThat(jooq.getOutputDirectory().isPresent()).isFalse();
     assertThat(jooq.getJavaLauncher().isPresent()).isFalse();
+    assertThat(jooq.getSchemaFingerprint().isPresent()).isFalse();
+    assertThat(jooq.getExecutions()).isEmpty();
+    assertThat(jooq.getClassDataSharingArchiveDirectory().isPresent()).isFalse();
+    assertThat(jooq.getShardBySchema().get()).isFalse();
+    assertThat(jooq.getSnapshotFile().isPresent()).isFalse();
+    assertThat(jooq.getMigrations()).isEmpty();
+    assertThat(jooq.getMigrationsDatabaseUrl().getOrNull()).isEqualTo("jdbc:h2:mem:");
+    assertThat(jooq.getMetadataCacheDirectory().isPresent()).isFalse();
+    assertThat(jooq.getMetadataCacheSize().getOrNull()).isEqualTo(10);
+    assertThat(jooq.getReportFile().getAsFile().getOrNull())
+        .isEqualTo(project.file("build/reports/jooq/jooq.json"));
+    assertThat(jooq.getPoolConnections().get()).isFalse();
+    assertThat(jooq.getConnectionPool().isPresent()).isTrue();
+    assertThat(jooq.getDatabaseLimiter().isPresent()).isTrue();
+    assertThat(jooq.getJvmArgs().get()).isEmpty();
+    assertThat(jooq.getMinHeapSize().isPresent()).isFalse();
+    assertThat(jooq.getMaxHeapSize().isPresent()).isFalse();
+    assertThat(jooq.getAdaptiveHeapSize().get()).isFalse();
+    assertThat(jooq.getParallelGeneration().get()).isFalse();
+    assertThat(jooq.getShareMetadata().get()).isFalse();
+    assertThat(jooq.getIncrementalGeneration().get()).isFalse();
+    assertThat(jooq.getMetadataConnections().isPresent()).isFalse();
+    assertThat(jooq.getConnectTimeout().isPresent()).isFalse();
+    assertThat(jooq.getQueryTimeout().isPresent()).isFalse();
+
+    var jooqSchemaFingerprint =
+        project.getTasks().withType(JooqSchemaFingerprint.class).getByName("jooqSchemaFingerprint");
+    assertThat(jooqSchemaFingerprint.getUrl().isPresent()).isFalse();
+    assertThat(jooqSchemaFingerprint.getSchemaVersionQuery().isPresent()).isFalse();
+    assertThat(jooqSchemaFingerprint.getFingerprintFile().getAsFile().getOrNull())
+        .isEqualTo(project.file("build/jooq/jooqSchemaFingerprint.txt"));
+
+    var jooqSnapshot = project.getTasks().withType(JooqSnapshot.class).getByName("jooqSnapshot");
+    assertThat(jooqSnapshot.getUrl().isPresent()).isFalse();
+    assertThat(jooqSnapshot.getSnapshotFile().getAsFile().getOrNull())
+        .isEqualTo(project.file("src/jooq-snapshot.xml"));
+
+    var jooqCheck = project.getTasks().withType(JooqCodegenCheck.class).getByName("jooqCheck");
+    assertThat(jooqCheck.getUrl().isPresent()).isFalse();
+    assertThat(jooqCheck.getOutputDirectory().isPresent()).isFalse();
+    assertThat(jooqCheck.getExecutions()).hasSize(0);
+    assertThat(jooqCheck.getResultFile().getAsFile().getOrNull())
+        .isEqualTo(project.file("build/jooq/jooqCheck.txt"));
+  }
+
+  @Test
+  void schemaFingerprint() {
+    project.getPluginManager().apply(JooqBasePlugin.class);
+    project.getPluginManager().apply(JavaPlugin.class);
+
+    var jooq = project.getTasks().withType(JooqCodegen.class).getByName("jooq");
+    jooq.getUrl().set("jdbc:h2:mem:");
+    jooq.getUser().set("user");
+    jooq.getPassword().set("password");
+
+    var jooqSchemaFingerprint =
+        project.getTasks().withType(JooqSchemaFingerprint.class).getByName("jooqSchemaFingerprint");
+    assertThat(jooqSchemaFingerprint.getUrl().getOrNull()).isEqualTo("jdbc:h2:mem:");
+    assertThat(jooqSchemaFingerprint.getUser().getOrNull()).isEqualTo("user");
+    assertThat(jooqSchemaFingerprint.getPassword().getOrNull()).isEqualTo("password");
+    assertThat(jooqSchemaFingerprint.getConfigurationFile().getAsFile().getOrNull())
+        .isEqualTo(project.file("src/jooq-codegen.xml"));
+    assertThat(jooqSchemaFingerprint.getJavaLauncher().isPresent()).isTrue();
+    assertThat(jooqSchemaFingerprint.getTaskDependencies().getDependencies(jooqSchemaFingerprint))
+        .doesNotContain(jooq);
+
+    jooq.getSchemaFingerprint().set(jooqSchemaFingerprint.getFingerprintFile());
+    assertThat(jooq.getTaskDependencies().getDependencies(jooq))
+        .containsExactly(jooqSchemaFingerprint);
   }
 
   @Test
@@ -115,4 +188,29 @@ class JooqBasePluginTest {
     // Encoding is NOT linked to the compileJava task's encoding
     assertThat(jooq.getEncoding().isPresent()).isFalse();
   }
+
+  @Test
+  void snapshot() {
+    project.getPluginManager().apply(JooqBasePlugin.class);
+    project.getPluginManager().apply(JavaPlugin.class);
+
+    var jooq = project.getTasks().withType(JooqCodegen.class).getByName("jooq");
+    jooq.getUrl().set("jdbc:h2:mem:");
+    jooq.getUser().set("user");
+    jooq.getPassword().set("password");
+
+    var jooqSnapshot = project.getTasks().withType(JooqSnapshot.class).getByName("jooqSnapshot");
+    assertThat(jooqSnapshot.getUrl().getOrNull()).isEqualTo("jdbc:h2:mem:");
+    assertThat(jooqSnapshot.getUser().getOrNull()).isEqualTo("user");
+    assertThat(jooqSnapshot.getPassword().getOrNull()).isEqualTo("password");
+    assertThat(jooqSnapshot.getConfigurationFile().getAsFile().getOrNull())
+        .isEqualTo(project.file("src/jooq-codegen.xml"));
+    assertThat(jooqSnapshot.getJavaLauncher().isPresent()).isTrue();
+    assertThat(jooqSnapshot.getTaskDependencies().getDependencies(jooqSnapshot))
+        .doesNotContain(jooq);
+
+    jooq.getSnapshotFile()
+        .set(project.getLayout().getProjectDirectory().file("src/jooq-snapshot.xml"));
+    assertThat(jooq.getTaskDependencies().getDependencies(jooq)).doesNotContain(jooqSnapshot);
+  }
 }
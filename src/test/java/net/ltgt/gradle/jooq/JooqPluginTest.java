@@ -19,7 +19,9 @@ import static com.google.common.truth.Truth.assertThat;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import net.ltgt.gradle.jooq.tasks.JooqCodegen;
+import net.ltgt.gradle.jooq.tasks.JooqCodegenCheck;
 import org.gradle.api.Project;
 import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.tasks.SourceSet;
@@ -74,6 +76,62 @@ class JooqPluginTest {
     assertThat(jooq.getEncoding().getOrNull()).isEqualTo("UTF-8");
   }
 
+  @Test
+  void check() {
+    project.getPluginManager().apply(JooqPlugin.class);
+    project.getPluginManager().apply(JavaPlugin.class);
+
+    var jooq = project.getTasks().withType(JooqCodegen.class).getByName("jooq");
+    jooq.getUrl().set("jdbc:h2:mem:");
+    jooq.execution("other", execution -> execution.getEncoding().set("ISO-8859-1"));
+
+    var jooqCheck = project.getTasks().withType(JooqCodegenCheck.class).getByName("jooqCheck");
+    assertThat(jooqCheck.getUrl().getOrNull()).isEqualTo("jdbc:h2:mem:");
+    assertThat(jooqCheck.getConfigurationFile().getAsFile().getOrNull())
+        .isEqualTo(project.file("src/jooq-codegen.xml"));
+    assertThat(jooqCheck.getOutputDirectory().getAsFile().getOrNull())
+        .isEqualTo(project.file("src/main/jooq"));
+    jooqCheck.execution(
+        "other",
+        execution -> assertThat(execution.getEncoding().getOrNull()).isEqualTo("ISO-8859-1"));
+    assertThat(jooqCheck.getExecutions()).hasSize(1);
+
+    // The check task never runs the code generation in place
+    assertThat(jooqCheck.getTaskDependencies().getDependencies(jooqCheck)).doesNotContain(jooq);
+    assertThat(jooqCheck.getMustRunAfter().getDependencies(jooqCheck)).contains(jooq);
+    // The check task only depends on it when opted in, with a Gradle property
+    var check = project.getTasks().getByName("check");
+    assertThat(check.getTaskDependencies().getDependencies(check)).doesNotContain(jooqCheck);
+  }
+
+  @Test
+  void lazyConfiguration() {
+    var realizedTasks = new ArrayList<String>();
+    project.getTasks().configureEach(task -> realizedTasks.add(task.getName()));
+
+    project.getPluginManager().apply(JooqPlugin.class);
+    project.getPluginManager().apply(JavaPlugin.class);
+
+    var mainSourceSet =
+        project
+            .getExtensions()
+            .getByType(SourceSetContainer.class)
+            .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+    var jooq = project.getTasks().named("jooq", JooqCodegen.class);
+    assertThat(realizedTasks).containsNoneOf("jooq", "compileJava");
+
+    // Querying source directories realizes the jooq task, but not compileJava
+    assertThat(mainSourceSet.getJava().getSourceDirectories())
+        .contains(project.file("src/main/jooq"));
+    assertThat(realizedTasks).contains("jooq");
+    assertThat(realizedTasks).doesNotContain("compileJava");
+
+    // An explicit encoding doesn't need compileJava
+    jooq.get().getEncoding().set("UTF-8");
+    assertThat(jooq.get().getEncoding().get()).isEqualTo("UTF-8");
+    assertThat(realizedTasks).doesNotContain("compileJava");
+  }
+
   @Test
   void reconfigureOutputDir() {
     project.getPluginManager().apply(JooqPlugin.class);
@@ -93,4 +151,39 @@ class JooqPluginTest {
     assertThat(mainSourceSet.getJava().getSourceDirectories())
         .doesNotContain(project.file("src/main/jooq"));
   }
+
+  @Test
+  void executions() {
+    project.getPluginManager().apply(JooqPlugin.class);
+    project.getPluginManager().apply(JavaPlugin.class);
+
+    var outputDir = project.file("src/main/jooqBilling");
+
+    var jooq = project.getTasks().withType(JooqCodegen.class).getByName("jooq");
+    jooq.getEncoding().set("ISO-8859-1");
+    jooq.execution(
+        "billing",
+        execution -> {
+          execution.getConfigurationFile().set(project.file("src/jooq-billing.xml"));
+          execution.getOutputDirectory().set(outputDir);
+        });
+
+    var execution = jooq.getExecutions().getByName("billing");
+    assertThat(execution.getEncoding().getOrNull()).isEqualTo("ISO-8859-1");
+    assertThat(jooq.getExecutionOutputDirectories().get()).containsExactly("billing", outputDir);
+
+    // Executions can also be configured through the container, lazily
+    jooq.getExecutions().register("inventory");
+    assertThat(jooq.getExecutions().getNames()).containsExactly("billing", "inventory").inOrder();
+    // Executions without output directory don't break the task configuration
+    assertThat(jooq.getExecutionOutputDirectories().get()).containsExactly("billing", outputDir);
+
+    var mainSourceSet =
+        project
+            .getExtensions()
+            .getByType(SourceSetContainer.class)
+            .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+    assertThat(mainSourceSet.getJava().getSourceDirectories())
+        .containsAtLeast(project.file("src/main/jooq"), outputDir);
+  }
 }
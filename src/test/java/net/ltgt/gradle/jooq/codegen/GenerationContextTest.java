@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GenerationContextTest {
+  @TempDir Path dir;
+
+  @Test
+  void isRegisteredByTargetDirectory() {
+    try (var context = GenerationContext.register(dir.toFile(), false, Set.of())) {
+      assertThat(GenerationContext.get(dir.toString())).isSameInstanceAs(context);
+      assertThat(GenerationContext.get(dir.resolve("sub/..").toString())).isSameInstanceAs(context);
+      assertThat(GenerationContext.get(dir.toString()).isParallel()).isFalse();
+
+      var e =
+          assertThrows(
+              IllegalStateException.class,
+              () -> GenerationContext.register(dir.toFile(), true, Set.of()));
+      assertThat(e).hasMessageThat().contains("already running");
+    }
+
+    // Unregistered generations render tables in parallel
+    assertThat(GenerationContext.get(dir.toString()).isParallel()).isTrue();
+    GenerationContext.register(dir.toFile(), true, Set.of()).close();
+  }
+
+  @Test
+  void recordsFilesWrittenWhileRenderingTables() throws Exception {
+    try (var context = GenerationContext.register(dir.toFile(), true, Set.of())) {
+      context.written(dir.resolve("Keys.java").toFile());
+
+      assertThat(context.getRenderedFiles()).isEmpty();
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.jooq.codegen.GenerationTool;
+import org.jooq.codegen.JavaGenerator;
+import org.jooq.meta.jaxb.Configuration;
+import org.jooq.meta.jaxb.Database;
+import org.jooq.meta.jaxb.Generate;
+import org.jooq.meta.jaxb.Generator;
+import org.jooq.meta.jaxb.Target;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelJavaGeneratorTest {
+  private static final int TABLE_COUNT = 20;
+
+  @TempDir Path dir;
+
+  private Connection connection;
+
+  @BeforeEach
+  void setup() throws Exception {
+    connection = DriverManager.getConnection("jdbc:h2:mem:");
+    try (var stmt = connection.createStatement()) {
+      stmt.execute("CREATE SCHEMA S");
+      for (int i = 0; i < TABLE_COUNT; i++) {
+        stmt.execute(
+            "CREATE TABLE S.T%d (ID INT PRIMARY KEY, NAME VARCHAR(100) NOT NULL UNIQUE%s)"
+                .formatted(i, i == 0 ? "" : ", PARENT_ID INT REFERENCES S.T%d".formatted(i - 1)));
+        stmt.execute("CREATE INDEX S.T%1$d_NAME ON S.T%1$d (NAME)".formatted(i));
+      }
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    connection.close();
+  }
+
+  @Test
+  void generatesSameCodeAsJavaGenerator() throws Exception {
+    var expected = dir.resolve("expected");
+    generate(JavaGenerator.class, expected);
+    var actual = dir.resolve("actual");
+    // Not registered: renders tables in parallel
+    generate(ParallelJavaGenerator.class, actual);
+
+    assertThat(readFiles(actual)).containsExactlyEntriesIn(readFiles(expected));
+  }
+
+  @Test
+  void recordsRenderedFilesPerTable() throws Exception {
+    var expected = dir.resolve("expected");
+    generate(JavaGenerator.class, expected);
+    for (boolean parallel : new boolean[] {true, false}) {
+      var actual = dir.resolve("actual-" + parallel);
+      Map<List<String>, Set<String>> renderedFiles;
+      try (var context = GenerationContext.register(actual.toFile(), parallel, Set.of())) {
+        generate(ParallelJavaGenerator.class, actual);
+        renderedFiles = context.getRenderedFiles();
+      }
+
+      assertThat(readFiles(actual)).containsExactlyEntriesIn(readFiles(expected));
+      assertThat(renderedFiles).hasSize(TABLE_COUNT);
+      assertThat(renderedFiles.get(key("T1")))
+          .containsExactly(
+              path("tables/T1.java"),
+              path("tables/records/T1Record.java"),
+              path("tables/pojos/T1.java"),
+              path("tables/interfaces/IT1.java"),
+              path("tables/daos/T1Dao.java"));
+    }
+  }
+
+  @Test
+  void skipsUnchangedTables() throws Exception {
+    var actual = dir.resolve("actual");
+    Map<List<String>, Set<String>> renderedFiles;
+    try (var context = GenerationContext.register(actual.toFile(), true, Set.of(key("T1")))) {
+      generate(ParallelJavaGenerator.class, actual);
+      renderedFiles = context.getRenderedFiles();
+    }
+
+    assertThat(renderedFiles).hasSize(TABLE_COUNT - 1);
+    assertThat(renderedFiles).doesNotContainKey(key("T1"));
+    assertThat(Files.exists(actual.resolve(path("tables/T1.java")))).isFalse();
+    assertThat(Files.exists(actual.resolve(path("tables/T2.java")))).isTrue();
+    // Other artifacts still reference the table
+    assertThat(Files.readString(actual.resolve(path("Tables.java")))).contains("T1.T1");
+  }
+
+  private void generate(Class<? extends JavaGenerator> generator, Path targetDirectory)
+      throws Exception {
+    var tool = new GenerationTool();
+    tool.setConnection(connection);
+    tool.run(
+        new Configuration()
+            .withGenerator(
+                new Generator()
+                    .withName(generator.getName())
+                    .withDatabase(new Database().withInputSchema("S"))
+                    .withGenerate(
+                        new Generate().withPojos(true).withInterfaces(true).withDaos(true))
+                    .withTarget(
+                        new Target()
+                            .withPackageName("test.jooq")
+                            .withDirectory(targetDirectory.toString()))));
+  }
+
+  private static List<String> key(String table) {
+    return List.of("", "S", table);
+  }
+
+  private static String path(String path) {
+    return Path.of("test/jooq", path).toString();
+  }
+
+  private static Map<String, String> readFiles(Path directory) throws Exception {
+    var files = new TreeMap<String, String>();
+    try (Stream<Path> stream = Files.walk(directory)) {
+      for (var file : (Iterable<Path>) stream.filter(Files::isRegularFile)::iterator) {
+        files.put(directory.relativize(file).toString(), Files.readString(file));
+      }
+    }
+    return files;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CodegenReportTest {
+  @TempDir Path dir;
+
+  @Test
+  void summarizesAndWritesReport() throws Exception {
+    var report = new CodegenReport(":jooq");
+    report.setQueueMillis(5);
+    report.addGeneration("main", timingsFile("main", 100, 2000));
+    report.addGeneration("other \"quoted\"", timingsFile("other", 50, 3000));
+    var syncTimings = new Timings();
+    var result = new DirectorySync.Result();
+    result.added = 1;
+    result.unchanged = 2;
+    report.addOutput(new File("out"), syncTimings, result);
+
+    assertThat(report.summarize()).isEqualTo("queue 5 ms, generate 150 ms");
+    assertThat(report.getPeakHeapBytes()).isEqualTo(3000);
+
+    var reportFile = dir.resolve("reports/jooq.json").toFile();
+    report.write(reportFile, 200);
+    assertThat(Files.readString(reportFile.toPath()))
+        .isEqualTo(
+            """
+            {
+              "task": ":jooq",
+              "durationMillis": 200,
+              "queueMillis": 5,
+              "generations": [
+                {
+                  "name": "main",
+                  "phases": {"generate": 100},
+                  "files": 0,
+                  "bytes": 0,
+                  "peakHeapBytes": 2000
+                },
+                {
+                  "name": "other \\"quoted\\"",
+                  "phases": {"generate": 50},
+                  "files": 0,
+                  "bytes": 0,
+                  "peakHeapBytes": 3000
+                }
+              ],
+              "outputs": [
+                {
+                  "directory": "out",
+                  "phases": {},
+                  "files": 0,
+                  "bytes": 0,
+                  "added": 1,
+                  "modified": 0,
+                  "removed": 0,
+                  "unchanged": 2
+                }
+              ]
+            }
+            """);
+  }
+
+  @Test
+  void writesEmptyReport() throws Exception {
+    var report = new CodegenReport(":jooq");
+
+    var reportFile = dir.resolve("jooq.json").toFile();
+    report.write(reportFile, 0);
+
+    assertThat(report.summarize()).isEmpty();
+    assertThat(Files.readString(reportFile.toPath()))
+        .isEqualTo(
+            """
+            {
+              "task": ":jooq",
+              "durationMillis": 0,
+              "queueMillis": 0,
+              "generations": [],
+              "outputs": []
+            }
+            """);
+  }
+
+  private File timingsFile(String name, long generateMillis, long peakHeapBytes) throws Exception {
+    var file = dir.resolve(name + ".properties");
+    Files.writeString(
+        file,
+        """
+        phases=generate
+        phase.generate=%d
+        peakHeap=%d
+        """
+            .formatted(generateMillis, peakHeapBytes));
+    return file.toFile();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import org.jooq.meta.jaxb.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConfigurationLoaderTest {
+  @TempDir Path tempDir;
+
+  // Configurations are cached by content, and the cache is shared by all tests
+  private final String packageName = "test.jooq" + UUID.randomUUID().toString().replace("-", "");
+
+  @Test
+  void cachesByContent() throws Exception {
+    var file = write("jooq-codegen.xml", packageName);
+    var otherFile = write("other-jooq-codegen.xml", packageName);
+
+    var configuration = ConfigurationLoader.load(file);
+    var count = ConfigurationLoader.getCachedConfigurationCount();
+
+    assertThat(ConfigurationLoader.load(file)).isEqualTo(configuration);
+    assertThat(ConfigurationLoader.load(otherFile)).isEqualTo(configuration);
+    assertThat(ConfigurationLoader.getCachedConfigurationCount()).isEqualTo(count);
+  }
+
+  @Test
+  void reloadsChangedFile() throws Exception {
+    var file = write("jooq-codegen.xml", packageName);
+    assertThat(packageName(ConfigurationLoader.load(file))).isEqualTo(packageName);
+
+    write("jooq-codegen.xml", packageName + ".changed");
+
+    assertThat(packageName(ConfigurationLoader.load(file))).isEqualTo(packageName + ".changed");
+  }
+
+  @Test
+  void returnsIsolatedCopies() throws Exception {
+    var file = write("jooq-codegen.xml", packageName);
+
+    var configuration = ConfigurationLoader.load(file);
+    configuration.getGenerator().getTarget().setPackageName("modified");
+    configuration.getGenerator().getDatabase().setInputSchema("MODIFIED");
+
+    var other = ConfigurationLoader.load(file);
+    assertThat(other).isNotSameInstanceAs(configuration);
+    assertThat(packageName(other)).isEqualTo(packageName);
+    assertThat(other.getGenerator().getDatabase().getInputSchema()).isEqualTo("TEST_SCHEMA");
+  }
+
+  @Test
+  void boundsCacheSize() throws Exception {
+    for (int i = 0; i <= ConfigurationLoader.MAX_ENTRIES; i++) {
+      ConfigurationLoader.load(write("jooq-codegen.xml", packageName + i));
+    }
+
+    assertThat(ConfigurationLoader.getCachedConfigurationCount())
+        .isEqualTo(ConfigurationLoader.MAX_ENTRIES);
+  }
+
+  private Path write(String name, String packageName) throws Exception {
+    return Files.writeString(
+        tempDir.resolve(name),
+        // language=xml
+        """
+        <configuration>
+          <generator>
+            <database>
+              <inputSchema>TEST_SCHEMA</inputSchema>
+            </database>
+            <target>
+              <packageName>%s</packageName>
+            </target>
+          </generator>
+        </configuration>
+        """
+            .formatted(packageName));
+  }
+
+  private static String packageName(Configuration configuration) {
+    return configuration.getGenerator().getTarget().getPackageName();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static net.ltgt.gradle.jooq.tasks.DirectorySyncTest.listFiles;
+import static net.ltgt.gradle.jooq.tasks.DirectorySyncTest.write;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectoryDiffTest {
+  @TempDir Path source;
+  @TempDir Path target;
+
+  @Test
+  void comparesFilesWithoutTouchingThem() throws Exception {
+    write(source, "a/Added.java", "added");
+    write(source, "a/Modified.java", "new");
+    write(source, "a/Resized.java", "resized");
+    write(source, "a/Unchanged.java", "same");
+    write(target, "a/Modified.java", "old");
+    write(target, "a/Resized.java", "old");
+    write(target, "a/Unchanged.java", "same");
+    write(target, "b/Removed.java", "removed");
+
+    var diff = DirectoryDiff.compare(source, target);
+
+    assertThat(diff.isEmpty()).isFalse();
+    assertThat(diff.toResult().toString()).isEqualTo("1 added, 2 modified, 1 removed, 1 unchanged");
+    assertThat(diff.added).containsExactly(Path.of("a/Added.java"));
+    assertThat(diff.modified)
+        .containsExactly(Path.of("a/Modified.java"), Path.of("a/Resized.java"))
+        .inOrder();
+    assertThat(diff.removed).containsExactly(Path.of("b/Removed.java"));
+    assertThat(listFiles(target))
+        .containsExactly("a/Modified.java", "a/Resized.java", "a/Unchanged.java", "b/Removed.java")
+        .inOrder();
+  }
+
+  @Test
+  void sameFilesAreEmpty() throws Exception {
+    write(source, "a/Unchanged.java", "same");
+    write(target, "a/Unchanged.java", "same");
+
+    var diff = DirectoryDiff.compare(source, target);
+
+    assertThat(diff.isEmpty()).isTrue();
+    assertThat(diff.unchanged).isEqualTo(1);
+  }
+
+  @Test
+  void missingSourceRemovesEverything() throws Exception {
+    write(target, "a/Removed.java", "removed");
+
+    var diff = DirectoryDiff.compare(source.resolve("missing"), target);
+
+    assertThat(diff.toResult().toString()).isEqualTo("0 added, 0 modified, 1 removed, 0 unchanged");
+  }
+
+  @Test
+  void missingTargetAddsEverything() throws Exception {
+    write(source, "a/Added.java", "added");
+
+    var diff = DirectoryDiff.compare(source, target.resolve("missing"));
+
+    assertThat(diff.toResult().toString()).isEqualTo("1 added, 0 modified, 0 removed, 0 unchanged");
+  }
+
+  @Test
+  void missingDirectoriesAreEmpty() throws Exception {
+    var diff = DirectoryDiff.compare(source.resolve("missing"), target.resolve("missing"));
+
+    assertThat(diff.isEmpty()).isTrue();
+  }
+
+  @Test
+  void describesAtMostLimitFiles() throws Exception {
+    write(source, "A.java", "added");
+    write(source, "B.java", "added");
+    write(target, "C.java", "removed");
+
+    var diff = DirectoryDiff.compare(source, target);
+
+    assertThat(diff.describe(2)).isEqualTo("\n  added: A.java\n  added: B.java\n  ... and 1 more");
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectorySyncTest {
+  @TempDir Path source;
+  @TempDir Path target;
+
+  @Test
+  void addsModifiesAndRemovesFiles() throws Exception {
+    write(source, "a/Added.java", "added");
+    write(source, "a/Modified.java", "new");
+    write(source, "a/Unchanged.java", "same");
+    write(target, "a/Modified.java", "old");
+    write(target, "a/Unchanged.java", "same");
+    write(target, "a/Removed.java", "removed");
+    write(target, "b/Removed.java", "removed");
+
+    var result = DirectorySync.sync(source, target);
+
+    assertThat(result.toString()).isEqualTo("1 added, 1 modified, 2 removed, 1 unchanged");
+    assertThat(listFiles(target))
+        .containsExactly("a/Added.java", "a/Modified.java", "a/Unchanged.java")
+        .inOrder();
+    assertThat(Files.readString(target.resolve("a/Modified.java"))).isEqualTo("new");
+    assertThat(Files.exists(target.resolve("b"))).isFalse();
+  }
+
+  @Test
+  void preservesUnchangedFiles() throws Exception {
+    write(source, "Unchanged.java", "same");
+    write(target, "Unchanged.java", "same");
+    var lastModified = FileTime.fromMillis(1_000_000_000L);
+    Files.setLastModifiedTime(target.resolve("Unchanged.java"), lastModified);
+
+    var result = DirectorySync.sync(source, target);
+
+    assertThat(result.unchanged).isEqualTo(1);
+    assertThat(Files.getLastModifiedTime(target.resolve("Unchanged.java"))).isEqualTo(lastModified);
+  }
+
+  @Test
+  void detectsSameSizeModifications() throws Exception {
+    write(source, "Modified.java", "abc");
+    write(target, "Modified.java", "abd");
+
+    var result = DirectorySync.sync(source, target);
+
+    assertThat(result.modified).isEqualTo(1);
+    assertThat(Files.readString(target.resolve("Modified.java"))).isEqualTo("abc");
+  }
+
+  @Test
+  void missingSourceRemovesEverything() throws Exception {
+    write(target, "a/Removed.java", "removed");
+    write(target, "Removed.java", "removed");
+
+    var result = DirectorySync.sync(source.resolve("missing"), target);
+
+    assertThat(result.toString()).isEqualTo("0 added, 0 modified, 2 removed, 0 unchanged");
+    assertThat(Files.isDirectory(target)).isTrue();
+    assertThat(listFiles(target)).isEmpty();
+    assertThat(Files.exists(target.resolve("a"))).isFalse();
+  }
+
+  @Test
+  void createsMissingTarget() throws Exception {
+    write(source, "a/Added.java", "added");
+
+    var result = DirectorySync.sync(source, target.resolve("missing"));
+
+    assertThat(result.added).isEqualTo(1);
+    assertThat(listFiles(target.resolve("missing"))).containsExactly("a/Added.java");
+  }
+
+  @Test
+  void replacesFileWithDirectory() throws Exception {
+    write(source, "a/Added.java", "added");
+    write(target, "a", "file");
+
+    var result = DirectorySync.sync(source, target);
+
+    assertThat(result.toString()).isEqualTo("1 added, 0 modified, 1 removed, 0 unchanged");
+    assertThat(listFiles(target)).containsExactly("a/Added.java");
+  }
+
+  @Test
+  void replacesDirectoryWithFile() throws Exception {
+    write(source, "a", "file");
+    write(target, "a/Removed.java", "removed");
+    write(target, "a/b/Removed.java", "removed");
+
+    var result = DirectorySync.sync(source, target);
+
+    assertThat(result.toString()).isEqualTo("1 added, 0 modified, 2 removed, 0 unchanged");
+    assertThat(listFiles(target)).containsExactly("a");
+    assertThat(Files.readString(target.resolve("a"))).isEqualTo("file");
+  }
+
+  @Test
+  void replacesFileTarget() throws Exception {
+    write(source, "Added.java", "added");
+    var targetFile = target.resolve("output");
+    Files.writeString(targetFile, "file");
+
+    var result = DirectorySync.sync(source, targetFile);
+
+    assertThat(result.toString()).isEqualTo("1 added, 0 modified, 1 removed, 0 unchanged");
+    assertThat(listFiles(targetFile)).containsExactly("Added.java");
+  }
+
+  static void write(Path directory, String path, String content) throws IOException {
+    var file = directory.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+
+  static List<String> listFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files
+          .filter(Files::isRegularFile)
+          .map(file -> directory.relativize(file).toString().replace('\\', '/'))
+          .sorted()
+          .toList();
+    }
+  }
+}
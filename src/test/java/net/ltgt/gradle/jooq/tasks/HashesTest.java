@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class HashesTest {
+  @Test
+  void hashDependsOnAllParts() {
+    var hash = Hashes.sha256(Hashes.bytes("a"), Hashes.bytes("bc"));
+
+    assertThat(Hashes.sha256(Hashes.bytes("a"), Hashes.bytes("bc"))).isEqualTo(hash);
+    // Parts are length-prefixed
+    assertThat(Hashes.sha256(Hashes.bytes("ab"), Hashes.bytes("c"))).isNotEqualTo(hash);
+    assertThat(Hashes.sha256(Hashes.bytes("abc"))).isNotEqualTo(hash);
+    assertThat(Hashes.sha256(Hashes.bytes(null))).isEqualTo(Hashes.sha256(Hashes.bytes("")));
+  }
+}
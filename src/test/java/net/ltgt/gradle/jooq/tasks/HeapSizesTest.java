@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class HeapSizesTest {
+  @Test
+  void parsesAndFormats() {
+    assertThat(HeapSizes.parse("1024")).isEqualTo(1024);
+    assertThat(HeapSizes.parse("512k")).isEqualTo(512 * 1024);
+    assertThat(HeapSizes.parse("256M")).isEqualTo(256 * HeapSizes.MIB);
+    assertThat(HeapSizes.parse(" 2g ")).isEqualTo(2048 * HeapSizes.MIB);
+
+    assertThat(HeapSizes.format(256 * HeapSizes.MIB)).isEqualTo("256m");
+    // Rounds up
+    assertThat(HeapSizes.format(256 * HeapSizes.MIB + 1)).isEqualTo("257m");
+  }
+
+  @Test
+  void recordsPeakUsageAfterGarbageCollections() throws Exception {
+    try (var recorder = new HeapSizes.PeakUsageRecorder()) {
+      byte[] retained = new byte[(int) (64 * HeapSizes.MIB)];
+      System.gc();
+      // Notifications are sent asynchronously
+      for (int i = 0; i < 50 && recorder.getPeakUsage() < retained.length; i++) {
+        Thread.sleep(100);
+      }
+      assertThat(recorder.getPeakUsage()).isAtLeast((long) retained.length);
+
+      // The peak usage is kept once the objects are garbage collected
+      retained = null;
+      System.gc();
+      Thread.sleep(100);
+      assertThat(recorder.getPeakUsage()).isAtLeast(64 * HeapSizes.MIB);
+    }
+  }
+}
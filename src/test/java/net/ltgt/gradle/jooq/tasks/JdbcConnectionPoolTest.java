@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class JdbcConnectionPoolTest {
+  // Each connection has its own private in-memory database
+  private static final String URL = "jdbc:h2:mem:";
+
+  private final String buildId = UUID.randomUUID().toString();
+
+  @Test
+  void reusesConnectionsWithinBuild() throws Exception {
+    Connection connection;
+    try (var lease = lease(buildId, new Properties())) {
+      assertThat(lease.isReused()).isFalse();
+      connection = lease.getConnection();
+    }
+    assertThat(JdbcConnectionPool.getIdleConnectionCount()).isEqualTo(1);
+
+    try (var lease = lease(buildId, new Properties())) {
+      assertThat(lease.isReused()).isTrue();
+      assertThat(lease.getConnection()).isSameInstanceAs(connection);
+      assertThat(JdbcConnectionPool.getIdleConnectionCount()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  void doesNotReuseConnectionsAcrossBuilds() throws Exception {
+    Connection connection;
+    try (var lease = lease(buildId, new Properties())) {
+      connection = lease.getConnection();
+    }
+
+    try (var lease = lease(UUID.randomUUID().toString(), new Properties())) {
+      assertThat(lease.isReused()).isFalse();
+      assertThat(lease.getConnection()).isNotSameInstanceAs(connection);
+    }
+    assertThat(connection.isClosed()).isTrue();
+  }
+
+  @Test
+  void doesNotReuseConnectionsWithOtherDriverProperties() throws Exception {
+    try (var lease = lease(buildId, new Properties())) {
+      assertThat(lease.isReused()).isFalse();
+    }
+
+    var properties = new Properties();
+    properties.setProperty("IGNORECASE", "TRUE");
+    try (var lease = lease(buildId, properties)) {
+      assertThat(lease.isReused()).isFalse();
+    }
+    try (var lease = lease(buildId, properties)) {
+      assertThat(lease.isReused()).isTrue();
+    }
+
+    try (var lease =
+        JdbcConnectionPool.lease(buildId, "org.h2.Driver", URL, null, null, new Properties(), 0)) {
+      assertThat(lease.isReused()).isFalse();
+    }
+  }
+
+  @Test
+  void restoresSessionState() throws Exception {
+    try (var lease = lease(buildId, new Properties())) {
+      var connection = lease.getConnection();
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("CREATE TABLE TEST_TABLE (ID INT)");
+        statement.execute("CREATE SCHEMA OTHER_SCHEMA");
+      }
+      connection.setAutoCommit(false);
+      connection.setSchema("OTHER_SCHEMA");
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("INSERT INTO PUBLIC.TEST_TABLE VALUES (1)");
+      }
+    }
+
+    try (var lease = lease(buildId, new Properties())) {
+      assertThat(lease.isReused()).isTrue();
+      var connection = lease.getConnection();
+      assertThat(connection.getAutoCommit()).isTrue();
+      assertThat(connection.getSchema()).isEqualTo("PUBLIC");
+      // The pending transaction has been rolled back
+      try (Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM TEST_TABLE")) {
+        assertThat(resultSet.next()).isTrue();
+        assertThat(resultSet.getInt(1)).isEqualTo(0);
+      }
+    }
+  }
+
+  @Test
+  void doesNotPoolClosedConnections() throws Exception {
+    try (var lease = lease(buildId, new Properties())) {
+      lease.getConnection().close();
+    }
+    assertThat(JdbcConnectionPool.getIdleConnectionCount()).isEqualTo(0);
+
+    try (var lease = lease(buildId, new Properties())) {
+      assertThat(lease.isReused()).isFalse();
+      assertThat(lease.getConnection().isClosed()).isFalse();
+    }
+  }
+
+  private static JdbcConnectionPool.Lease lease(String buildId, Properties driverProperties)
+      throws Exception {
+    return JdbcConnectionPool.lease(buildId, null, URL, null, null, driverProperties, 0);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static net.ltgt.gradle.jooq.tasks.DirectorySyncTest.listFiles;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetadataCacheTest {
+  @TempDir Path cacheDir;
+  @TempDir Path workDir;
+
+  @Test
+  void missThenHit() throws Exception {
+    var cache = new MetadataCache(cacheDir, 2);
+    var snapshot = workDir.resolve("snapshot.xml");
+
+    assertThat(cache.get("a", snapshot)).isFalse();
+    assertThat(Files.exists(snapshot)).isFalse();
+
+    Files.writeString(snapshot, "a");
+    cache.put("a", snapshot);
+    Files.delete(snapshot);
+
+    assertThat(cache.get("a", snapshot)).isTrue();
+    assertThat(Files.readString(snapshot)).isEqualTo("a");
+  }
+
+  @Test
+  void copiesInAndOut() throws Exception {
+    var cache = new MetadataCache(cacheDir, 2);
+    var snapshot = workDir.resolve("snapshot.xml");
+    Files.writeString(snapshot, "a");
+    cache.put("a", snapshot);
+
+    // Modifying the file doesn't modify the cache entry
+    Files.writeString(snapshot, "modified");
+    var copy = workDir.resolve("copy.xml");
+    assertThat(cache.get("a", copy)).isTrue();
+    assertThat(Files.readString(copy)).isEqualTo("a");
+
+    // And the copy can be modified without modifying the cache entry either
+    Files.writeString(copy, "modified");
+    assertThat(cache.get("a", snapshot)).isTrue();
+    assertThat(Files.readString(snapshot)).isEqualTo("a");
+  }
+
+  @Test
+  void evictsLeastRecentlyUsed() throws Exception {
+    var cache = new MetadataCache(cacheDir, 2);
+    var snapshot = workDir.resolve("snapshot.xml");
+    Files.writeString(snapshot, "");
+    cache.put("a", snapshot);
+    cache.put("b", snapshot);
+    // Make "a" older than "b", then use it
+    Files.setLastModifiedTime(cacheDir.resolve("a.xml"), FileTime.fromMillis(1_000_000_000L));
+    Files.setLastModifiedTime(cacheDir.resolve("b.xml"), FileTime.fromMillis(2_000_000_000L));
+    assertThat(cache.get("a", snapshot)).isTrue();
+
+    cache.put("c", snapshot);
+
+    assertThat(listFiles(cacheDir)).containsExactly(".lock", "a.xml", "c.xml");
+    assertThat(cache.get("b", snapshot)).isFalse();
+  }
+
+  @Test
+  void keepsMostRecentEntryWithSizeOne() throws Exception {
+    var cache = new MetadataCache(cacheDir, 1);
+    var snapshot = workDir.resolve("snapshot.xml");
+    Files.writeString(snapshot, "a");
+    cache.put("a", snapshot);
+    Files.writeString(snapshot, "b");
+    cache.put("b", snapshot);
+
+    assertThat(listFiles(cacheDir)).containsExactly(".lock", "b.xml");
+  }
+
+  @Test
+  void rejectsNonPositiveSize() {
+    assertThrows(IllegalArgumentException.class, () -> new MetadataCache(cacheDir, 0));
+    assertThrows(IllegalArgumentException.class, () -> new MetadataCache(cacheDir, -1));
+  }
+
+  @Test
+  void concurrentUse() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (int i = 0; i < 8; i++) {
+        var worker = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  // Each worker has its own cache instance, as in distinct work actions
+                  var cache = new MetadataCache(cacheDir, 2);
+                  for (int j = 0; j < 50; j++) {
+                    var key = String.valueOf(j % 5);
+                    var snapshot = workDir.resolve(worker + "-" + j + ".xml");
+                    if (!cache.get(key, snapshot)) {
+                      Files.writeString(snapshot, key);
+                      cache.put(key, snapshot);
+                    }
+                    // Entries are never evicted while being copied out
+                    assertThat(Files.readString(snapshot)).isEqualTo(key);
+                  }
+                  return null;
+                }));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    try (var files = Files.list(cacheDir)) {
+      assertThat(files.filter(file -> file.toString().endsWith(".xml")).count()).isEqualTo(2);
+    }
+  }
+}
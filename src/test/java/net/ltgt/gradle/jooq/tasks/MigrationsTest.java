@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static net.ltgt.gradle.jooq.tasks.DirectorySyncTest.write;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MigrationsTest {
+  @TempDir Path dir;
+
+  @Test
+  void sortsNumbersNumerically() throws Exception {
+    var files =
+        List.of(
+            file("V10__ten.sql", ""), file("V2__two.sql", ""), file("V01__leading_zero.sql", ""));
+
+    assertThat(names(Migrations.sort(files)))
+        .containsExactly("V01__leading_zero.sql", "V2__two.sql", "V10__ten.sql")
+        .inOrder();
+  }
+
+  @Test
+  void sortsVersionsBeforeDescriptions() throws Exception {
+    var files =
+        List.of(
+            file("V1_1__alter.sql", ""),
+            file("V1__init.sql", ""),
+            file("V1_1_1__fix.sql", ""),
+            file("V2__more.sql", ""));
+
+    assertThat(names(Migrations.sort(files)))
+        .containsExactly("V1__init.sql", "V1_1__alter.sql", "V1_1_1__fix.sql", "V2__more.sql")
+        .inOrder();
+  }
+
+  @Test
+  void ordersSameNamesByPath() throws Exception {
+    var b = file("b/V1__init.sql", "");
+    var a = file("a/V1__init.sql", "");
+
+    assertThat(Migrations.sort(List.of(b, a))).containsExactly(a, b).inOrder();
+  }
+
+  @Test
+  void ignoresNonSqlFilesAndDirectories() throws Exception {
+    var files =
+        List.of(
+            file("V1__init.sql", ""),
+            file("README.md", ""),
+            file("V2__dir.sql/V3__nested.sql", "").getParentFile(),
+            dir.resolve("V4__missing.sql").toFile());
+
+    assertThat(names(Migrations.sort(files))).containsExactly("V1__init.sql");
+  }
+
+  @Test
+  void appliesScriptsInOrder() throws Exception {
+    var scripts =
+        Migrations.sort(
+            List.of(
+                file("V2__alter.sql", "ALTER TABLE t ADD COLUMN name VARCHAR(50);"),
+                file("V1__create.sql", "CREATE TABLE t (id INT PRIMARY KEY);")));
+
+    try (var connection = DriverManager.getConnection("jdbc:h2:mem:")) {
+      Migrations.apply(connection, scripts);
+
+      try (var rs = connection.getMetaData().getColumns(null, null, "T", null)) {
+        var columns = new ArrayList<String>();
+        while (rs.next()) {
+          columns.add(rs.getString("COLUMN_NAME"));
+        }
+        assertThat(columns).containsExactly("ID", "NAME").inOrder();
+      }
+    }
+  }
+
+  @Test
+  void reportsFailingScript() throws Exception {
+    var script = file("V1__broken.sql", "CREATE TABLE t (id INT PRIMARY KEY);\nDROP TABLE u;");
+
+    try (var connection = DriverManager.getConnection("jdbc:h2:mem:")) {
+      var e = assertThrows(SQLException.class, () -> Migrations.apply(connection, List.of(script)));
+      assertThat(e.getMessage()).contains(script.toString());
+    }
+  }
+
+  private File file(String path, String content) throws Exception {
+    write(dir, path, content);
+    return dir.resolve(path).toFile();
+  }
+
+  private static List<String> names(List<File> files) {
+    return files.stream().map(File::getName).toList();
+  }
+}
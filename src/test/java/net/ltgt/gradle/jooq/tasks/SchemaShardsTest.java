@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static net.ltgt.gradle.jooq.tasks.DirectorySyncTest.listFiles;
+import static net.ltgt.gradle.jooq.tasks.DirectorySyncTest.write;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SchemaShardsTest {
+  @TempDir Path shardsDirectory;
+  @TempDir Path target;
+
+  @Test
+  void excludesAllOtherSchemas() {
+    var shards = new SchemaShards(List.of("A", "B", "C"), shardsDirectory.toFile());
+
+    assertThat(shards.getExcludedSchemas(0)).containsExactly("B", "C").inOrder();
+    assertThat(shards.getExcludedSchemas(1)).containsExactly("A", "C").inOrder();
+    assertThat(shards.getExcludedSchemas(2)).containsExactly("A", "B").inOrder();
+    // The schemas themselves are left untouched
+    assertThat(shards.getSchemas()).containsExactly("A", "B", "C").inOrder();
+  }
+
+  @Test
+  void shardDirectoriesAreDistinct() {
+    var shards = new SchemaShards(List.of("A", "B"), shardsDirectory.toFile());
+
+    assertThat(
+            List.of(
+                shards.getSchemaShardDirectory(0),
+                shards.getSchemaShardDirectory(1),
+                shards.getCatalogShardDirectory()))
+        .containsNoDuplicates();
+  }
+
+  @Test
+  void mergesSchemaFilesAndCatalogFiles() throws Exception {
+    var shards = new SchemaShards(List.of("A", "B"), shardsDirectory.toFile());
+    Path a = shards.getSchemaShardDirectory(0).toPath();
+    Path b = shards.getSchemaShardDirectory(1).toPath();
+    Path catalog = shards.getCatalogShardDirectory().toPath();
+    write(a, "a/tables/TableA.java", "table A");
+    write(a, "a/A.java", "schema A");
+    write(a, "DefaultCatalog.java", "catalog with A only");
+    write(b, "b/tables/TableB.java", "table B");
+    write(b, "b/B.java", "schema B");
+    write(b, "DefaultCatalog.java", "catalog with B only");
+    write(catalog, "a/A.java", "empty schema A");
+    write(catalog, "b/B.java", "empty schema B");
+    write(catalog, "DefaultCatalog.java", "catalog");
+
+    shards.merge(target);
+
+    assertThat(listFiles(target))
+        .containsExactly(
+            "DefaultCatalog.java",
+            "a/A.java",
+            "a/tables/TableA.java",
+            "b/B.java",
+            "b/tables/TableB.java");
+    // Files generated by a single schema shard are taken from it
+    assertThat(Files.readString(target.resolve("a/A.java"))).isEqualTo("schema A");
+    assertThat(Files.readString(target.resolve("b/tables/TableB.java"))).isEqualTo("table B");
+    // Files generated by several schema shards are taken from the catalog shard
+    assertThat(Files.readString(target.resolve("DefaultCatalog.java"))).isEqualTo("catalog");
+  }
+
+  @Test
+  void mergesEmptySchemasFromCatalogShard() throws Exception {
+    var shards = new SchemaShards(List.of("A", "EMPTY"), shardsDirectory.toFile());
+    write(shards.getSchemaShardDirectory(0).toPath(), "a/A.java", "schema A");
+    // The shard of an empty schema generates nothing
+    write(shards.getCatalogShardDirectory().toPath(), "a/A.java", "empty schema A");
+    write(shards.getCatalogShardDirectory().toPath(), "empty/Empty.java", "empty schema");
+
+    shards.merge(target);
+
+    assertThat(listFiles(target)).containsExactly("a/A.java", "empty/Empty.java");
+    assertThat(Files.readString(target.resolve("a/A.java"))).isEqualTo("schema A");
+    assertThat(Files.readString(target.resolve("empty/Empty.java"))).isEqualTo("empty schema");
+  }
+
+  @Test
+  void failsWhenCatalogShardMissesSharedFile() throws Exception {
+    var shards = new SchemaShards(List.of("A", "B"), shardsDirectory.toFile());
+    write(shards.getSchemaShardDirectory(0).toPath(), "Keys.java", "keys of A");
+    write(shards.getSchemaShardDirectory(1).toPath(), "Keys.java", "keys of B");
+
+    var e = assertThrows(IllegalStateException.class, () -> shards.merge(target));
+    assertThat(e).hasMessageThat().contains("Keys.java");
+  }
+}
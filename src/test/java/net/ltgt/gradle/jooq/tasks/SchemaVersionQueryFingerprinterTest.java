@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.HexFormat;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SchemaVersionQueryFingerprinterTest {
+  private Connection connection;
+
+  @BeforeEach
+  void setup() throws Exception {
+    connection = DriverManager.getConnection("jdbc:h2:mem:");
+    execute("CREATE TABLE HISTORY (RANK INT PRIMARY KEY, CHECKSUM INT)");
+    execute("INSERT INTO HISTORY VALUES (1, 42)");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    connection.close();
+  }
+
+  @Test
+  void supportsAnyDatabase() throws Exception {
+    assertThat(fingerprinter().supports(connection.getMetaData())).isTrue();
+  }
+
+  @Test
+  void changesWithQueryResults() throws Exception {
+    var fingerprint = fingerprint();
+    assertThat(fingerprint()).isEqualTo(fingerprint);
+
+    execute("INSERT INTO HISTORY VALUES (2, 43)");
+
+    assertThat(fingerprint()).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  void ignoresOtherSchemaChanges() throws Exception {
+    var fingerprint = fingerprint();
+
+    execute("CREATE TABLE OTHER (ID INT)");
+
+    assertThat(fingerprint()).isEqualTo(fingerprint);
+  }
+
+  private static SchemaVersionQueryFingerprinter fingerprinter() {
+    return new SchemaVersionQueryFingerprinter("SELECT RANK, CHECKSUM FROM HISTORY ORDER BY RANK");
+  }
+
+  private String fingerprint() throws Exception {
+    var digest = MessageDigest.getInstance("SHA-256");
+    fingerprinter().fingerprint(connection, List.of(), digest);
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private void execute(String sql) throws Exception {
+    try (var stmt = connection.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import org.gradle.api.InvalidUserDataException;
+import org.jooq.meta.jaxb.Configuration;
+import org.jooq.meta.jaxb.Database;
+import org.jooq.meta.jaxb.Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotsTest {
+  @TempDir Path dir;
+
+  @Test
+  void writesDialectAfterXmlDeclaration() throws Exception {
+    var informationSchema = dir.resolve("information_schema.xml");
+    Files.writeString(
+        informationSchema,
+        """
+        <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+        <information_schema xmlns="http://www.jooq.org/xsd/jooq-meta-3.19.0.xsd"/>
+        """);
+    var snapshot = dir.resolve("snapshots/snapshot.xml");
+
+    Snapshots.write(informationSchema, "H2", snapshot);
+
+    assertThat(Files.readString(snapshot))
+        .isEqualTo(
+            """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <!-- jOOQ dialect: H2 -->
+            <information_schema xmlns="http://www.jooq.org/xsd/jooq-meta-3.19.0.xsd"/>
+            """);
+    assertThat(Snapshots.readDialect(snapshot)).isEqualTo("H2");
+  }
+
+  @Test
+  void writesDialectWithoutXmlDeclaration() throws Exception {
+    var informationSchema = dir.resolve("information_schema.xml");
+    Files.writeString(informationSchema, "<information_schema/>\n");
+    var snapshot = dir.resolve("snapshot.xml");
+
+    Snapshots.write(informationSchema, "POSTGRES", snapshot);
+
+    assertThat(Files.readString(snapshot))
+        .isEqualTo("\n<!-- jOOQ dialect: POSTGRES -->\n<information_schema/>\n");
+    assertThat(Snapshots.readDialect(snapshot)).isEqualTo("POSTGRES");
+  }
+
+  @Test
+  void readsNoDialectFromHandWrittenSnapshot() throws Exception {
+    var snapshot = dir.resolve("snapshot.xml");
+    Files.writeString(
+        snapshot,
+        """
+        <?xml version="1.0"?>
+        <information_schema>
+          <schemata/>
+        </information_schema>
+        """);
+
+    assertThat(Snapshots.readDialect(snapshot)).isNull();
+  }
+
+  @Test
+  void takesSnapshot() throws Exception {
+    var snapshot = dir.resolve("snapshot.xml");
+    try (var connection = DriverManager.getConnection("jdbc:h2:mem:");
+        var stmt = connection.createStatement()) {
+      stmt.execute("CREATE SCHEMA S");
+      stmt.execute("CREATE TABLE S.T (ID INT PRIMARY KEY)");
+
+      Snapshots.take(configuration(), connection, dir.resolve("work"), snapshot);
+    }
+
+    assertThat(Snapshots.readDialect(snapshot)).isEqualTo("H2");
+    assertThat(Files.readString(snapshot)).contains("<table_name>T</table_name>");
+  }
+
+  @Test
+  void failsOnObjectsNotSupportedByXmlDatabase() throws Exception {
+    var snapshot = dir.resolve("snapshot.xml");
+    try (var connection = DriverManager.getConnection("jdbc:h2:mem:");
+        var stmt = connection.createStatement()) {
+      stmt.execute("CREATE SCHEMA S");
+      stmt.execute("CREATE DOMAIN S.EMAIL AS VARCHAR(100)");
+      stmt.execute(
+          "CREATE TABLE S.T (ID INT PRIMARY KEY, MOOD ENUM('sad', 'happy'), MAIL S.EMAIL)");
+
+      var e =
+          assertThrows(
+              InvalidUserDataException.class,
+              () -> Snapshots.take(configuration(), connection, dir.resolve("work"), snapshot));
+      assertThat(e).hasMessageThat().contains("domain S.EMAIL");
+      assertThat(e).hasMessageThat().contains("enum S.T_MOOD");
+    }
+    assertThat(Files.exists(snapshot)).isFalse();
+  }
+
+  private static Configuration configuration() {
+    return new Configuration()
+        .withGenerator(new Generator().withDatabase(new Database().withInputSchema("S")));
+  }
+}
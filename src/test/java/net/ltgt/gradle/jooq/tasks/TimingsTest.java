@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2025 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ltgt.gradle.jooq.tasks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static net.ltgt.gradle.jooq.tasks.DirectorySyncTest.write;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TimingsTest {
+  @TempDir Path dir;
+
+  @Test
+  void storesAndLoads() throws Exception {
+    var timings = new Timings();
+    timings.record("load", Timings.start());
+    timings.record("generate", Timings.start());
+    timings.setPeakHeapBytes(1234);
+    write(dir, "out/a/A.java", "abc");
+    write(dir, "out/B.java", "de");
+    timings.countFiles(dir.resolve("out"));
+    var file = dir.resolve("timings.properties");
+
+    timings.store(file);
+    var loaded = Timings.load(file);
+
+    assertThat(loaded.getPhases()).isEqualTo(timings.getPhases());
+    assertThat(loaded.getPhases().keySet()).containsExactly("load", "generate").inOrder();
+    assertThat(loaded.getFiles()).isEqualTo(2);
+    assertThat(loaded.getBytes()).isEqualTo(5);
+    assertThat(loaded.getPeakHeapBytes()).isEqualTo(1234);
+  }
+
+  @Test
+  void storesAndLoadsEmptyTimings() throws Exception {
+    var file = dir.resolve("timings.properties");
+
+    new Timings().store(file);
+    var loaded = Timings.load(file);
+
+    assertThat(loaded.getPhases()).isEmpty();
+    assertThat(loaded.getFiles()).isEqualTo(0);
+    assertThat(loaded.getPeakHeapBytes()).isEqualTo(0);
+  }
+
+  @Test
+  void sumsRepeatedPhases() throws Exception {
+    var timings = new Timings();
+    long start = Timings.start() - 2_000_000L;
+
+    timings.record("connect", start);
+    timings.record("connect", start);
+
+    assertThat(timings.getPhases().get("connect")).isAtLeast(4L);
+  }
+
+  @Test
+  void ignoresMissingDirectory() throws Exception {
+    var timings = new Timings();
+
+    timings.countFiles(dir.resolve("missing"));
+
+    assertThat(timings.getFiles()).isEqualTo(0);
+  }
+}